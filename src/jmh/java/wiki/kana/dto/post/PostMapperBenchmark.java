@@ -0,0 +1,75 @@
+package wiki.kana.dto.post;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wiki.kana.dto.CommonResponse;
+import wiki.kana.entity.Post;
+import wiki.kana.integration.config.TestDataFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文章响应映射与序列化基准测试
+ * 覆盖 PostMapper.toPostResponse 和列表接口返回的 CommonResponse&lt;Page&lt;PostResponse&gt;&gt; JSON 序列化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostMapperBenchmark {
+
+    /**
+     * 正文长度（字符数），详情页典型值与长文
+     */
+    @Param({"2000", "20000"})
+    private int contentLength;
+
+    /**
+     * 每页文章数
+     */
+    @Param({"10"})
+    private int pageSize;
+
+    private Post post;
+    private List<Post> posts;
+    private CommonResponse<Page<PostResponse>> pageResponse;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        posts = TestDataFactory.buildDetachedPosts(pageSize, contentLength, 3);
+        post = posts.get(0);
+
+        List<PostResponse> responses = posts.stream().map(PostMapper::toPostResponse).toList();
+        pageResponse = CommonResponse.success(new PageImpl<>(responses, PageRequest.of(0, pageSize), 1000));
+
+        // 与 Spring Boot 自动配置一致：注册 JavaTimeModule 等已知模块
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public PostResponse toPostResponse() {
+        return PostMapper.toPostResponse(post);
+    }
+
+    @Benchmark
+    public void toPostResponsePage(Blackhole blackhole) {
+        for (Post p : posts) {
+            blackhole.consume(PostMapper.toPostResponse(p));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializePageResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pageResponse);
+    }
+}
@@ -0,0 +1,43 @@
+package wiki.kana.service;
+
+import org.openjdk.jmh.annotations.*;
+import wiki.kana.entity.Tag;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slug 生成基准测试
+ * 覆盖 PostService.generateSlug 和 Tag.generateSlug（均为多次正则替换）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlugBenchmark {
+
+    @Param({"Spring Boot  实战指南 -- Part 3", "Deep Dive into the Java Virtual Machine: GC, JIT and Memory Model"})
+    private String title;
+
+    private PostService postService;
+    private Tag tag;
+
+    @Setup
+    public void setUp() {
+        // generateSlug 不访问任何依赖
+        postService = new PostService(null, null, null, null, null, null, null, null);
+        tag = Tag.builder().name(title).build();
+    }
+
+    @Benchmark
+    public String postServiceGenerateSlug() {
+        return postService.generateSlug(title);
+    }
+
+    @Benchmark
+    public String tagGenerateSlug() {
+        tag.generateSlug();
+        return tag.getSlug();
+    }
+}
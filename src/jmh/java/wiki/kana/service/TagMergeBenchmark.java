@@ -0,0 +1,68 @@
+package wiki.kana.service;
+
+import org.openjdk.jmh.annotations.*;
+import wiki.kana.entity.Tag;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.repository.PostRepository;
+import wiki.kana.repository.TagRepository;
+import wiki.kana.repository.TagUsageRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 标签合并建议基准测试
+ * 覆盖 TagService.calculateLevenshteinDistance 单次计算、computeMergeSuggestions 候选索引全量计算，
+ * 以及 suggestTagMerges 在标签集合未变化时命中缓存
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagMergeBenchmark {
+
+    /**
+     * 标签总数
+     */
+    @Param({"100", "1000", "5000"})
+    private int tagCount;
+
+    private TagService tagService;
+    private List<Tag> tags;
+    private String left;
+    private String right;
+
+    @Setup
+    public void setUp() {
+        tags = TestDataFactory.buildDetachedTags(tagCount);
+
+        TagRepository tagRepository = mock(TagRepository.class);
+        when(tagRepository.findAll()).thenReturn(tags);
+        tagService = new TagService(tagRepository, mock(TagUsageRepository.class), mock(PostRepository.class),
+                mock(PostDetailCache.class), mock(TagDictionary.class), new ContentRevision());
+
+        left = "spring boot starter";
+        right = "springboot-starters";
+    }
+
+    @Benchmark
+    public int levenshteinDistance() {
+        return tagService.calculateLevenshteinDistance(left, right);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> computeMergeSuggestions() {
+        return tagService.computeMergeSuggestions(tags, 0.8);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> suggestTagMerges() {
+        return tagService.suggestTagMerges(0.8);
+    }
+}
@@ -0,0 +1,144 @@
+package wiki.kana.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import wiki.kana.service.ContentRevision;
+import wiki.kana.service.PostDetailCache;
+import wiki.kana.service.ViewCountBuffer;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 公共读接口的条件请求处理
+ * 请求携带的 If-None-Match / If-Modified-Since 与当前内容版本一致时直接返回 304，不进入控制器和服务层；
+ * 否则记录本次请求读取时的版本，由 {@link ConditionalGetResponseAdvice} 写入响应头。
+ * 版本只组合响应中出现的资源族：文章列表和详情包含分类、标签和作者信息，分类带有文章数，标签使用次数单独递增
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    static final String SNAPSHOT_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".snapshot";
+
+    private static final String POST_DETAIL_PATTERN = "/api/posts/{id}";
+    private static final String POST_SLUG_PATTERN = "/api/posts/slug/{slug}";
+
+    private static final Set<ContentRevision.Family> POST_FAMILIES = EnumSet.of(
+            ContentRevision.Family.POSTS, ContentRevision.Family.CATEGORIES,
+            ContentRevision.Family.TAGS, ContentRevision.Family.AUTHORS);
+    private static final Set<ContentRevision.Family> CATEGORY_FAMILIES = EnumSet.of(
+            ContentRevision.Family.CATEGORIES, ContentRevision.Family.POSTS);
+    private static final Set<ContentRevision.Family> TAG_FAMILIES = EnumSet.of(ContentRevision.Family.TAGS);
+    private static final Set<ContentRevision.Family> SETTINGS_FAMILIES = EnumSet.of(ContentRevision.Family.SETTINGS);
+
+    private final ContentRevision contentRevision;
+    private final PostDetailCache postDetailCache;
+    private final ViewCountBuffer viewCountBuffer;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+
+        // 先取版本再读数据：读取期间发生的变更只会让 ETag 偏旧，下次请求重新获取
+        ContentRevision.Snapshot snapshot = contentRevision.current(familiesOf(request));
+        if (!isNotModified(request, snapshot)) {
+            request.setAttribute(SNAPSHOT_ATTRIBUTE, snapshot);
+            return true;
+        }
+
+        recordView(request);
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        writeValidators(response, snapshot);
+        return false;
+    }
+
+    /**
+     * 按匹配到的接口路径选择参与版本的资源族；分类、标签下的文章列表与文章接口相同
+     */
+    private Set<ContentRevision.Family> familiesOf(HttpServletRequest request) {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return EnumSet.allOf(ContentRevision.Family.class);
+        }
+        if (pattern.startsWith("/api/posts") || pattern.endsWith("/posts") || pattern.endsWith("/posts-summary")) {
+            return POST_FAMILIES;
+        }
+        if (pattern.startsWith("/api/categories")) {
+            return CATEGORY_FAMILIES;
+        }
+        if (pattern.startsWith("/api/tags")) {
+            return TAG_FAMILIES;
+        }
+        if (pattern.startsWith("/api/settings")) {
+            return SETTINGS_FAMILIES;
+        }
+        return EnumSet.allOf(ContentRevision.Family.class);
+    }
+
+    /**
+     * 写入 ETag、Last-Modified，并要求客户端和 CDN 每次使用前重新验证
+     */
+    static void writeValidators(HttpServletResponse response, ContentRevision.Snapshot snapshot) {
+        response.setHeader(HttpHeaders.ETAG, snapshot.getEtag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, snapshot.getLastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    }
+
+    /**
+     * 有 If-None-Match 时只比较 ETag，否则比较 If-Modified-Since
+     */
+    private boolean isNotModified(HttpServletRequest request, ContentRevision.Snapshot snapshot) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (StringUtils.hasText(ifNoneMatch)) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                if (snapshot.getEtag().equals(candidate.trim())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && ifModifiedSince >= snapshot.getLastModified();
+    }
+
+    /**
+     * 文章详情返回 304 时仍然计入浏览量（按 Slug 访问时需要详情缓存中已有该文章）
+     */
+    private void recordView(HttpServletRequest request) {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (pattern == null || variables == null) {
+            return;
+        }
+
+        if (POST_DETAIL_PATTERN.equals(pattern)) {
+            try {
+                viewCountBuffer.increment(Long.valueOf(variables.get("id")));
+            } catch (NumberFormatException ignored) {
+                // 非法 ID 交给控制器处理，这里不计数
+            }
+        } else if (POST_SLUG_PATTERN.equals(pattern)) {
+            viewCountBuffer.increment(postDetailCache.findIdBySlug(variables.get("slug")));
+        }
+    }
+}
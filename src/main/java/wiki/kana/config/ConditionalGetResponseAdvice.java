@@ -0,0 +1,46 @@
+package wiki.kana.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import wiki.kana.service.ContentRevision;
+
+/**
+ * 为公共读接口的成功响应写入 ETag 和 Last-Modified
+ * 只处理 2xx 响应，错误响应不携带验证器，避免客户端对 404 等结果做条件请求
+ */
+@ControllerAdvice
+public class ConditionalGetResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        HttpServletResponse httpResponse = servletResponse.getServletResponse();
+        Object snapshot = httpRequest.getAttribute(ConditionalGetInterceptor.SNAPSHOT_ATTRIBUTE);
+        int status = httpResponse.getStatus();
+        if (snapshot instanceof ContentRevision.Snapshot revision && status >= 200 && status < 300) {
+            ConditionalGetInterceptor.writeValidators(httpResponse, revision);
+        }
+        return body;
+    }
+}
@@ -103,7 +103,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                path.equals("/api/categories") || path.startsWith("/api/categories/") ||
                path.equals("/api/tags") || path.startsWith("/api/tags/") ||
                path.equals("/api/settings/public") || path.startsWith("/api/settings/public/") ||
-               path.equals("/api/media") || path.startsWith("/api/media/") ||
                path.startsWith("/error") ||
                path.startsWith("/actuator");
     }
@@ -0,0 +1,156 @@
+package wiki.kana.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import wiki.kana.service.ImageDerivativeService;
+import wiki.kana.service.MediaStorageReconciler;
+import wiki.kana.service.PostDetailCache;
+import wiki.kana.service.WriteDispatcher;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 应用自定义指标
+ * <p>
+ * 控制器路由耗时由 Spring Boot 的 http.server.requests 提供（uri 标签为路由模板）；
+ * PostService、TagService、MediaService、FileStorageService.store 和 JWT 校验通过 {@code @Timed} 记录耗时和次数；
+ * SQLite 连接池指标在 {@link SqliteDataSourceConfig} 中注册。这里把缓存、写入调度器和图片衍生图线程池已有的统计暴露为指标，
+ * 所有指标通过 /actuator/prometheus 导出
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String POST_DETAIL_CACHE = "post-detail";
+
+    /**
+     * 文章详情缓存：沿用 Micrometer 缓存指标命名（cache.gets、cache.evictions、cache.size），另加命中率
+     */
+    @Bean
+    public MeterBinder postDetailCacheMetrics(PostDetailCache postDetailCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", postDetailCache, cache -> cache.stats().getHits())
+                    .tags("cache", POST_DETAIL_CACHE, "result", "hit")
+                    .description("Post detail cache lookups that found a cached entry")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", postDetailCache, cache -> cache.stats().getMisses())
+                    .tags("cache", POST_DETAIL_CACHE, "result", "miss")
+                    .description("Post detail cache lookups that had to load the post")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", postDetailCache, cache -> cache.stats().getEvictions())
+                    .tag("cache", POST_DETAIL_CACHE)
+                    .register(registry);
+            FunctionCounter.builder("cache.invalidations", postDetailCache, cache -> cache.stats().getInvalidations())
+                    .tag("cache", POST_DETAIL_CACHE)
+                    .register(registry);
+            Gauge.builder("cache.size", postDetailCache, cache -> cache.stats().getSize())
+                    .tag("cache", POST_DETAIL_CACHE)
+                    .register(registry);
+            Gauge.builder("cache.weight", postDetailCache, cache -> cache.stats().getWeightBytes())
+                    .tag("cache", POST_DETAIL_CACHE)
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("cache.hit.ratio", postDetailCache, cache -> cache.stats().getHitRate())
+                    .tag("cache", POST_DETAIL_CACHE)
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 单写者队列和 SQLite 写入：队列深度、拒绝次数、合并事务拆分重试次数、SQLITE_BUSY 次数
+     */
+    @Bean
+    public MeterBinder writeDispatcherMetrics(WriteDispatcher writeDispatcher) {
+        return registry -> {
+            Gauge.builder("konatablog.write.queue.size", writeDispatcher, dispatcher -> dispatcher.stats().getQueueSize())
+                    .description("Write commands waiting for the single SQLite writer")
+                    .register(registry);
+            counter(registry, writeDispatcher, "konatablog.write.queue.submitted", WriteDispatcher.Stats::getSubmitted);
+            counter(registry, writeDispatcher, "konatablog.write.queue.rejected", WriteDispatcher.Stats::getRejected);
+            counter(registry, writeDispatcher, "konatablog.write.batches", WriteDispatcher.Stats::getCommittedBatches);
+            counter(registry, writeDispatcher, "konatablog.write.commands.committed", WriteDispatcher.Stats::getCommittedCommands);
+            counter(registry, writeDispatcher, "konatablog.write.commands.failed", WriteDispatcher.Stats::getFailedCommands);
+            counter(registry, writeDispatcher, "konatablog.write.commands.timeout", WriteDispatcher.Stats::getTimedOut);
+            counter(registry, writeDispatcher, "konatablog.write.batch.splits", WriteDispatcher.Stats::getSplitBatches);
+            counter(registry, writeDispatcher, "konatablog.sqlite.busy", WriteDispatcher.Stats::getBusyErrors);
+        };
+    }
+
+    /**
+     * 图片衍生图线程池：排队任务数、提交/拒绝/完成/失败次数和生成的衍生图数量
+     */
+    @Bean
+    public MeterBinder imageDerivativeMetrics(ImageDerivativeService imageDerivativeService) {
+        return registry -> {
+            Gauge.builder("konatablog.media.derivatives.queue.size", imageDerivativeService,
+                            service -> service.stats().getQueueSize())
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.derivatives.jobs", imageDerivativeService,
+                            service -> service.stats().getScheduled())
+                    .tag("result", "scheduled")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.derivatives.jobs", imageDerivativeService,
+                            service -> service.stats().getRejected())
+                    .tag("result", "rejected")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.derivatives.jobs", imageDerivativeService,
+                            service -> service.stats().getCompleted())
+                    .tag("result", "completed")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.derivatives.jobs", imageDerivativeService,
+                            service -> service.stats().getFailed())
+                    .tag("result", "failed")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.derivatives.renditions", imageDerivativeService,
+                            service -> service.stats().getRenditions())
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 媒体存储清理：执行轮数、扫描的文件/记录数、隔离/删除的文件数、回收字节数和文件缺失的记录数
+     */
+    @Bean
+    public MeterBinder mediaStorageReconcilerMetrics(MediaStorageReconciler reconciler) {
+        return registry -> {
+            FunctionCounter.builder("konatablog.media.gc.runs", reconciler,
+                            service -> service.stats().getRuns())
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.gc.scanned", reconciler,
+                            service -> service.stats().getScannedFiles())
+                    .tag("kind", "file")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.gc.scanned", reconciler,
+                            service -> service.stats().getScannedRows())
+                    .tag("kind", "row")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.gc.files", reconciler,
+                            service -> service.stats().getQuarantinedFiles())
+                    .tag("action", "quarantined")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.gc.files", reconciler,
+                            service -> service.stats().getDeletedFiles())
+                    .tag("action", "deleted")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.gc.reclaimed.bytes", reconciler,
+                            service -> service.stats().getReclaimedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.gc.rows.removed", reconciler,
+                            service -> service.stats().getRemovedRows())
+                    .register(registry);
+            FunctionCounter.builder("konatablog.media.gc.missing.files", reconciler,
+                            service -> service.stats().getMissingFiles())
+                    .register(registry);
+        };
+    }
+
+    private static void counter(MeterRegistry registry, WriteDispatcher writeDispatcher,
+                                String name, ToDoubleFunction<WriteDispatcher.Stats> value) {
+        FunctionCounter.builder(name, writeDispatcher, dispatcher -> value.applyAsDouble(dispatcher.stats()))
+                .register(registry);
+    }
+}
@@ -0,0 +1,91 @@
+package wiki.kana.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程模式下的请求并发上限
+ * <p>
+ * 平台线程模式由 Tomcat 线程池（默认 200）限制并发；虚拟线程模式每个请求一个虚拟线程，没有上限，
+ * 大量请求会同时排队等待 SQLite 单连接写池、读池和磁盘。这里用信号量限制同时处理的请求数，
+ * 等待 acquire-timeout 仍拿不到许可时返回 503，与写队列满时的背压行为一致。
+ * 媒体文件下载和流式上传的耗时取决于客户端网速，长时间占用许可会挤掉普通请求，按 excluded-paths 排除。
+ * 仅在 spring.threads.virtual.enabled=true 且运行在 Java 21+ 时生效
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final List<String> excludedPaths;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public RequestConcurrencyLimitFilter(
+            @Value("${app.virtual-threads.max-concurrent-requests:256}") int maxConcurrentRequests,
+            @Value("${app.virtual-threads.acquire-timeout:2000}") long acquireTimeoutMillis,
+            @Value("${app.virtual-threads.excluded-paths:${app.media.url-prefix:/uploads}/**,/api/media/upload,/api/media/uploads/*}")
+            List<String> excludedPaths) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.excludedPaths = excludedPaths;
+        log.info("虚拟线程模式：同时处理的请求数上限 {}，不限制的路径 {}", maxConcurrentRequests, excludedPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return excludedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("请求并发已满，拒绝请求: {} {}", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(
+                    "{\"success\":false,\"error\":{\"code\":\"SERVER_BUSY\",\"message\":\"服务器繁忙，请稍后重试\"}}");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package wiki.kana.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ * 开启 spring.threads.virtual.enabled 时，定时任务在虚拟线程上执行
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
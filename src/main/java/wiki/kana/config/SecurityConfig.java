@@ -3,6 +3,7 @@ package wiki.kana.config;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -36,6 +37,12 @@ public class SecurityConfig {
     @Value("${app.cors.allow-credentials:false}")
     private boolean corsAllowCredentials;
 
+    @Value("${app.media.url-prefix:/uploads}")
+    private String mediaUrlPrefix;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     /**
      * 配置密码编码器
      * 使用BCrypt算法 - 安全性高，自带盐值
@@ -96,9 +103,18 @@ public class SecurityConfig {
                                 "/api/posts/**",
                                 "/api/categories/**",
                                 "/api/tags/**",
-                                "/api/settings/public"
+                                "/api/settings/public",
+                                "/actuator/health"
                         ).permitAll()
 
+                        // 管理端口（默认只绑定本机）上的指标抓取无需认证，公共端口上需要认证
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort)
+                        .permitAll()
+
+                        // 已上传的媒体文件公开可读
+                        .requestMatchers(HttpMethod.GET, mediaUrlPrefix + "/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, mediaUrlPrefix + "/**").permitAll()
+
                         // 需要认证的接口
                         .requestMatchers(
                                 "/api/auth/**",
@@ -0,0 +1,110 @@
+package wiki.kana.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+
+/**
+ * SQLite 数据源配置
+ * <p>
+ * 所有连接启用 WAL、synchronous=NORMAL、mmap、页缓存和 busy_timeout。
+ * 写连接池只有一个连接，与 SQLite 单写者模型一致，写事务在池中排队而不是在数据库上抢锁；
+ * 只读事务（{@code @Transactional(readOnly = true)}）路由到多连接读池，WAL 模式下读写互不阻塞。
+ * 路由由 {@link LazyConnectionDataSourceProxy} 按连接的只读标记完成，事务真正执行语句时才取连接。
+ * 两个连接池在创建时注册 Hikari 指标（hikaricp.connections.*，按 pool 标签区分读写池）
+ */
+@Slf4j
+@Configuration
+public class SqliteDataSourceConfig {
+
+    @Value("${app.datasource.sqlite.busy-timeout:5000}")
+    private int busyTimeout;
+
+    /**
+     * 页缓存，负数表示 KiB（每个连接独立）
+     */
+    @Value("${app.datasource.sqlite.cache-size:-16384}")
+    private int cacheSize;
+
+    @Value("${app.datasource.sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    /**
+     * 读池大小，0 表示按 CPU 核数
+     */
+    @Value("${app.datasource.sqlite.read-pool-size:0}")
+    private int readPoolSize;
+
+    @Value("${app.datasource.sqlite.connection-timeout:30000}")
+    private long connectionTimeout;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteWriteDataSource(DataSourceProperties properties,
+                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = createPool(properties, "sqlite-write", 1, meterRegistry.getIfAvailable());
+        log.info("SQLite 写连接池已创建: {}", properties.getUrl());
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteReadDataSource(DataSourceProperties properties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        int size = readPoolSize > 0 ? readPoolSize : Math.max(2, Runtime.getRuntime().availableProcessors());
+        HikariDataSource dataSource = createPool(properties, "sqlite-read", size, meterRegistry.getIfAvailable());
+        log.info("SQLite 读连接池已创建，连接数: {}", size);
+        return dataSource;
+    }
+
+    /**
+     * 应用使用的数据源：默认走写池，只读连接走读池
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("sqliteWriteDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("sqliteReadDataSource") HikariDataSource readDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(writeDataSource);
+        proxy.setReadOnlyDataSource(readDataSource);
+        return proxy;
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, String poolName, int size,
+                                        MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(properties.getUrl());
+        config.setDriverClassName(properties.determineDriverClassName());
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setDataSourceProperties(pragmas().toProperties());
+        // 连接池创建即启动，指标必须在启动前注册
+        if (meterRegistry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return new HikariDataSource(config);
+    }
+
+    private SQLiteConfig pragmas() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(busyTimeout);
+        config.setCacheSize(cacheSize);
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        return config;
+    }
+}
@@ -0,0 +1,26 @@
+package wiki.kana.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC 配置
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+    /**
+     * 公共读接口启用条件请求；管理端接口与登录用户相关，不参与
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/api/posts/**", "/api/categories/**", "/api/tags/**", "/api/settings/public")
+                .excludePathPatterns("/api/posts/admin/**", "/api/categories/stats");
+    }
+}
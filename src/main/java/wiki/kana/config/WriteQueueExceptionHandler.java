@@ -0,0 +1,26 @@
+package wiki.kana.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import wiki.kana.dto.CommonResponse;
+import wiki.kana.exception.WriteQueueFullException;
+
+/**
+ * 写队列背压：队列已满时返回 503，提示客户端稍后重试
+ */
+@Slf4j
+@RestControllerAdvice
+public class WriteQueueExceptionHandler {
+
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<CommonResponse<Void>> handleWriteQueueFull(WriteQueueFullException e) {
+        log.warn("写入请求被拒绝: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(CommonResponse.error("WRITE_QUEUE_FULL", "写入繁忙，请稍后重试"));
+    }
+}
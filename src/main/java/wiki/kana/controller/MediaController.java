@@ -1,10 +1,10 @@
 package wiki.kana.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -13,20 +13,29 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 import wiki.kana.dto.CommonResponse;
 import wiki.kana.dto.media.MediaResponse;
+import wiki.kana.dto.media.UploadSessionCreateRequest;
+import wiki.kana.dto.media.UploadSessionResponse;
 import wiki.kana.entity.Media;
 import wiki.kana.exception.DuplicateResourceException;
 import wiki.kana.exception.FileStorageException;
 import wiki.kana.exception.ResourceNotFoundException;
+import wiki.kana.service.ChunkedUploadService;
 import wiki.kana.service.FileStorageService;
+import wiki.kana.service.ImageDerivativeService;
 import wiki.kana.service.MediaService;
+import wiki.kana.service.MultipartUploadService;
+import wiki.kana.service.WriteDispatcher;
 import wiki.kana.util.JwtTokenUtil;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -39,10 +48,14 @@ import java.util.stream.Collectors;
 public class MediaController {
 
     private static final long MAX_UPLOAD_SIZE = 5L * 1024 * 1024;
-    private static final String DEFAULT_SUB_DIR = "media";
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("createdAt", "fileSize", "originalName", "type", "id");
 
     private final MediaService mediaService;
     private final FileStorageService fileStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final MultipartUploadService multipartUploadService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final WriteDispatcher writeDispatcher;
     private final JwtTokenUtil jwtTokenUtil;
 
     /**
@@ -63,80 +76,173 @@ public class MediaController {
 
         Pageable pageable = buildPageable(page, size, sort);
 
-        List<Media> mediaList;
+        Media.MediaType filterType = null;
+        if (StringUtils.hasText(type)) {
+            try {
+                filterType = Media.MediaType.valueOf(type.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(CommonResponse.error("VALIDATION_ERROR", "不支持的媒体类型"));
+            }
+        }
+
+        // 未指定类型时不单独列出衍生图，它们通过原图的 srcset 返回
+        Page<Media> pageData = mediaService.searchMedia(filterType, uploadedBy, pageable);
+        Map<Long, List<Media>> renditions = mediaService.findRenditions(
+                pageData.getContent().stream().map(Media::getId).toList());
+        return ResponseEntity.ok(CommonResponse.success(pageData.map(
+                media -> toMediaResponse(media, renditions.getOrDefault(media.getId(), Collections.emptyList())))));
+    }
+
+    /**
+     * 上传媒体文件（multipart/form-data：file、description、altText、type）
+     * <p>
+     * 请求体边读边写入存储，文件不经过容器临时文件
+     */
+    @PostMapping("/upload")
+    public ResponseEntity<CommonResponse<MediaResponse>> uploadMedia(HttpServletRequest request) {
+
+        Long userId = resolveUserId(request);
+        if (userId == null) {
+            return unauthorizedResponse();
+        }
+
         try {
-            mediaList = mediaService.findAll();
-            if (StringUtils.hasText(type)) {
-                Media.MediaType filterType = Media.MediaType.valueOf(type.toUpperCase(Locale.ENGLISH));
-                mediaList = mediaList.stream()
-                        .filter(media -> media.getType() == filterType)
-                        .collect(Collectors.toList());
+            // 文件项之前的 type 字段在读取文件前校验；文件名只用于推断类型
+            MultipartUploadService.Upload upload = multipartUploadService.receive(request, "file", MAX_UPLOAD_SIZE,
+                    (filename, fields) -> resolveMediaType(fields.get("type"), filename));
+            FileStorageService.StoredFile storedFile = upload.file();
+            if (storedFile == null) {
+                return ResponseEntity.badRequest()
+                        .body(CommonResponse.error("VALIDATION_ERROR", "请选择需要上传的文件"));
             }
+            Media.MediaType mediaType = resolveMediaType(upload.field("type"), storedFile.getOriginalFilename());
+            MediaResponse saved = saveUploadedMedia(userId, storedFile, mediaType,
+                    upload.field("description"), upload.field("altText"), null);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(CommonResponse.success(saved, "文件上传成功"));
+        } catch (DuplicateResourceException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(CommonResponse.error("DUPLICATE_RESOURCE", e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(CommonResponse.error("RESOURCE_NOT_FOUND", e.getMessage()));
+        } catch (FileStorageException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CommonResponse.error("STORAGE_ERROR", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
-                    .body(CommonResponse.error("VALIDATION_ERROR", "不支持的媒体类型"));
+                    .body(CommonResponse.error("VALIDATION_ERROR", e.getMessage()));
         }
+    }
+
+    /**
+     * 创建分片上传会话（大文件、视频、音频），返回上传ID和分片大小
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<CommonResponse<UploadSessionResponse>> createUploadSession(
+            HttpServletRequest request,
+            @Valid @RequestBody UploadSessionCreateRequest createRequest) {
 
-        if (uploadedBy != null) {
-            mediaList = mediaList.stream()
-                    .filter(media -> media.getUploadedBy() != null && uploadedBy.equals(media.getUploadedBy().getId()))
-                    .collect(Collectors.toList());
+        Long userId = resolveUserId(request);
+        if (userId == null) {
+            return unauthorizedResponse();
         }
 
-        Page<Media> pageData = buildPageFromList(mediaList, pageable);
-        return ResponseEntity.ok(CommonResponse.success(pageData.map(this::toMediaResponse)));
+        try {
+            Media.MediaType mediaType = resolveMediaType(createRequest.getType(), createRequest.getFileName());
+            UploadSessionResponse response = chunkedUploadService.createSession(userId, createRequest.getFileName(),
+                    createRequest.getFileSize(), mediaType, createRequest.getDescription(),
+                    createRequest.getAltText(), createRequest.getSha256());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(CommonResponse.success(response, "上传会话已创建"));
+        } catch (FileStorageException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CommonResponse.error("STORAGE_ERROR", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonResponse.error("VALIDATION_ERROR", e.getMessage()));
+        }
     }
 
     /**
-     * 上传媒体文件
+     * 查询分片上传进度（missingOffsets 为尚需上传的分片）
      */
-    @PostMapping("/upload")
-    public ResponseEntity<CommonResponse<MediaResponse>> uploadMedia(
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<CommonResponse<UploadSessionResponse>> getUploadSession(
             HttpServletRequest request,
-            @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "description", required = false) String description,
-            @RequestParam(value = "altText", required = false) String altText,
-            @RequestParam(value = "type", required = false) String type) {
+            @PathVariable String uploadId) {
 
         Long userId = resolveUserId(request);
         if (userId == null) {
             return unauthorizedResponse();
         }
 
-        if (file == null || file.isEmpty()) {
-            return ResponseEntity.badRequest()
-                    .body(CommonResponse.error("VALIDATION_ERROR", "请选择需要上传的文件"));
+        try {
+            return ResponseEntity.ok(CommonResponse.success(chunkedUploadService.getSession(userId, uploadId)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(CommonResponse.error("UPLOAD_NOT_FOUND", e.getMessage()));
         }
+    }
 
-        if (file.getSize() > MAX_UPLOAD_SIZE) {
-            return ResponseEntity.badRequest()
-                    .body(CommonResponse.error("VALIDATION_ERROR", "文件大小不能超过5MB"));
+    /**
+     * 上传一个分片：请求体为分片原始字节，offset 为分片在文件中的起始位置；
+     * 可选请求头 X-Chunk-SHA256 为分片内容的 SHA-256，不一致时拒绝该分片
+     */
+    @PutMapping("/uploads/{uploadId}")
+    public ResponseEntity<CommonResponse<UploadSessionResponse>> uploadChunk(
+            HttpServletRequest request,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String checksum) {
+
+        Long userId = resolveUserId(request);
+        if (userId == null) {
+            return unauthorizedResponse();
         }
 
         try {
-            Media.MediaType mediaType = resolveMediaType(type, file);
-            FileStorageService.StoredFile storedFile = fileStorageService.store(file, DEFAULT_SUB_DIR);
+            UploadSessionResponse response = chunkedUploadService.writeChunk(userId, uploadId, offset,
+                    request.getInputStream(), checksum);
+            return ResponseEntity.ok(CommonResponse.success(response));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonResponse.error("VALIDATION_ERROR", "分片读取失败，请重试"));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(CommonResponse.error("UPLOAD_NOT_FOUND", e.getMessage()));
+        } catch (FileStorageException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CommonResponse.error("STORAGE_ERROR", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonResponse.error("VALIDATION_ERROR", e.getMessage()));
+        }
+    }
 
-            Media media = Media.builder()
-                    .originalName(storedFile.getOriginalFilename())
-                    .fileName(storedFile.getStoredFilename())
-                    .fileExtension(storedFile.getExtension())
-                    .fileSize(storedFile.getSize())
-                    .type(mediaType)
-                    .localUrl(storedFile.getPublicUrl())
-                    .description(description)
-                    .altText(altText)
-                    .build();
+    /**
+     * 提交分片上传：校验完整文件并创建媒体记录
+     */
+    @PostMapping("/uploads/{uploadId}/commit")
+    public ResponseEntity<CommonResponse<MediaResponse>> commitUpload(
+            HttpServletRequest request,
+            @PathVariable String uploadId) {
 
-            Media saved = mediaService.createMedia(media, userId);
+        Long userId = resolveUserId(request);
+        if (userId == null) {
+            return unauthorizedResponse();
+        }
+
+        try {
+            ChunkedUploadService.CommittedUpload committed = chunkedUploadService.commit(userId, uploadId);
+            MediaResponse saved = saveUploadedMedia(userId, committed.storedFile(), committed.session().getType(),
+                    committed.session().getDescription(), committed.session().getAltText(), uploadId);
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(CommonResponse.success(toMediaResponse(saved), "文件上传成功"));
-        } catch (DuplicateResourceException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(CommonResponse.error("DUPLICATE_RESOURCE", e.getMessage()));
+                    .body(CommonResponse.success(saved, "文件上传成功"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(CommonResponse.error("RESOURCE_NOT_FOUND", e.getMessage()));
+                    .body(CommonResponse.error("UPLOAD_NOT_FOUND", e.getMessage()));
         } catch (FileStorageException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(CommonResponse.error("STORAGE_ERROR", e.getMessage()));
@@ -146,6 +252,28 @@ public class MediaController {
         }
     }
 
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<CommonResponse<Void>> abortUpload(
+            HttpServletRequest request,
+            @PathVariable String uploadId) {
+
+        Long userId = resolveUserId(request);
+        if (userId == null) {
+            return unauthorizedResponse();
+        }
+
+        try {
+            chunkedUploadService.abort(userId, uploadId);
+            return ResponseEntity.ok(CommonResponse.success("上传已取消"));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(CommonResponse.error("UPLOAD_NOT_FOUND", e.getMessage()));
+        }
+    }
+
     /**
      * 删除媒体文件
      */
@@ -159,7 +287,7 @@ public class MediaController {
         }
 
         try {
-            mediaService.deleteMedia(id);
+            writeDispatcher.run(() -> mediaService.deleteMedia(id));
             return ResponseEntity.ok(CommonResponse.success("媒体删除成功"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -167,15 +295,53 @@ public class MediaController {
         }
     }
 
-    private Media.MediaType resolveMediaType(String type, MultipartFile file) {
+    /**
+     * 为已存储的文件创建媒体记录并安排衍生图生成；uploadKey 不为空时在同一次写入中删除分片上传会话
+     */
+    private MediaResponse saveUploadedMedia(Long userId, FileStorageService.StoredFile storedFile,
+                                            Media.MediaType mediaType, String description, String altText,
+                                            String uploadKey) {
+        // 只读取图片头获取宽高，像素解码和缩放在后台进行
+        Optional<ImageDerivativeService.ImageSize> dimensions = Media.isImageType(mediaType)
+                ? imageDerivativeService.readDimensions(storedFile.getAbsolutePath())
+                : Optional.empty();
+
+        // 文件在请求线程写入磁盘（相同内容已存在时跳过），只有数据库记录进入写队列
+        // 实体在写操作内部创建，合并事务回滚后重新执行时不会复用已分配ID的实体
+        MediaResponse saved = writeDispatcher.execute(() -> {
+            Media media = Media.builder()
+                    .originalName(storedFile.getOriginalFilename())
+                    .fileName(storedFile.getStoredFilename())
+                    .fileExtension(storedFile.getExtension())
+                    .fileSize(storedFile.getSize())
+                    .type(mediaType)
+                    .localUrl(storedFile.getPublicUrl())
+                    .description(description)
+                    .altText(altText)
+                    .width(dimensions.map(ImageDerivativeService.ImageSize::width).orElse(null))
+                    .height(dimensions.map(ImageDerivativeService.ImageSize::height).orElse(null))
+                    .build();
+            MediaResponse response = toMediaResponse(
+                    mediaService.createMedia(media, userId, storedFile), Collections.emptyList());
+            if (uploadKey != null) {
+                chunkedUploadService.deleteSession(uploadKey);
+            }
+            return response;
+        });
+        imageDerivativeService.schedule(saved.getId(), mediaType, storedFile.getOriginalFilename(),
+                storedFile.getAbsolutePath());
+        return saved;
+    }
+
+    private Media.MediaType resolveMediaType(String type, String filename) {
         if (StringUtils.hasText(type)) {
             return Media.MediaType.valueOf(type.toUpperCase(Locale.ENGLISH));
         }
-        String extension = StringUtils.getFilenameExtension(file.getOriginalFilename());
+        String extension = StringUtils.getFilenameExtension(filename);
         return mediaService.determineMediaType(extension);
     }
 
-    private MediaResponse toMediaResponse(Media media) {
+    private MediaResponse toMediaResponse(Media media, List<Media> renditions) {
         MediaResponse.MediaResponseBuilder builder = MediaResponse.builder()
                 .id(media.getId())
                 .originalName(media.getOriginalName())
@@ -188,6 +354,7 @@ public class MediaController {
                 .type(media.getType() != null ? media.getType().name() : null)
                 .width(media.getWidth())
                 .height(media.getHeight())
+                .srcset(buildSrcset(media, renditions))
                 .description(media.getDescription())
                 .altText(media.getAltText())
                 .uploadedAt(media.getCreatedAt());
@@ -203,6 +370,20 @@ public class MediaController {
         return builder.build();
     }
 
+    private String buildSrcset(Media media, List<Media> renditions) {
+        if (CollectionUtils.isEmpty(renditions)) {
+            return null;
+        }
+        List<String> candidates = renditions.stream()
+                .filter(rendition -> rendition.getWidth() != null)
+                .map(rendition -> rendition.getUrl() + " " + rendition.getWidth() + "w")
+                .collect(Collectors.toList());
+        if (media.getWidth() != null) {
+            candidates.add(media.getUrl() + " " + media.getWidth() + "w");
+        }
+        return String.join(", ", candidates);
+    }
+
     private String resolveMimeType(String extension) {
         if (!StringUtils.hasText(extension)) {
             return null;
@@ -231,29 +412,24 @@ public class MediaController {
         int safePage = Math.max(page, 0);
         int safeSize = Math.min(Math.max(size, 1), 100);
 
-        Sort sort = Sort.by("createdAt").descending();
+        String property = "createdAt";
+        Sort.Direction direction = Sort.Direction.DESC;
         if (StringUtils.hasText(sortParam)) {
             String[] parts = sortParam.split(",");
-            String property = parts[0];
-            if (parts.length > 1 && "asc".equalsIgnoreCase(parts[1])) {
-                sort = Sort.by(property).ascending();
-            } else {
-                sort = Sort.by(property).descending();
+            if (SORTABLE_PROPERTIES.contains(parts[0].trim())) {
+                property = parts[0].trim();
+            }
+            if (parts.length > 1 && "asc".equalsIgnoreCase(parts[1].trim())) {
+                direction = Sort.Direction.ASC;
             }
         }
 
-        return PageRequest.of(safePage, safeSize, sort);
-    }
-
-    private Page<Media> buildPageFromList(List<Media> mediaList, Pageable pageable) {
-        if (CollectionUtils.isEmpty(mediaList)) {
-            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        // 追加 id 保证同一排序值的记录在翻页时顺序稳定
+        Sort sort = Sort.by(direction, property);
+        if (!"id".equals(property)) {
+            sort = sort.and(Sort.by(direction, "id"));
         }
-
-        int start = Math.min((int) pageable.getOffset(), mediaList.size());
-        int end = Math.min(start + pageable.getPageSize(), mediaList.size());
-        List<Media> content = mediaList.subList(start, end);
-        return new PageImpl<>(content, pageable, mediaList.size());
+        return PageRequest.of(safePage, safeSize, sort);
     }
 
     private Long resolveUserId(HttpServletRequest request) {
@@ -0,0 +1,245 @@
+package wiki.kana.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+import wiki.kana.entity.Media;
+import wiki.kana.service.ContentHashCache;
+import wiki.kana.service.FileStorageService;
+import wiki.kana.service.MediaService;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 已上传媒体文件的访问接口
+ * <p>
+ * 按 FileStorageService 生成的公开 URL（默认 /uploads/**）提供文件，支持单段 Range（视频、音频拖动播放）、
+ * 基于内容 SHA-256 的 ETag 和长期缓存。文件不经过堆内存：Tomcat 支持 sendfile 时交给连接器直接发送，
+ * 否则用 {@link FileChannel#transferTo} 写入响应流。
+ * <p>
+ * 只提供登记了媒体记录的文件，URL 中的扩展名必须与记录一致，未登记的路径返回 404。
+ * Content-Type 取自数据库中的媒体记录，不信任 URL 中的扩展名；只有图片、视频、音频内联展示，
+ * 其余类型（包括 SVG）按附件下载并附带 CSP sandbox，避免上传的 HTML/SVG 在站点域名下执行脚本
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class MediaFileController {
+
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    private static final Set<String> INLINE_TOP_LEVEL_TYPES = Set.of("image", "video", "audio");
+
+    private final FileStorageService fileStorageService;
+    private final ContentHashCache contentHashCache;
+    private final MediaService mediaService;
+
+    /**
+     * 文件名包含随机后缀、内容不会变化，默认缓存一年
+     */
+    @Value("${app.media.cache-max-age:31536000}")
+    private long cacheMaxAge;
+
+    /**
+     * 小于该大小的文件直接写出，sendfile 的系统调用开销不划算
+     */
+    @Value("${app.media.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    /**
+     * 获取媒体文件（HEAD 请求只返回响应头）
+     */
+    @GetMapping("${app.media.url-prefix:/uploads}/**")
+    public void serveFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String requestPath = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        Optional<Media> media = requestPath == null ? Optional.empty() : mediaService.findByLocalUrl(requestPath);
+        Optional<Path> resolved = media.flatMap(record -> resolveFile(requestPath, record.getFileExtension()));
+        if (resolved.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        Path file = resolved.get();
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + contentHashCache.sha256(file) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + cacheMaxAge + ", immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        applyContentType(response, media.get());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (StringUtils.hasText(rangeHeader) && rangeApplies(request, etag, lastModified)) {
+            HttpRange range = parseSingleRange(rangeHeader);
+            if (range != null) {
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                // 起点越过文件末尾时 HttpRange 不抛异常，结束位置会被截到末尾而小于起点
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long contentLength = end - start + 1;
+        response.setContentLengthLong(contentLength);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || contentLength <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) && contentLength >= sendfileMinSize) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, end + 1);
+            return;
+        }
+
+        transfer(file, start, contentLength, response);
+    }
+
+    private Optional<Path> resolveFile(String path, String recordedExtension) {
+        String prefix = fileStorageService.getUrlPrefix();
+        if (!path.startsWith(prefix + "/")) {
+            return Optional.empty();
+        }
+        return fileStorageService.resolveStoredFile(path.substring(prefix.length()), recordedExtension);
+    }
+
+    /**
+     * 按媒体记录的类型和扩展名设置 Content-Type；不是图片、视频、音频时按附件下载并禁止脚本执行
+     */
+    private void applyContentType(HttpServletResponse response, Media media) {
+        MediaType contentType = !StringUtils.hasText(media.getFileExtension())
+                ? MediaType.APPLICATION_OCTET_STREAM
+                : MediaTypeFactory.getMediaType("file." + StringUtils.trimLeadingCharacter(media.getFileExtension(), '.'))
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(contentType.toString());
+
+        if (isInlineType(media, contentType)) {
+            return;
+        }
+        String filename = StringUtils.hasText(media.getOriginalName()) ? media.getOriginalName() : "file";
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString());
+        response.setHeader("Content-Security-Policy", "sandbox");
+    }
+
+    private boolean isInlineType(Media media, MediaType contentType) {
+        boolean mediaRecord = media.isImage()
+                || media.getType() == Media.MediaType.VIDEO
+                || media.getType() == Media.MediaType.AUDIO;
+        return mediaRecord
+                && INLINE_TOP_LEVEL_TYPES.contains(contentType.getType())
+                && !contentType.getSubtype().contains("svg");
+    }
+
+    /**
+     * 只处理单段 Range；多段或格式错误时忽略 Range 返回完整内容
+     */
+    private HttpRange parseSingleRange(String rangeHeader) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            log.debug("忽略无效的 Range 请求头: {}", rangeHeader);
+            return null;
+        }
+    }
+
+    /**
+     * If-Range 与当前 ETag（强比较）或最后修改时间一致时 Range 才生效
+     */
+    private boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (!StringUtils.hasText(ifRange)) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag.equals(ifRange.trim());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean matchesAny(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void transfer(Path file, long start, long length, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // 客户端中途断开（拖动进度条、关闭页面）属于正常情况
+            log.debug("媒体文件传输中断 {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+}
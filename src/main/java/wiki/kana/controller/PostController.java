@@ -8,6 +8,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,22 +16,34 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import wiki.kana.dto.CommonResponse;
+import wiki.kana.dto.CursorPageResponse;
 import wiki.kana.dto.post.PostCreateRequest;
+import wiki.kana.dto.post.PostCursor;
 import wiki.kana.dto.post.PostMapper;
 import wiki.kana.dto.post.PostResponse;
+import wiki.kana.dto.post.PostSummaryResponse;
 import wiki.kana.dto.post.PostTagsRequest;
 import wiki.kana.dto.post.PostUpdateRequest;
 import wiki.kana.entity.Post;
 import wiki.kana.entity.Tag;
 import wiki.kana.exception.DuplicateResourceException;
 import wiki.kana.exception.ResourceNotFoundException;
+import wiki.kana.exception.WriteQueueFullException;
+import wiki.kana.repository.projection.PostSearchHit;
+import wiki.kana.repository.projection.PostSummaryView;
+import wiki.kana.repository.projection.PostTagView;
 import wiki.kana.service.CategoryService;
+import wiki.kana.service.PostDetailCache;
 import wiki.kana.service.PostService;
 import wiki.kana.service.TagService;
+import wiki.kana.service.WriteDispatcher;
+import wiki.kana.service.search.SearchIndexReport;
 import wiki.kana.util.JwtTokenUtil;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -45,32 +58,51 @@ public class PostController {
     private final PostService postService;
     private final CategoryService categoryService;
     private final TagService tagService;
+    private final PostDetailCache postDetailCache;
+    private final WriteDispatcher writeDispatcher;
     private final JwtTokenUtil jwtTokenUtil;
 
     /**
      * 获取博客列表（仅显示已发布的博客）
      */
     @GetMapping
-    public ResponseEntity<CommonResponse<Page<PostResponse>>> listPosts(
+    public ResponseEntity<CommonResponse<Page<PostSummaryResponse>>> listPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "publishedAt,desc") String sort) {
 
         Pageable pageable = buildPageable(page, size, sort);
-        Page<PostResponse> response = postService.findPublishedPosts(pageable)
-                .map(PostMapper::toPostResponse);
+        Page<PostSummaryResponse> response = toSummaryPage(postService.findPublishedSummaries(pageable));
         return ResponseEntity.ok(CommonResponse.success(response));
     }
 
+    /**
+     * 游标分页获取博客列表（携带 after 参数时启用，after 为空表示第一页）
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<CommonResponse<CursorPageResponse<PostSummaryResponse>>> listPostsAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        try {
+            PostCursor cursor = PostCursor.decode(after);
+            Slice<PostSummaryView> slice = postService.findPublishedPostsAfter(cursorPublishedAt(cursor), cursorId(cursor), safeSize(size));
+            return ResponseEntity.ok(CommonResponse.success(buildCursorPage(slice)));
+        } catch (IllegalArgumentException e) {
+            return invalidCursorResponse();
+        }
+    }
+
     /**
      * 获取博客详情（仅显示已发布的博客）
      */
     @GetMapping("/{id}")
     public ResponseEntity<CommonResponse<PostResponse>> getPost(@PathVariable Long id) {
         try {
-            Post post = postService.findPublishedById(id);
+            PostResponse response = postDetailCache.getById(id,
+                    () -> PostMapper.toPostResponse(postService.findPublishedById(id)));
             postService.incrementViewCount(id);
-            return ResponseEntity.ok(CommonResponse.success(PostMapper.toPostResponse(post)));
+            return ResponseEntity.ok(CommonResponse.success(withLiveViewCount(response)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("POST_NOT_FOUND", e.getMessage()));
@@ -81,7 +113,7 @@ public class PostController {
      * 获取所有博客列表（管理端可见所有文章）
      */
     @GetMapping("/admin/all")
-    public ResponseEntity<CommonResponse<Page<PostResponse>>> listAllPosts(
+    public ResponseEntity<CommonResponse<Page<PostSummaryResponse>>> listAllPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt,desc") String sort,
@@ -92,8 +124,7 @@ public class PostController {
         }
 
         Pageable pageable = buildPageable(page, size, sort);
-        Page<PostResponse> response = postService.findAllPosts(pageable)
-                .map(PostMapper::toPostResponse);
+        Page<PostSummaryResponse> response = toSummaryPage(postService.findAllSummaries(pageable));
         return ResponseEntity.ok(CommonResponse.success(response));
     }
 
@@ -122,9 +153,10 @@ public class PostController {
     @GetMapping("/slug/{slug}")
     public ResponseEntity<CommonResponse<PostResponse>> getPostBySlug(@PathVariable String slug) {
         try {
-            Post post = postService.findPublishedBySlug(slug);
-            postService.incrementViewCount(post.getId());
-            return ResponseEntity.ok(CommonResponse.success(PostMapper.toPostResponse(post)));
+            PostResponse response = postDetailCache.getBySlug(slug,
+                    () -> PostMapper.toPostResponse(postService.findPublishedBySlug(slug)));
+            postService.incrementViewCount(response.getId());
+            return ResponseEntity.ok(CommonResponse.success(withLiveViewCount(response)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("POST_NOT_FOUND", e.getMessage()));
@@ -154,7 +186,7 @@ public class PostController {
      * 搜索博客（仅搜索已发布的博客）
      */
     @GetMapping("/search")
-    public ResponseEntity<CommonResponse<Page<PostResponse>>> searchPosts(
+    public ResponseEntity<CommonResponse<Page<PostSummaryResponse>>> searchPosts(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) Long category,
             @RequestParam(required = false) Long tag,
@@ -165,29 +197,63 @@ public class PostController {
         Pageable pageable = buildPageable(page, size, sort);
 
         try {
-            Page<Post> resultPage;
+            Page<PostSummaryResponse> resultPage;
 
             if (category != null) {
-                resultPage = postService.findByCategory(category, pageable);
+                Page<Post> categoryPage = postService.findByCategory(category, pageable);
                 // 过滤出已发布的博客
-                List<Post> publishedPosts = resultPage.getContent().stream()
+                List<Post> publishedPosts = categoryPage.getContent().stream()
                         .filter(post -> post.getStatus() == Post.PostStatus.PUBLISHED)
                         .collect(Collectors.toList());
-                resultPage = buildPageFromList(publishedPosts, pageable);
+                resultPage = toSummaryPageOf(buildPageFromList(publishedPosts, pageable));
             } else if (tag != null) {
                 List<Post> posts = postService.findByTagId(tag);
-                resultPage = buildPageFromList(posts, pageable);
+                resultPage = toSummaryPageOf(buildPageFromList(posts, pageable));
+            } else if (StringUtils.hasText(q)) {
+                resultPage = toSearchPage(postService.searchPublished(q, pageable));
+            } else {
+                resultPage = toSummaryPage(postService.findPublishedSummaries(pageable));
+            }
+
+            return ResponseEntity.ok(CommonResponse.success(resultPage));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(CommonResponse.error("RESOURCE_NOT_FOUND", e.getMessage()));
+        }
+    }
+
+    /**
+     * 游标分页搜索博客（携带 after 参数时启用）
+     */
+    @GetMapping(value = "/search", params = "after")
+    public ResponseEntity<CommonResponse<CursorPageResponse<PostSummaryResponse>>> searchPostsAfter(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long category,
+            @RequestParam(required = false) Long tag,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        try {
+            PostCursor cursor = PostCursor.decode(after);
+            int safeSize = safeSize(size);
+            Slice<PostSummaryView> slice;
+
+            if (category != null) {
+                slice = postService.findPublishedByCategoryAfter(category, cursorPublishedAt(cursor), cursorId(cursor), safeSize);
+            } else if (tag != null) {
+                slice = postService.findPublishedByTagAfter(tag, cursorPublishedAt(cursor), cursorId(cursor), safeSize);
             } else if (StringUtils.hasText(q)) {
-                List<Post> posts = postService.searchByKeyword(q);
-                resultPage = buildPageFromList(posts, pageable);
+                slice = postService.searchPublishedAfter(q, cursorPublishedAt(cursor), cursorId(cursor), safeSize);
             } else {
-                resultPage = postService.findPublishedPosts(pageable);
+                slice = postService.findPublishedPostsAfter(cursorPublishedAt(cursor), cursorId(cursor), safeSize);
             }
 
-            return ResponseEntity.ok(CommonResponse.success(resultPage.map(PostMapper::toPostResponse)));
+            return ResponseEntity.ok(CommonResponse.success(buildCursorPage(slice)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("RESOURCE_NOT_FOUND", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return invalidCursorResponse();
         }
     }
 
@@ -195,7 +261,7 @@ public class PostController {
      * 按标签查询已发布文章
      */
     @GetMapping("/filter/tag/{tagId}")
-    public ResponseEntity<CommonResponse<Page<PostResponse>>> listPostsByTag(
+    public ResponseEntity<CommonResponse<Page<PostSummaryResponse>>> listPostsByTag(
             @PathVariable Long tagId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -204,8 +270,7 @@ public class PostController {
         Pageable pageable = buildPageable(page, size, sort);
 
         try {
-            Page<PostResponse> posts = postService.findPublishedByTag(tagId, pageable)
-                    .map(PostMapper::toPostResponse);
+            Page<PostSummaryResponse> posts = toSummaryPage(postService.findPublishedSummariesByTag(tagId, pageable));
             return ResponseEntity.ok(CommonResponse.success(posts));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -213,11 +278,32 @@ public class PostController {
         }
     }
 
+    /**
+     * 游标分页按标签查询已发布文章（携带 after 参数时启用）
+     */
+    @GetMapping(value = "/filter/tag/{tagId}", params = "after")
+    public ResponseEntity<CommonResponse<CursorPageResponse<PostSummaryResponse>>> listPostsByTagAfter(
+            @PathVariable Long tagId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        try {
+            PostCursor cursor = PostCursor.decode(after);
+            Slice<PostSummaryView> slice = postService.findPublishedByTagAfter(tagId, cursorPublishedAt(cursor), cursorId(cursor), safeSize(size));
+            return ResponseEntity.ok(CommonResponse.success(buildCursorPage(slice)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(CommonResponse.error("TAG_NOT_FOUND", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return invalidCursorResponse();
+        }
+    }
+
     /**
      * 按年份查询已发布文章
      */
     @GetMapping("/filter/year/{year}")
-    public ResponseEntity<CommonResponse<Page<PostResponse>>> listPostsByYear(
+    public ResponseEntity<CommonResponse<Page<PostSummaryResponse>>> listPostsByYear(
             @PathVariable int year,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -226,8 +312,7 @@ public class PostController {
         Pageable pageable = buildPageable(page, size, sort);
 
         try {
-            Page<PostResponse> posts = postService.findPublishedByYear(year, pageable)
-                    .map(PostMapper::toPostResponse);
+            Page<PostSummaryResponse> posts = toSummaryPage(postService.findPublishedSummariesByYear(year, pageable));
             return ResponseEntity.ok(CommonResponse.success(posts));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -238,8 +323,33 @@ public class PostController {
         }
     }
 
+    /**
+     * 游标分页按年份查询已发布文章（携带 after 参数时启用）
+     */
+    @GetMapping(value = "/filter/year/{year}", params = "after")
+    public ResponseEntity<CommonResponse<CursorPageResponse<PostSummaryResponse>>> listPostsByYearAfter(
+            @PathVariable int year,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        PostCursor cursor;
+        try {
+            cursor = PostCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            return invalidCursorResponse();
+        }
+
+        try {
+            Slice<PostSummaryView> slice = postService.findPublishedByYearAfter(year, cursorPublishedAt(cursor), cursorId(cursor), safeSize(size));
+            return ResponseEntity.ok(CommonResponse.success(buildCursorPage(slice)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonResponse.error("VALIDATION_ERROR", "年份参数无效"));
+        }
+    }
+
     @GetMapping("/admin/search")
-    public ResponseEntity<CommonResponse<Page<PostResponse>>> searchAllPosts(
+    public ResponseEntity<CommonResponse<Page<PostSummaryResponse>>> searchAllPosts(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) Long category,
             @RequestParam(required = false) Long tag,
@@ -255,21 +365,20 @@ public class PostController {
         Pageable pageable = buildPageable(page, size, sort);
 
         try {
-            Page<Post> resultPage;
+            Page<PostSummaryResponse> resultPage;
 
             if (category != null) {
-                resultPage = postService.findByCategory(category, pageable);
+                resultPage = toSummaryPageOf(postService.findByCategory(category, pageable));
             } else if (tag != null) {
                 List<Post> posts = postService.findByTagId(tag);
-                resultPage = buildPageFromList(posts, pageable);
+                resultPage = toSummaryPageOf(buildPageFromList(posts, pageable));
             } else if (StringUtils.hasText(q)) {
-                List<Post> posts = postService.searchByKeyword(q);
-                resultPage = buildPageFromList(posts, pageable);
+                resultPage = toSearchPage(postService.searchPublished(q, pageable));
             } else {
-                resultPage = postService.findAllPosts(pageable);
+                resultPage = toSummaryPage(postService.findAllSummaries(pageable));
             }
 
-            return ResponseEntity.ok(CommonResponse.success(resultPage.map(PostMapper::toPostResponse)));
+            return ResponseEntity.ok(CommonResponse.success(resultPage));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("RESOURCE_NOT_FOUND", e.getMessage()));
@@ -290,10 +399,11 @@ public class PostController {
         }
 
         try {
-            Post post = buildPostFromCreateRequest(createRequest);
-            Post created = postService.createPost(post, authorId);
+            // 实体在写操作内部创建，合并事务回滚后重新执行时不会复用已分配ID的实体
+            PostResponse created = writeDispatcher.execute(() -> PostMapper.toPostResponse(
+                    postService.createPost(buildPostFromCreateRequest(createRequest), authorId)));
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(CommonResponse.success(PostMapper.toPostResponse(created), "博客创建成功"));
+                    .body(CommonResponse.success(created, "博客创建成功"));
         } catch (ResourceNotFoundException e) {
             log.warn("Failed to create post: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -302,6 +412,8 @@ public class PostController {
             log.warn("Duplicate resource when creating post: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(CommonResponse.error("DUPLICATE_RESOURCE", e.getMessage()));
+        } catch (WriteQueueFullException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Unexpected error when creating post", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -324,13 +436,15 @@ public class PostController {
         }
 
         try {
-            Post updatedPost = buildPostFromUpdateRequest(updateRequest);
-            Post result = postService.updatePost(id, updatedPost);
-            return ResponseEntity.ok(CommonResponse.success(PostMapper.toPostResponse(result), "博客更新成功"));
+            PostResponse result = writeDispatcher.execute(() -> PostMapper.toPostResponse(
+                    postService.updatePost(id, buildPostFromUpdateRequest(updateRequest))));
+            return ResponseEntity.ok(CommonResponse.success(result, "博客更新成功"));
         } catch (ResourceNotFoundException e) {
             log.warn("Failed to update post {}: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("POST_NOT_FOUND", e.getMessage()));
+        } catch (WriteQueueFullException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Unexpected error when updating post {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -352,7 +466,7 @@ public class PostController {
         }
 
         try {
-            postService.deletePost(id);
+            writeDispatcher.run(() -> postService.deletePost(id));
             return ResponseEntity.ok(CommonResponse.success("博客删除成功"));
         } catch (ResourceNotFoundException e) {
             log.warn("Failed to delete post {}: {}", id, e.getMessage());
@@ -375,8 +489,8 @@ public class PostController {
         }
 
         try {
-            Post post = postService.publishPost(id);
-            return ResponseEntity.ok(CommonResponse.success(PostMapper.toPostResponse(post), "博客已发布"));
+            PostResponse post = writeDispatcher.execute(() -> PostMapper.toPostResponse(postService.publishPost(id)));
+            return ResponseEntity.ok(CommonResponse.success(post, "博客已发布"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("POST_NOT_FOUND", e.getMessage()));
@@ -397,14 +511,50 @@ public class PostController {
         }
 
         try {
-            Post post = postService.unpublishPost(id);
-            return ResponseEntity.ok(CommonResponse.success(PostMapper.toPostResponse(post), "博客已转为草稿"));
+            PostResponse post = writeDispatcher.execute(() -> PostMapper.toPostResponse(postService.unpublishPost(id)));
+            return ResponseEntity.ok(CommonResponse.success(post, "博客已转为草稿"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("POST_NOT_FOUND", e.getMessage()));
         }
     }
 
+    /**
+     * 重建检索索引（管理端）
+     */
+    @PostMapping("/admin/search-index/rebuild")
+    public ResponseEntity<CommonResponse<SearchIndexReport>> rebuildSearchIndex(HttpServletRequest request) {
+        if (resolveUserId(request) == null) {
+            return unauthorizedResponse();
+        }
+
+        return ResponseEntity.ok(CommonResponse.success(postService.rebuildSearchIndex(), "检索索引已重建"));
+    }
+
+    /**
+     * 检查检索索引与数据库是否一致（管理端）
+     */
+    @GetMapping("/admin/search-index/consistency")
+    public ResponseEntity<CommonResponse<SearchIndexReport>> checkSearchIndex(HttpServletRequest request) {
+        if (resolveUserId(request) == null) {
+            return unauthorizedResponse();
+        }
+
+        return ResponseEntity.ok(CommonResponse.success(postService.checkSearchIndex()));
+    }
+
+    /**
+     * 文章详情缓存统计（管理端）
+     */
+    @GetMapping("/admin/detail-cache/stats")
+    public ResponseEntity<CommonResponse<PostDetailCache.Stats>> getDetailCacheStats(HttpServletRequest request) {
+        if (resolveUserId(request) == null) {
+            return unauthorizedResponse();
+        }
+
+        return ResponseEntity.ok(CommonResponse.success(postDetailCache.stats()));
+    }
+
     private Pageable buildPageable(int page, int size, String sortParam) {
         int safePage = Math.max(page, 0);
         int safeSize = Math.min(Math.max(size, 1), 100);
@@ -423,6 +573,95 @@ public class PostController {
         return PageRequest.of(safePage, safeSize, sort);
     }
 
+    /**
+     * 浏览量加上内存中尚未写回的部分
+     */
+    private PostResponse withLiveViewCount(PostResponse response) {
+        long pending = postService.getPendingViewCount(response.getId());
+        if (pending > 0) {
+            int stored = response.getViewCount() != null ? response.getViewCount() : 0;
+            response.setViewCount((int) Math.min(Integer.MAX_VALUE, stored + pending));
+        }
+        return response;
+    }
+
+    private int safeSize(int size) {
+        return Math.min(Math.max(size, 1), 100);
+    }
+
+    private LocalDateTime cursorPublishedAt(PostCursor cursor) {
+        return cursor != null ? cursor.getPublishedAt() : null;
+    }
+
+    private Long cursorId(PostCursor cursor) {
+        return cursor != null ? cursor.getId() : null;
+    }
+
+    /**
+     * 列表投影转换为摘要响应，标签用一条查询批量加载
+     */
+    private Page<PostSummaryResponse> toSummaryPage(Page<PostSummaryView> page) {
+        Map<Long, List<PostTagView>> tags = postService.findTagsForSummaries(page.getContent());
+        return page.map(view -> PostMapper.toPostSummaryResponse(view, tags.get(view.getId())));
+    }
+
+    /**
+     * 实体分页转换为摘要响应：按当前页的ID重新读取列表投影，与其他列表接口使用同一转换
+     */
+    private Page<PostSummaryResponse> toSummaryPageOf(Page<Post> page) {
+        List<PostSummaryView> views = postService.findSummariesByIds(page.map(Post::getId).getContent());
+        Map<Long, PostSummaryView> viewsById = views.stream()
+                .collect(Collectors.toMap(PostSummaryView::getId, view -> view));
+        Map<Long, List<PostTagView>> tags = postService.findTagsForSummaries(views);
+        return page.map(post -> PostMapper.toPostSummaryResponse(viewsById.get(post.getId()), tags.get(post.getId())));
+    }
+
+    /**
+     * 全文检索结果转换为摘要响应（保持相关度顺序，附带高亮标题和片段）
+     */
+    private Page<PostSummaryResponse> toSearchPage(Page<PostSearchHit> hits) {
+        List<Long> ids = hits.getContent().stream()
+                .map(PostSearchHit::getPostId)
+                .collect(Collectors.toList());
+        List<PostSummaryView> views = postService.findSummariesByIds(ids);
+        Map<Long, PostSummaryView> viewsById = views.stream()
+                .collect(Collectors.toMap(PostSummaryView::getId, view -> view));
+        Map<Long, List<PostTagView>> tags = postService.findTagsForSummaries(views);
+
+        return hits.map(hit -> {
+            PostSummaryResponse response = PostMapper.toPostSummaryResponse(
+                    viewsById.get(hit.getPostId()), tags.get(hit.getPostId()));
+            if (response != null) {
+                response.setTitleHighlight(hit.getTitleHighlight());
+                response.setSnippet(hit.getSnippet());
+            }
+            return response;
+        });
+    }
+
+    private CursorPageResponse<PostSummaryResponse> buildCursorPage(Slice<PostSummaryView> slice) {
+        List<PostSummaryView> posts = slice.getContent();
+        PostSummaryView last = posts.isEmpty() ? null : posts.get(posts.size() - 1);
+        String nextCursor = slice.hasNext() && last != null
+                ? PostCursor.encode(last.getPublishedAt(), last.getId())
+                : null;
+        Map<Long, List<PostTagView>> tags = postService.findTagsForSummaries(posts);
+
+        return CursorPageResponse.<PostSummaryResponse>builder()
+                .content(posts.stream()
+                        .map(view -> PostMapper.toPostSummaryResponse(view, tags.get(view.getId())))
+                        .collect(Collectors.toList()))
+                .size(slice.getSize())
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private <T> ResponseEntity<CommonResponse<T>> invalidCursorResponse() {
+        return ResponseEntity.badRequest()
+                .body(CommonResponse.error("VALIDATION_ERROR", "游标参数无效"));
+    }
+
     private Long resolveUserId(HttpServletRequest request) {
         String token = jwtTokenUtil.extractTokenFromHeader(request.getHeader("Authorization"));
         if (token == null || !jwtTokenUtil.validateToken(token)) {
@@ -512,7 +751,7 @@ public class PostController {
         }
 
         try {
-            postService.addTagToPost(id, tagId);
+            writeDispatcher.run(() -> postService.addTagToPost(id, tagId));
             return ResponseEntity.ok(CommonResponse.success("标签添加成功"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -534,7 +773,7 @@ public class PostController {
         }
 
         try {
-            postService.removeTagFromPost(id, tagId);
+            writeDispatcher.run(() -> postService.removeTagFromPost(id, tagId));
             return ResponseEntity.ok(CommonResponse.success("标签移除成功"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -556,8 +795,9 @@ public class PostController {
         }
 
         try {
-            Post updated = postService.setPostTags(id, request.getTagIds());
-            return ResponseEntity.ok(CommonResponse.success(PostMapper.toPostResponse(updated), "标签设置成功"));
+            PostResponse updated = writeDispatcher.execute(
+                    () -> PostMapper.toPostResponse(postService.setPostTags(id, request.getTagIds())));
+            return ResponseEntity.ok(CommonResponse.success(updated, "标签设置成功"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("RESOURCE_NOT_FOUND", e.getMessage()));
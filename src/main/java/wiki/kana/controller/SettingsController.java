@@ -8,7 +8,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 import wiki.kana.dto.CommonResponse;
 import wiki.kana.dto.settings.SettingsAvatarResponse;
 import wiki.kana.dto.settings.SettingsItemResponse;
@@ -21,6 +20,7 @@ import wiki.kana.exception.FileStorageException;
 import wiki.kana.exception.ResourceNotFoundException;
 import wiki.kana.service.FileStorageService;
 import wiki.kana.service.MediaService;
+import wiki.kana.service.MultipartUploadService;
 import wiki.kana.service.SettingsService;
 import wiki.kana.service.ThemesService;
 import wiki.kana.service.UserService;
@@ -39,12 +39,11 @@ import java.util.stream.Collectors;
 public class SettingsController {
 
     private static final int MAX_AVATAR_SIZE = 5 * 1024 * 1024;
-    private static final String AVATAR_SUB_DIR = "avatars";
 
     private final SettingsService settingsService;
     private final ThemesService themesService;
     private final MediaService mediaService;
-    private final FileStorageService fileStorageService;
+    private final MultipartUploadService multipartUploadService;
     private final UserService userService;
     private final JwtTokenUtil jwtTokenUtil;
 
@@ -122,30 +121,29 @@ public class SettingsController {
     }
 
     /**
-     * 上传头像
+     * 上传头像（multipart/form-data：avatar），只接受图片
      */
     @PostMapping("/avatar")
-    public ResponseEntity<CommonResponse<SettingsAvatarResponse>> uploadAvatar(
-            HttpServletRequest request,
-            @RequestParam("avatar") MultipartFile avatarFile) {
+    public ResponseEntity<CommonResponse<SettingsAvatarResponse>> uploadAvatar(HttpServletRequest request) {
 
         Long userId = resolveUserId(request);
         if (userId == null) {
             return unauthorizedResponse();
         }
 
-        if (avatarFile == null || avatarFile.isEmpty()) {
-            return ResponseEntity.badRequest()
-                    .body(CommonResponse.error("VALIDATION_ERROR", "请选择需要上传的头像"));
-        }
-
-        if (avatarFile.getSize() > MAX_AVATAR_SIZE) {
-            return ResponseEntity.badRequest()
-                    .body(CommonResponse.error("VALIDATION_ERROR", "头像大小不能超过5MB"));
-        }
-
         try {
-            FileStorageService.StoredFile storedFile = fileStorageService.store(avatarFile, AVATAR_SUB_DIR);
+            MultipartUploadService.Upload upload = multipartUploadService.receive(request, "avatar", MAX_AVATAR_SIZE,
+                    (filename, fields) -> {
+                        if (!mediaService.isImageFile(StringUtils.getFilenameExtension(filename))) {
+                            throw new IllegalArgumentException("头像只支持图片格式");
+                        }
+                    });
+            FileStorageService.StoredFile storedFile = upload.file();
+            if (storedFile == null) {
+                return ResponseEntity.badRequest()
+                        .body(CommonResponse.error("VALIDATION_ERROR", "请选择需要上传的头像"));
+            }
+
             Media media = Media.builder()
                     .originalName(storedFile.getOriginalFilename())
                     .fileName(storedFile.getStoredFilename())
@@ -156,7 +154,7 @@ public class SettingsController {
                     .description("用户头像")
                     .build();
 
-            mediaService.createMedia(media, userId);
+            mediaService.createMedia(media, userId, storedFile);
             userService.updateAvatar(userId, storedFile.getPublicUrl());
 
             SettingsAvatarResponse response = SettingsAvatarResponse.builder()
@@ -170,6 +168,9 @@ public class SettingsController {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("RESOURCE_NOT_FOUND", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonResponse.error("VALIDATION_ERROR", e.getMessage()));
         }
     }
 
@@ -29,7 +29,9 @@ import wiki.kana.entity.Tag;
 import wiki.kana.exception.DuplicateResourceException;
 import wiki.kana.exception.ResourceNotFoundException;
 import wiki.kana.service.PostService;
+import wiki.kana.service.TagDictionary;
 import wiki.kana.service.TagService;
+import wiki.kana.service.WriteDispatcher;
 import wiki.kana.util.JwtTokenUtil;
 
 import java.util.Collections;
@@ -46,7 +48,9 @@ import java.util.stream.Collectors;
 public class TagController {
 
     private final TagService tagService;
+    private final TagDictionary tagDictionary;
     private final PostService postService;
+    private final WriteDispatcher writeDispatcher;
     private final JwtTokenUtil jwtTokenUtil;
 
     /**
@@ -125,7 +129,7 @@ public class TagController {
     }
 
     /**
-     * 标签输入建议
+     * 标签输入建议（查询进程内标签词典，前缀匹配优先，按使用次数排序）
      */
     @GetMapping("/suggestions")
     public ResponseEntity<CommonResponse<List<TagResponse>>> suggestTags(
@@ -137,13 +141,8 @@ public class TagController {
             return ResponseEntity.ok(CommonResponse.success(Collections.emptyList()));
         }
 
-        int safeLimit = Math.min(Math.max(limit, 1), 20);
-        List<Tag> searchResult = ignoreCase ?
-                tagService.searchByNameIgnoreCase(q) :
-                tagService.searchByName(q);
-
-        List<TagResponse> suggestions = searchResult.stream()
-                .limit(safeLimit)
+        int safeLimit = Math.min(Math.max(limit, 1), TagDictionary.MAX_SUGGESTIONS);
+        List<TagResponse> suggestions = tagDictionary.suggest(q, safeLimit, ignoreCase).stream()
                 .map(this::toTagResponse)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(CommonResponse.success(suggestions));
@@ -195,16 +194,18 @@ public class TagController {
         }
 
         try {
-            Tag tag = Tag.builder()
-                    .name(tagRequest.getName())
-                    .slug(tagRequest.getSlug())
-                    .description(tagRequest.getDescription())
-                    .color(tagRequest.getColor())
-                    .build();
-
-            Tag created = tagService.createTag(tag);
+            // 实体在写操作内部创建，合并事务回滚后重新执行时不会复用已分配ID的实体
+            TagResponse created = writeDispatcher.execute(() -> {
+                Tag tag = Tag.builder()
+                        .name(tagRequest.getName())
+                        .slug(tagRequest.getSlug())
+                        .description(tagRequest.getDescription())
+                        .color(tagRequest.getColor())
+                        .build();
+                return toTagResponse(tagService.createTag(tag));
+            });
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(CommonResponse.success(toTagResponse(created), "标签创建成功"));
+                    .body(CommonResponse.success(created, "标签创建成功"));
         } catch (DuplicateResourceException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(CommonResponse.error("DUPLICATE_RESOURCE", e.getMessage()));
@@ -235,8 +236,8 @@ public class TagController {
                     .color(tagRequest.getColor())
                     .build();
 
-            Tag updated = tagService.updateTag(id, updateData);
-            return ResponseEntity.ok(CommonResponse.success(toTagResponse(updated), "标签更新成功"));
+            TagResponse updated = writeDispatcher.execute(() -> toTagResponse(tagService.updateTag(id, updateData)));
+            return ResponseEntity.ok(CommonResponse.success(updated, "标签更新成功"));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(CommonResponse.error("TAG_NOT_FOUND", e.getMessage()));
@@ -264,9 +265,9 @@ public class TagController {
 
         try {
             if (force) {
-                tagService.forceDeleteTag(id);
+                writeDispatcher.run(() -> tagService.forceDeleteTag(id));
             } else {
-                tagService.deleteTag(id);
+                writeDispatcher.run(() -> tagService.deleteTag(id));
             }
             return ResponseEntity.ok(CommonResponse.success("标签删除成功"));
         } catch (ResourceNotFoundException e) {
@@ -290,9 +291,9 @@ public class TagController {
             return unauthorizedResponse();
         }
 
-        List<TagResponse> responses = tagService.getOrCreateTags(tagBulkRequest.getNames()).stream()
+        List<TagResponse> responses = writeDispatcher.execute(() -> tagService.getOrCreateTags(tagBulkRequest.getNames()).stream()
                 .map(this::toTagResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
         return ResponseEntity.ok(CommonResponse.success(responses));
     }
 
@@ -309,13 +310,13 @@ public class TagController {
         }
 
         try {
-            Tag tag = tagService.findOrCreateByName(
+            TagResponse tag = writeDispatcher.execute(() -> toTagResponse(tagService.findOrCreateByName(
                     smartCreateRequest.getName(),
                     smartCreateRequest.getDescription(),
                     smartCreateRequest.getColor()
-            );
+            )));
             return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(CommonResponse.success(toTagResponse(tag), "标签创建成功"));
+                    .body(CommonResponse.success(tag, "标签创建成功"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(CommonResponse.error("VALIDATION_ERROR", e.getMessage()));
@@ -362,7 +363,7 @@ public class TagController {
 
         try {
             int addedCount = request.getPostIds().size();
-            tagService.addPostsToTag(id, request.getPostIds());
+            writeDispatcher.run(() -> tagService.addPostsToTag(id, request.getPostIds()));
             return ResponseEntity.ok(CommonResponse.success(
                     String.format("批量添加成功，共添加%d篇文章", addedCount)
             ));
@@ -390,7 +391,7 @@ public class TagController {
 
         try {
             int removedCount = request.getPostIds().size();
-            tagService.removePostsFromTag(id, request.getPostIds());
+            writeDispatcher.run(() -> tagService.removePostsFromTag(id, request.getPostIds()));
             return ResponseEntity.ok(CommonResponse.success(
                     String.format("批量移除成功，共移除%d篇文章", removedCount)
             ));
@@ -417,6 +418,20 @@ public class TagController {
                 .build();
     }
 
+    private TagResponse toTagResponse(TagDictionary.Entry entry) {
+        return TagResponse.builder()
+                .id(entry.id())
+                .name(entry.name())
+                .slug(entry.slug())
+                .description(entry.description())
+                .usageCount(entry.usageCount())
+                .postCount(entry.usageCount())
+                .color(entry.color())
+                .createdAt(entry.createdAt())
+                .updatedAt(entry.updatedAt())
+                .build();
+    }
+
     private Pageable buildPageable(int page, int size, String sortParam) {
         int safePage = Math.max(page, 0);
         int safeSize = Math.min(Math.max(size, 1), 100);
@@ -27,6 +27,10 @@ public class MediaResponse {
     private String type;
     private Integer width;
     private Integer height;
+    /**
+     * 响应式图片候选列表（img srcset 格式），包含衍生图和原图；衍生图尚未生成时为空
+     */
+    private String srcset;
     private String description;
     private String altText;
     private LocalDateTime uploadedAt;
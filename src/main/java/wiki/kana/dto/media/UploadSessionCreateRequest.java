@@ -0,0 +1,40 @@
+package wiki.kana.dto.media;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 创建分片上传会话请求
+ */
+@Data
+public class UploadSessionCreateRequest {
+
+    @NotBlank(message = "文件名不能为空")
+    @Size(max = 255, message = "文件名长度不超过255字符")
+    private String fileName;
+
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    private Long fileSize;
+
+    /**
+     * 媒体类型，为空时按扩展名判断
+     */
+    private String type;
+
+    @Size(max = 500, message = "描述长度不超过500字符")
+    private String description;
+
+    @Size(max = 255, message = "替代文本长度不超过255字符")
+    private String altText;
+
+    /**
+     * 文件 SHA-256（可选），提交时校验
+     */
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "SHA-256 格式不正确")
+    private String sha256;
+}
@@ -0,0 +1,61 @@
+package wiki.kana.dto.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * 文章列表游标（publishedAt, id）
+ * 对外以 Base64 URL 编码的不透明字符串传递
+ */
+@Getter
+@AllArgsConstructor
+public class PostCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final LocalDateTime publishedAt;
+    private final Long id;
+
+    /**
+     * 从页面最后一篇文章生成游标
+     * 发布时间截断到毫秒，与 SQLite 中的存储精度保持一致
+     */
+    public static String encode(LocalDateTime publishedAt, Long id) {
+        if (publishedAt == null || id == null) {
+            return null;
+        }
+        String raw = publishedAt.truncatedTo(ChronoUnit.MILLIS) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空字符串表示从第一页开始（返回null）
+     *
+     * @throws IllegalArgumentException 游标格式无效
+     */
+    public static PostCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex <= 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            LocalDateTime publishedAt = LocalDateTime.parse(raw.substring(0, separatorIndex));
+            Long id = Long.valueOf(raw.substring(separatorIndex + 1));
+            return new PostCursor(publishedAt, id);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
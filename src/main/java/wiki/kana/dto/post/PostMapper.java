@@ -3,8 +3,11 @@ package wiki.kana.dto.post;
 import org.springframework.util.CollectionUtils;
 import wiki.kana.entity.Post;
 import wiki.kana.entity.Tag;
+import wiki.kana.repository.projection.PostSummaryView;
+import wiki.kana.repository.projection.PostTagView;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -61,6 +64,58 @@ public final class PostMapper {
         return response;
     }
 
+    /**
+     * 列表投影转换为摘要响应（不含正文）
+     */
+    public static PostSummaryResponse toPostSummaryResponse(PostSummaryView view, List<PostTagView> tags) {
+        if (view == null) {
+            return null;
+        }
+
+        PostSummaryResponse response = PostSummaryResponse.builder()
+                .id(view.getId())
+                .title(view.getTitle())
+                .slug(view.getSlug())
+                .excerpt(view.getExcerpt())
+                .status(view.getStatus())
+                .isFeatured(view.getIsFeatured())
+                .viewCount(view.getViewCount())
+                .publishedAt(view.getPublishedAt())
+                .createdAt(view.getCreatedAt())
+                .updatedAt(view.getUpdatedAt())
+                .build();
+
+        if (view.getAuthorId() != null) {
+            response.setAuthor(PostResponse.AuthorDto.builder()
+                    .id(view.getAuthorId())
+                    .username(view.getAuthorUsername())
+                    .nickname(view.getAuthorDisplayName())
+                    .build());
+        }
+
+        if (view.getCategoryId() != null) {
+            response.setCategory(PostResponse.CategoryDto.builder()
+                    .id(view.getCategoryId())
+                    .name(view.getCategoryName())
+                    .slug(view.getCategorySlug())
+                    .build());
+        }
+
+        if (!CollectionUtils.isEmpty(tags)) {
+            response.setTags(tags.stream()
+                    .map(tag -> PostResponse.TagDto.builder()
+                            .id(tag.getId())
+                            .name(tag.getName())
+                            .slug(tag.getSlug())
+                            .build())
+                    .collect(Collectors.toList()));
+        } else {
+            response.setTags(Collections.emptyList());
+        }
+
+        return response;
+    }
+
     private static PostResponse.TagDto toTagDto(Tag tag) {
         return PostResponse.TagDto.builder()
                 .id(tag.getId())
@@ -13,7 +13,7 @@ import java.util.List;
  * 博客响应DTO
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PostResponse {
@@ -5,9 +5,11 @@ import lombok.Data;
 import wiki.kana.entity.Post;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 文章简要信息响应DTO
+ * 列表接口使用，不包含正文 content，正文只由详情接口返回
  */
 @Data
 @Builder
@@ -17,8 +19,20 @@ public class PostSummaryResponse {
     private String slug;
     private String excerpt;
     private Post.PostStatus status;
+    private Boolean isFeatured;
+    private Integer viewCount;
+    private LocalDateTime publishedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private PostResponse.AuthorDto author;
+    private PostResponse.CategoryDto category;
+    private List<PostResponse.TagDto> tags;
+
+    /**
+     * 仅搜索结果返回：高亮标题和正文命中片段
+     */
+    private String titleHighlight;
+    private String snippet;
 
     /**
      * 从Post实体转换为响应DTO
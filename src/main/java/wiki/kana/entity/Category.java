@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import wiki.kana.entity.listener.ContentRevisionListener;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,6 +14,7 @@ import java.util.List;
  * 博客分类实体类
  */
 @Entity
+@EntityListeners(ContentRevisionListener.class)
 @Table(name = "categories", indexes = {
         @Index(name = "idx_categories_slug", columnList = "slug", unique = true),
         @Index(name = "idx_categories_parent", columnList = "parent_id")
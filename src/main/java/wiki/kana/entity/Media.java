@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 @Table(name = "media", indexes = {
         @Index(name = "idx_media_type", columnList = "type"),
         @Index(name = "idx_media_uploaded_by", columnList = "uploaded_by"),
-        @Index(name = "idx_media_created_at", columnList = "created_at")
+        @Index(name = "idx_media_created_at", columnList = "created_at"),
+        @Index(name = "idx_media_blob", columnList = "blob_id"),
+        @Index(name = "idx_media_source", columnList = "source_media_id"),
+        @Index(name = "idx_media_local_url", columnList = "local_url")
 })
 @Data
 @Builder
@@ -100,6 +103,22 @@ public class Media {
     @JoinColumn(name = "uploaded_by", nullable = false)
     private User uploadedBy;
 
+    /**
+     * 内容块 - 相同内容的媒体共用（早期上传的文件为空）
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    @ToString.Exclude
+    private MediaBlob blob;
+
+    /**
+     * 原图 - 缩略图等衍生图指向生成它的媒体
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_media_id")
+    @ToString.Exclude
+    private Media sourceMedia;
+
     /**
      * 创建时间
      */
@@ -149,10 +168,17 @@ public class Media {
      * 判断是否为图片类型
      */
     public boolean isImage() {
-        return this.type == MediaType.IMAGE ||
-               this.type == MediaType.AVATAR ||
-               this.type == MediaType.BANNER ||
-               this.type == MediaType.THUMBNAIL;
+        return isImageType(this.type);
+    }
+
+    /**
+     * 判断媒体类型是否为图片
+     */
+    public static boolean isImageType(MediaType type) {
+        return type == MediaType.IMAGE ||
+               type == MediaType.AVATAR ||
+               type == MediaType.BANNER ||
+               type == MediaType.THUMBNAIL;
     }
 
     /**
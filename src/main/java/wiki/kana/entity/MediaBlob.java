@@ -0,0 +1,65 @@
+package wiki.kana.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 媒体内容块实体类 - 按内容 SHA-256 寻址的物理文件
+ * 相同内容的多次上传共用一个内容块，media 记录通过 blob_id 引用，refCount 为引用它的媒体记录数
+ */
+@Entity
+@Table(name = "media_blobs", indexes = {
+        @Index(name = "idx_media_blobs_sha256", columnList = "sha256", unique = true),
+        @Index(name = "idx_media_blobs_ref_count", columnList = "ref_count")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 内容 SHA-256（十六进制小写）
+     */
+    @Column(name = "sha256", nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    /**
+     * 相对上传目录的存储路径 - ab/cd/{sha256}
+     */
+    @Column(name = "storage_path", nullable = false, length = 200)
+    private String storagePath;
+
+    /**
+     * 文件大小 - 单位：字节
+     */
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    /**
+     * 引用计数 - 引用该内容块的媒体记录数
+     */
+    @Column(name = "ref_count", nullable = false)
+    @Builder.Default
+    private Integer refCount = 0;
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    /**
+     * 最后一次引用计数变化的时间
+     */
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
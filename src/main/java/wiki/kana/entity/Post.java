@@ -2,9 +2,11 @@ package wiki.kana.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.UpdateTimestamp;
+import wiki.kana.entity.listener.ContentRevisionListener;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +16,11 @@ import java.util.List;
  * 博客文章实体类
  */
 @Entity
+@EntityListeners(ContentRevisionListener.class)
+@NamedEntityGraph(name = Post.LISTING_GRAPH, attributeNodes = {
+        @NamedAttributeNode("author"),
+        @NamedAttributeNode("category")
+})
 @Table(name = "posts", indexes = {
         @Index(name = "idx_posts_slug", columnList = "slug", unique = true),
         @Index(name = "idx_posts_status_published_at", columnList = "status, published_at"),
@@ -27,6 +34,11 @@ import java.util.List;
 @ToString(exclude = {"content", "tags", "author"})
 public class Post {
 
+    /**
+     * 列表查询的抓取计划：作者和分类随文章一起 JOIN 加载
+     */
+    public static final String LISTING_GRAPH = "Post.listing";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -79,6 +91,7 @@ public class Post {
      * 标签集合 - 多对多关系
      */
     @ManyToMany(mappedBy = "posts", fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Builder.Default
     private List<Tag> tags = new ArrayList<>();
 
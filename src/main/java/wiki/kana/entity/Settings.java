@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import wiki.kana.entity.listener.ContentRevisionListener;
 
 import java.time.LocalDateTime;
 
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
  * 系统设置实体类 - 存储博客系统配置
  */
 @Entity
+@EntityListeners(ContentRevisionListener.class)
 @Table(name = "settings")
 @Data
 @Builder
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import wiki.kana.entity.listener.ContentRevisionListener;
+import wiki.kana.entity.listener.TagDictionaryListener;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,6 +15,7 @@ import java.util.List;
  * 标签实体类
  */
 @Entity
+@EntityListeners({ContentRevisionListener.class, TagDictionaryListener.class})
 @Table(name = "tags", indexes = {
         @Index(name = "idx_tags_slug", columnList = "slug", unique = true),
         @Index(name = "idx_tags_name", columnList = "name", unique = true),
@@ -49,8 +52,9 @@ public class Tag {
 
     /**
      * 使用次数 - 关联的博客数量
+     * 由数据库触发器随 post_tags 增删维护（见 TagUsageRepository），实体只读取不写入
      */
-    @Column(name = "usage_count", columnDefinition = "INTEGER DEFAULT 0")
+    @Column(name = "usage_count", columnDefinition = "INTEGER DEFAULT 0", insertable = false, updatable = false)
     @Builder.Default
     private Integer usageCount = 0;
 
@@ -79,7 +83,11 @@ public class Tag {
     @JoinTable(
         name = "post_tags",
         joinColumns = @JoinColumn(name = "tag_id"),
-        inverseJoinColumns = @JoinColumn(name = "post_id")
+        inverseJoinColumns = @JoinColumn(name = "post_id"),
+        indexes = {
+            @Index(name = "idx_post_tags_tag", columnList = "tag_id"),
+            @Index(name = "idx_post_tags_post", columnList = "post_id")
+        }
     )
     @Builder.Default
     private List<Post> posts = new ArrayList<>();
@@ -133,7 +141,7 @@ public class Tag {
     }
 
     /**
-     * 添加关联博客
+     * 添加关联博客（只维护关联，使用计数由数据库触发器维护）
      */
     public void addPost(Post post) {
         if (this.posts == null) {
@@ -141,19 +149,15 @@ public class Tag {
         }
         if (!this.posts.contains(post)) {
             this.posts.add(post);
-            this.usageCount++;
         }
     }
 
     /**
-     * 移除关联博客
+     * 移除关联博客（只维护关联，使用计数由数据库触发器维护）
      */
     public void removePost(Post post) {
         if (this.posts != null) {
             this.posts.remove(post);
-            if (this.usageCount > 0) {
-                this.usageCount--;
-            }
         }
     }
 }
\ No newline at end of file
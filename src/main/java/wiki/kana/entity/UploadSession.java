@@ -0,0 +1,132 @@
+package wiki.kana.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+/**
+ * 分片上传会话实体类 - 记录大文件分片上传的进度，服务重启后可以继续上传
+ * 分片按 chunkSize 等分（最后一片可以更短），已接收的分片记录在位图中
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+        @Index(name = "idx_upload_sessions_key", columnList = "upload_key", unique = true),
+        @Index(name = "idx_upload_sessions_expires_at", columnList = "expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 对外的上传ID（随机生成，不可猜测）
+     */
+    @Column(name = "upload_key", nullable = false, unique = true, length = 32)
+    private String uploadKey;
+
+    /**
+     * 发起上传的用户ID
+     */
+    @Column(name = "uploaded_by_id", nullable = false)
+    private Long uploadedById;
+
+    /**
+     * 原始文件名
+     */
+    @Column(name = "original_name", nullable = false, length = 255)
+    private String originalName;
+
+    /**
+     * 文件总大小 - 单位：字节
+     */
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    /**
+     * 分片大小 - 单位：字节
+     */
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    /**
+     * 已接收分片位图（BitSet.toByteArray）
+     */
+    @Column(name = "received_chunks", columnDefinition = "BLOB")
+    @ToString.Exclude
+    private byte[] receivedChunks;
+
+    /**
+     * 客户端声明的文件 SHA-256，提交时校验
+     */
+    @Column(name = "expected_sha256", length = 64)
+    private String expectedSha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    private Media.MediaType type;
+
+    @Column(length = 500)
+    private String description;
+
+    @Column(length = 255)
+    private String altText;
+
+    /**
+     * 过期时间 - 每收到一个分片顺延
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    // ==================== 业务方法 ====================
+
+    /**
+     * 分片总数
+     */
+    public int getChunkCount() {
+        return (int) ((fileSize + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * 指定分片的长度（最后一片可能不足 chunkSize）
+     */
+    public long chunkLength(int index) {
+        return Math.min(chunkSize, fileSize - (long) index * chunkSize);
+    }
+
+    public boolean isChunkReceived(int index) {
+        return receivedBitSet().get(index);
+    }
+
+    public void markChunkReceived(int index) {
+        BitSet bits = receivedBitSet();
+        bits.set(index);
+        this.receivedChunks = bits.toByteArray();
+    }
+
+    public int getReceivedChunkCount() {
+        return receivedBitSet().cardinality();
+    }
+
+    public boolean isComplete() {
+        return getReceivedChunkCount() == getChunkCount();
+    }
+
+    private BitSet receivedBitSet() {
+        return receivedChunks != null ? BitSet.valueOf(receivedChunks) : new BitSet();
+    }
+}
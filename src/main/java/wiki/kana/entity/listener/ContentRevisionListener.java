@@ -0,0 +1,38 @@
+package wiki.kana.entity.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import wiki.kana.entity.Category;
+import wiki.kana.entity.Post;
+import wiki.kana.entity.Settings;
+import wiki.kana.entity.Tag;
+import wiki.kana.service.ContentRevision;
+
+/**
+ * 公共内容实体监听器：实体新增、修改、删除时递增所属资源族的内容版本号
+ * 由 Hibernate 通过 Spring 容器创建
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentRevisionListener {
+
+    private final ContentRevision contentRevision;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Post) {
+            contentRevision.bump(ContentRevision.Family.POSTS);
+        } else if (entity instanceof Category) {
+            contentRevision.bump(ContentRevision.Family.CATEGORIES);
+        } else if (entity instanceof Tag) {
+            contentRevision.bump(ContentRevision.Family.TAGS);
+        } else if (entity instanceof Settings) {
+            contentRevision.bump(ContentRevision.Family.SETTINGS);
+        }
+    }
+}
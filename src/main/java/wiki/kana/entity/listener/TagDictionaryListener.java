@@ -0,0 +1,31 @@
+package wiki.kana.entity.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import wiki.kana.entity.Tag;
+import wiki.kana.service.TagDictionary;
+
+/**
+ * 标签实体监听器：标签新增、修改（含使用次数变化）、删除时同步进程内标签词典
+ * 由 Hibernate 通过 Spring 容器创建
+ */
+@Component
+@RequiredArgsConstructor
+public class TagDictionaryListener {
+
+    private final TagDictionary tagDictionary;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Tag tag) {
+        tagDictionary.put(tag);
+    }
+
+    @PostRemove
+    public void onRemove(Tag tag) {
+        tagDictionary.remove(tag.getId());
+    }
+}
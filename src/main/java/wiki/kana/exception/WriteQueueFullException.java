@@ -0,0 +1,12 @@
+package wiki.kana.exception;
+
+/**
+ * 写队列已满异常
+ * 写入请求在等待时间内无法进入写队列或未能完成时抛出，调用方应稍后重试
+ */
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
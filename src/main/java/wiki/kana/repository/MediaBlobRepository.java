@@ -0,0 +1,32 @@
+package wiki.kana.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import wiki.kana.entity.MediaBlob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 媒体内容块数据访问层
+ */
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, Long> {
+
+    /**
+     * 根据内容哈希查找内容块
+     */
+    Optional<MediaBlob> findBySha256(String sha256);
+
+    /**
+     * 按ID顺序分批查找引用数为 0 且在 cutoff 之前不再被引用的内容块
+     */
+    @Query("SELECT b FROM MediaBlob b WHERE b.refCount <= 0 AND b.updatedAt < :cutoff AND b.id > :afterId ORDER BY b.id")
+    List<MediaBlob> findUnreferenced(@Param("cutoff") LocalDateTime cutoff,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+}
@@ -1,11 +1,17 @@
 package wiki.kana.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import wiki.kana.entity.Media;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +19,15 @@ import java.util.Optional;
  * 媒体资源数据访问层
  */
 @Repository
-public interface MediaRepository extends JpaRepository<Media, Long> {
+public interface MediaRepository extends JpaRepository<Media, Long>, JpaSpecificationExecutor<Media> {
+
+    /**
+     * 按条件分页查询媒体，同时加载上传者（列表需要显示用户名）
+     * 只查询当前页数据和总数，排序由 Pageable 决定
+     */
+    @Override
+    @EntityGraph(attributePaths = "uploadedBy")
+    Page<Media> findAll(Specification<Media> spec, Pageable pageable);
 
     /**
      * 根据文件类型查找媒体
@@ -30,6 +44,27 @@ public interface MediaRepository extends JpaRepository<Media, Long> {
      */
     Optional<Media> findByFileName(String fileName);
 
+    /**
+     * 根据公开访问路径查找媒体（相同内容、相同扩展名的多次上传共用一个路径，取任意一条）
+     */
+    Optional<Media> findFirstByLocalUrl(String localUrl);
+
+    /**
+     * 查找由指定媒体生成的衍生图
+     */
+    List<Media> findBySourceMediaId(Long sourceMediaId);
+
+    /**
+     * 批量查找衍生图，按宽度升序
+     */
+    @Query("SELECT m FROM Media m WHERE m.sourceMedia.id IN :sourceIds ORDER BY m.width ASC")
+    List<Media> findRenditions(@Param("sourceIds") Collection<Long> sourceIds);
+
+    /**
+     * 统计引用指定内容块的媒体数量
+     */
+    long countByBlobId(Long blobId);
+
     /**
      * 统计指定类型的媒体数量
      */
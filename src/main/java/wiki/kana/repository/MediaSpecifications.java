@@ -0,0 +1,36 @@
+package wiki.kana.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import wiki.kana.entity.Media;
+
+/**
+ * 媒体列表查询条件
+ * 条件只作用于 media 表自身的列（type、uploaded_by、source_media_id），不产生关联查询，
+ * 可以使用 idx_media_type、idx_media_uploaded_by 索引
+ */
+public final class MediaSpecifications {
+
+    private MediaSpecifications() {
+    }
+
+    /**
+     * 指定媒体类型；type 为空时不过滤
+     */
+    public static Specification<Media> hasType(Media.MediaType type) {
+        return (root, query, cb) -> type == null ? null : cb.equal(root.get("type"), type);
+    }
+
+    /**
+     * 指定上传者；userId 为空时不过滤
+     */
+    public static Specification<Media> uploadedBy(Long userId) {
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("uploadedBy").get("id"), userId);
+    }
+
+    /**
+     * 只查原始上传的媒体，排除衍生图
+     */
+    public static Specification<Media> isOriginal() {
+        return (root, query, cb) -> cb.isNull(root.get("sourceMedia"));
+    }
+}
@@ -2,6 +2,7 @@ package wiki.kana.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,17 +11,30 @@ import wiki.kana.entity.Category;
 import wiki.kana.entity.Post;
 import wiki.kana.entity.Tag;
 import wiki.kana.entity.User;
+import wiki.kana.repository.projection.PostRevisionView;
+import wiki.kana.repository.projection.PostSummaryView;
+import wiki.kana.repository.projection.PostTagView;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 博客文章数据访问层
+ * 列表查询使用 {@link Post#LISTING_GRAPH} 一次性加载作者和分类，标签由 Post.tags 上的批量抓取统一加载
+ * 公共列表接口使用 {@link PostSummaryView} 投影，不读取 content 正文
  */
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
+    /**
+     * 分页查询全部博客（一并加载作者和分类）
+     */
+    @Override
+    @EntityGraph(Post.LISTING_GRAPH)
+    Page<Post> findAll(Pageable pageable);
+
     /**
      * 根据Slug查找博客
      */
@@ -38,10 +52,12 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     List<Post> findPublishedPosts();
 
     /**
-     * 查找已发布的博客（分页）
+     * 查找已发布的博客（分页，仅查询当前页数据，排序由 Pageable 决定）
+     * 总数由 {@link #countPublishedPosts()} 单独统计
      */
-    @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED' ORDER BY p.publishedAt DESC")
-    List<Post> findPublishedPosts(org.springframework.data.domain.Pageable pageable);
+    @EntityGraph(Post.LISTING_GRAPH)
+    @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED'")
+    List<Post> findPublishedPosts(Pageable pageable);
 
     /**
      * 根据作者查找博客
@@ -51,6 +67,7 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     /**
      * 根据作者分页查找博客
      */
+    @EntityGraph(Post.LISTING_GRAPH)
     Page<Post> findByAuthor(User author, Pageable pageable);
 
     /**
@@ -61,32 +78,23 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     /**
      * 根据分类分页查找博客
      */
+    @EntityGraph(Post.LISTING_GRAPH)
     Page<Post> findByCategory(Category category, Pageable pageable);
 
     /**
      * 根据标签查找博客
      */
+    @EntityGraph(Post.LISTING_GRAPH)
     @Query("SELECT p FROM Post p JOIN p.tags t WHERE t = :tag AND p.status = 'PUBLISHED' ORDER BY p.publishedAt DESC")
     List<Post> findByTag(@Param("tag") Tag tag);
 
     /**
      * 根据标签查找已发布博客（分页）
      */
+    @EntityGraph(Post.LISTING_GRAPH)
     @Query("SELECT p FROM Post p JOIN p.tags t WHERE t = :tag AND p.status = 'PUBLISHED' ORDER BY p.publishedAt DESC")
     Page<Post> findPublishedByTag(@Param("tag") Tag tag, Pageable pageable);
 
-    /**
-     * 根据标题搜索博客
-     */
-    @Query("SELECT p FROM Post p WHERE p.title LIKE %:keyword% AND p.status = 'PUBLISHED'")
-    List<Post> searchByTitle(@Param("keyword") String keyword);
-
-    /**
-     * 根据内容搜索博客
-     */
-    @Query("SELECT p FROM Post p WHERE p.content LIKE %:keyword% AND p.status = 'PUBLISHED'")
-    List<Post> searchByContent(@Param("keyword") String keyword);
-
     /**
      * 查找热门博客（按浏览量）
      */
@@ -142,9 +150,129 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     /**
      * 查找指定时间范围内的已发布博客（分页）
      */
+    @EntityGraph(Post.LISTING_GRAPH)
     @Query("SELECT p FROM Post p WHERE p.publishedAt BETWEEN :start AND :end AND p.status = 'PUBLISHED' ORDER BY p.publishedAt DESC")
     Page<Post> findPublishedPostsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, Pageable pageable);
 
+    // ==================== 列表投影（不读取 content） ====================
+
+    /**
+     * 列表投影的公共 SELECT 部分
+     */
+    String SUMMARY_SELECT = "SELECT p.id AS id, p.title AS title, p.slug AS slug, p.excerpt AS excerpt, " +
+            "p.status AS status, p.isFeatured AS isFeatured, p.viewCount AS viewCount, " +
+            "p.publishedAt AS publishedAt, p.createdAt AS createdAt, p.updatedAt AS updatedAt, " +
+            "a.id AS authorId, a.username AS authorUsername, a.displayName AS authorDisplayName, " +
+            "c.id AS categoryId, c.name AS categoryName, c.slug AS categorySlug " +
+            "FROM Post p LEFT JOIN p.author a LEFT JOIN p.category c ";
+
+    /**
+     * 分页查询全部博客摘要
+     */
+    @Query(value = SUMMARY_SELECT,
+            countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostSummaryView> findAllSummaries(Pageable pageable);
+
+    /**
+     * 分页查询已发布博客摘要（总数由调用方提供）
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.status = 'PUBLISHED'")
+    List<PostSummaryView> findPublishedSummaries(Pageable pageable);
+
+    /**
+     * 分页根据标签查询已发布博客摘要
+     */
+    @Query(value = SUMMARY_SELECT + "JOIN p.tags t WHERE t = :tag AND p.status = 'PUBLISHED'",
+            countQuery = "SELECT COUNT(p) FROM Post p JOIN p.tags t WHERE t = :tag AND p.status = 'PUBLISHED'")
+    Page<PostSummaryView> findPublishedSummariesByTag(@Param("tag") Tag tag, Pageable pageable);
+
+    /**
+     * 分页查询指定时间范围内的已发布博客摘要
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE p.publishedAt BETWEEN :start AND :end AND p.status = 'PUBLISHED'",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.publishedAt BETWEEN :start AND :end AND p.status = 'PUBLISHED'")
+    Page<PostSummaryView> findPublishedSummariesBetween(@Param("start") LocalDateTime start,
+                                                        @Param("end") LocalDateTime end,
+                                                        Pageable pageable);
+
+    /**
+     * 根据ID批量查询博客摘要（顺序由调用方决定）
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<PostSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询所有已发布博客的ID和更新时间
+     */
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Post p WHERE p.status = 'PUBLISHED'")
+    List<PostRevisionView> findPublishedRevisions();
+
+    /**
+     * 批量查询文章的标签
+     */
+    @Query("SELECT p.id AS postId, t.id AS id, t.name AS name, t.slug AS slug " +
+            "FROM Tag t JOIN t.posts p WHERE p.id IN :postIds ORDER BY t.name")
+    List<PostTagView> findTagViewsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    // ==================== 游标分页（keyset） ====================
+    // 以 (publishedAt, id) 倒序作为游标，条件 p.publishedAt <= :afterAt 可直接在
+    // idx_posts_status_published_at 索引上定位，翻页代价与页码无关
+
+    /**
+     * 游标分页查询已发布博客
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.status = 'PUBLISHED' " +
+            "AND p.publishedAt <= :afterAt AND (p.publishedAt < :afterAt OR p.id < :afterId) " +
+            "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<PostSummaryView> findPublishedPostsAfter(@Param("afterAt") LocalDateTime afterAt,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    /**
+     * 游标分页根据标签查询已发布博客
+     */
+    @Query(SUMMARY_SELECT + "JOIN p.tags t WHERE t = :tag AND p.status = 'PUBLISHED' " +
+            "AND p.publishedAt <= :afterAt AND (p.publishedAt < :afterAt OR p.id < :afterId) " +
+            "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<PostSummaryView> findPublishedByTagAfter(@Param("tag") Tag tag,
+                                                  @Param("afterAt") LocalDateTime afterAt,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    /**
+     * 游标分页根据分类查询已发布博客
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.category = :category AND p.status = 'PUBLISHED' " +
+            "AND p.publishedAt <= :afterAt AND (p.publishedAt < :afterAt OR p.id < :afterId) " +
+            "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<PostSummaryView> findPublishedByCategoryAfter(@Param("category") Category category,
+                                                       @Param("afterAt") LocalDateTime afterAt,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    /**
+     * 游标分页查询指定时间范围内的已发布博客
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.status = 'PUBLISHED' AND p.publishedAt >= :start " +
+            "AND p.publishedAt <= :afterAt AND (p.publishedAt < :afterAt OR p.id < :afterId) " +
+            "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<PostSummaryView> findPublishedPostsBetweenAfter(@Param("start") LocalDateTime start,
+                                                         @Param("afterAt") LocalDateTime afterAt,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+
+    /**
+     * 游标分页按标题或内容搜索已发布博客（content 只参与过滤，不在结果中返回）
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.status = 'PUBLISHED' " +
+            "AND (p.title LIKE %:keyword% OR p.content LIKE %:keyword%) " +
+            "AND p.publishedAt <= :afterAt AND (p.publishedAt < :afterAt OR p.id < :afterId) " +
+            "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<PostSummaryView> searchPublishedAfter(@Param("keyword") String keyword,
+                                               @Param("afterAt") LocalDateTime afterAt,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
     /**
      * 查找相关博客（按标签和分类）
      */
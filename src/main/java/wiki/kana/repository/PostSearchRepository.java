@@ -0,0 +1,330 @@
+package wiki.kana.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.util.HtmlUtils;
+import wiki.kana.repository.projection.PostSearchHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 文章全文检索（SQLite FTS5）
+ * posts_fts 是 posts 的外部内容索引表，由触发器在同一事务内同步，查询按 BM25 排序并在数据库端分页
+ */
+@Slf4j
+@Repository
+@DependsOn("entityManagerFactory")
+public class PostSearchRepository {
+
+    private static final String FTS_TABLE = "posts_fts";
+    private static final String HIGHLIGHT_OPEN = "<mark>";
+    private static final String HIGHLIGHT_CLOSE = "</mark>";
+    // FTS5 先用控制字符标记命中位置，整体 HTML 转义后再替换为 <mark>，标题和正文中的 HTML 不会原样输出
+    private static final String MATCH_OPEN = "\u0002";
+    private static final String MATCH_CLOSE = "\u0003";
+    private static final int SNIPPET_TOKENS = 32;
+    private static final int FALLBACK_SNIPPET_BEFORE = 20;
+    private static final int FALLBACK_SNIPPET_LENGTH = 80;
+    // 回退检索从正文中读取的原文窗口，留出被去掉的 HTML 标签的余量
+    private static final int FALLBACK_SOURCE_BEFORE = 200;
+    private static final int FALLBACK_SOURCE_LENGTH = 600;
+    private static final int TRIGRAM_MIN_LENGTH = 3;
+    private static final Pattern TOKENIZER_PATTERN = Pattern.compile("[a-z0-9_ ]+");
+    private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    // bm25 权重依次对应 title、content、excerpt
+    private static final String MATCH_SQL =
+            "SELECT p.id AS id, bm25(posts_fts, 10.0, 1.0, 3.0) AS score, " +
+            "highlight(posts_fts, 0, '" + MATCH_OPEN + "', '" + MATCH_CLOSE + "') AS title_highlight, " +
+            "snippet(posts_fts, 1, '" + MATCH_OPEN + "', '" + MATCH_CLOSE + "', '…', " + SNIPPET_TOKENS + ") AS snippet " +
+            "FROM posts_fts JOIN posts p ON p.id = posts_fts.rowid " +
+            "WHERE posts_fts MATCH ? AND p.status = 'PUBLISHED' " +
+            "ORDER BY score, p.published_at DESC, p.id DESC LIMIT ? OFFSET ?";
+
+    private static final String MATCH_COUNT_SQL =
+            "SELECT COUNT(*) FROM posts_fts JOIN posts p ON p.id = posts_fts.rowid " +
+            "WHERE posts_fts MATCH ? AND p.status = 'PUBLISHED'";
+
+    // 关键词短于 trigram 长度时无法走 MATCH：每个词一组 LIKE 条件（AND），只在 SQL 中截取第一个词附近的原文，不读出整篇正文
+    private static final String LIKE_SELECT =
+            "SELECT p.id AS id, p.title AS title, " +
+            "max(instr(lower(p.content), ?) - " + FALLBACK_SOURCE_BEFORE + ", 1) AS source_start, " +
+            "length(p.content) AS content_length, " +
+            "substr(p.content, max(instr(lower(p.content), ?) - " + FALLBACK_SOURCE_BEFORE + ", 1), " + FALLBACK_SOURCE_LENGTH + ") AS source " +
+            "FROM posts p ";
+
+    private static final String LIKE_TERM_CONDITION = " AND (p.title LIKE ? ESCAPE '\\' OR p.content LIKE ? ESCAPE '\\')";
+
+    private static final String LIKE_ORDER = " ORDER BY p.published_at DESC, p.id DESC LIMIT ? OFFSET ?";
+
+    private static final RowMapper<PostSearchHit> MATCH_HIT_MAPPER = (rs, rowNum) -> new PostSearchHit(
+            rs.getLong("id"),
+            rs.getDouble("score"),
+            escapeHighlighted(rs.getString("title_highlight")),
+            escapeHighlighted(rs.getString("snippet")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String tokenizer;
+
+    public PostSearchRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${app.search.fts.tokenizer:trigram}") String tokenizer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenizer = tokenizer.trim().toLowerCase();
+        if (!TOKENIZER_PATTERN.matcher(this.tokenizer).matches()) {
+            throw new IllegalArgumentException("Invalid FTS5 tokenizer: " + tokenizer);
+        }
+    }
+
+    /**
+     * 创建 FTS5 索引表和同步触发器
+     * 分词器配置变化或索引表不存在时重建索引
+     */
+    @PostConstruct
+    public void initialize() {
+        String tokenizeClause = "tokenize = '" + tokenizer + "'";
+        List<String> existing = jdbcTemplate.queryForList(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?", String.class, FTS_TABLE);
+
+        if (existing.isEmpty() || !existing.get(0).contains(tokenizeClause)) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + FTS_TABLE);
+            jdbcTemplate.execute("CREATE VIRTUAL TABLE " + FTS_TABLE + " USING fts5(" +
+                    "title, content, excerpt, content = 'posts', content_rowid = 'id', " + tokenizeClause + ")");
+            rebuild();
+            log.info("已创建文章全文索引 {}，分词器: {}", FTS_TABLE, tokenizer);
+        }
+
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS posts_fts_ai AFTER INSERT ON posts BEGIN " +
+                "INSERT INTO posts_fts(rowid, title, content, excerpt) VALUES (new.id, new.title, new.content, new.excerpt); END");
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS posts_fts_ad AFTER DELETE ON posts BEGIN " +
+                "INSERT INTO posts_fts(posts_fts, rowid, title, content, excerpt) VALUES ('delete', old.id, old.title, old.content, old.excerpt); END");
+        // 只在可检索列变化时同步，浏览量写回等更新不会触碰索引
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS posts_fts_au AFTER UPDATE OF title, content, excerpt ON posts BEGIN " +
+                "INSERT INTO posts_fts(posts_fts, rowid, title, content, excerpt) VALUES ('delete', old.id, old.title, old.content, old.excerpt); " +
+                "INSERT INTO posts_fts(rowid, title, content, excerpt) VALUES (new.id, new.title, new.content, new.excerpt); END");
+    }
+
+    /**
+     * 根据 posts 表重建全文索引
+     */
+    public void rebuild() {
+        jdbcTemplate.update("INSERT INTO " + FTS_TABLE + "(" + FTS_TABLE + ") VALUES ('rebuild')");
+    }
+
+    /**
+     * 已进入全文索引的文章数（docsize 影子表每篇文章一行）
+     */
+    public long countIndexedPosts() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + FTS_TABLE + "_docsize", Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * posts 表中的文章数（外部内容表与索引应一一对应）
+     */
+    public long countSourcePosts() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * 使用 FTS5 integrity-check 校验索引与 posts 表内容一致
+     */
+    public boolean integrityCheck() {
+        try {
+            jdbcTemplate.update("INSERT INTO " + FTS_TABLE + "(" + FTS_TABLE + ", rank) VALUES ('integrity-check', 1)");
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("全文索引校验失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 检索已发布文章，按相关度排序分页
+     */
+    public Page<PostSearchHit> searchPublished(String keyword, Pageable pageable) {
+        List<String> terms = Arrays.stream(keyword.trim().split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toList());
+
+        if (requiresLikeFallback(terms)) {
+            return searchByLike(terms, pageable);
+        }
+
+        String matchQuery = toMatchQuery(terms);
+        List<PostSearchHit> hits = jdbcTemplate.query(MATCH_SQL, MATCH_HIT_MAPPER,
+                matchQuery, pageable.getPageSize(), pageable.getOffset());
+        return PageableExecutionUtils.getPage(hits, pageable,
+                () -> jdbcTemplate.queryForObject(MATCH_COUNT_SQL, Long.class, matchQuery));
+    }
+
+    /**
+     * trigram 分词器无法匹配少于 3 个字符的词（常见于两字中文词），此时回退到 LIKE
+     */
+    private boolean requiresLikeFallback(List<String> terms) {
+        if (!tokenizer.startsWith("trigram")) {
+            return false;
+        }
+        return terms.stream().anyMatch(term -> term.codePointCount(0, term.length()) < TRIGRAM_MIN_LENGTH);
+    }
+
+    /**
+     * 每个词作为短语加引号，避免用户输入被解析为 FTS5 语法；多个词之间为 AND
+     */
+    private String toMatchQuery(List<String> terms) {
+        return terms.stream()
+                .map(term -> "\"" + term.replace("\"", "\"\"") + "\"")
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * LIKE 回退检索：所有词都要在标题或正文中出现，% 和 _ 按字面匹配；
+     * 高亮片段从去掉 HTML 标签后的纯文本中截取并转义，只有 mark 标签是 HTML
+     */
+    private Page<PostSearchHit> searchByLike(List<String> terms, Pageable pageable) {
+        List<String> distinctTerms = terms.stream().distinct().collect(Collectors.toList());
+        List<String> lowerTerms = distinctTerms.stream()
+                .map(term -> term.toLowerCase(Locale.ROOT))
+                .distinct()
+                .collect(Collectors.toList());
+        String where = "WHERE p.status = 'PUBLISHED'" + LIKE_TERM_CONDITION.repeat(distinctTerms.size());
+        List<Object> conditionArgs = new ArrayList<>();
+        for (String term : distinctTerms) {
+            String pattern = "%" + escapeLike(term) + "%";
+            conditionArgs.add(pattern);
+            conditionArgs.add(pattern);
+        }
+
+        List<Object> args = new ArrayList<>();
+        args.add(lowerTerms.get(0));
+        args.add(lowerTerms.get(0));
+        args.addAll(conditionArgs);
+        args.add(pageable.getPageSize());
+        args.add(pageable.getOffset());
+
+        List<PostSearchHit> hits = jdbcTemplate.query(LIKE_SELECT + where + LIKE_ORDER,
+                (rs, rowNum) -> new PostSearchHit(
+                        rs.getLong("id"),
+                        null,
+                        highlight(rs.getString("title"), lowerTerms),
+                        fallbackSnippet(rs.getString("source"), rs.getInt("source_start"),
+                                rs.getInt("content_length"), lowerTerms)),
+                args.toArray());
+        return PageableExecutionUtils.getPage(hits, pageable,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts p " + where, Long.class,
+                        conditionArgs.toArray()));
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * 去掉原文窗口中的 HTML 标签，截取第一个命中词附近的文本并高亮
+     */
+    private static String fallbackSnippet(String source, int sourceStart, int contentLength, List<String> terms) {
+        if (source == null || source.isEmpty()) {
+            return source;
+        }
+        String text = toPlainText(source, sourceStart > 1);
+        String lower = text.toLowerCase(Locale.ROOT);
+        int first = -1;
+        if (lower.length() == text.length()) {
+            for (String term : terms) {
+                int index = lower.indexOf(term);
+                if (index >= 0 && (first < 0 || index < first)) {
+                    first = index;
+                }
+            }
+        }
+
+        int start = first > FALLBACK_SNIPPET_BEFORE ? first - FALLBACK_SNIPPET_BEFORE : 0;
+        int end = Math.min(text.length(), start + FALLBACK_SNIPPET_LENGTH);
+        boolean leading = start > 0 || sourceStart > 1;
+        boolean trailing = end < text.length() || sourceStart - 1 + source.length() < contentLength;
+        return (leading ? "…" : "") + highlight(text.substring(start, end), terms) + (trailing ? "…" : "");
+    }
+
+    /**
+     * 原文窗口转为纯文本：窗口从正文中间开始时先丢掉被截断的标签残片
+     */
+    private static String toPlainText(String html, boolean cutAtStart) {
+        String text = html;
+        if (cutAtStart) {
+            int close = text.indexOf('>');
+            int open = text.indexOf('<');
+            if (close >= 0 && (open < 0 || close < open)) {
+                text = text.substring(close + 1);
+            }
+        }
+        int lastOpen = text.lastIndexOf('<');
+        if (lastOpen >= 0 && text.indexOf('>', lastOpen) < 0) {
+            text = text.substring(0, lastOpen);
+        }
+        text = HTML_TAG_PATTERN.matcher(text).replaceAll(" ");
+        return WHITESPACE_PATTERN.matcher(HtmlUtils.htmlUnescape(text)).replaceAll(" ").trim();
+    }
+
+    /**
+     * 转义纯文本并用 mark 标出命中词（不区分大小写，优先匹配较长的词）
+     */
+    private static String highlight(String text, List<String> terms) {
+        if (text == null) {
+            return null;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.length() != text.length()) {
+            return HtmlUtils.htmlEscape(text);
+        }
+
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        int plainStart = 0;
+        int position = 0;
+        while (position < text.length()) {
+            int matchedLength = 0;
+            for (String term : terms) {
+                if (term.length() > matchedLength && lower.startsWith(term, position)) {
+                    matchedLength = term.length();
+                }
+            }
+            if (matchedLength > 0) {
+                result.append(HtmlUtils.htmlEscape(text.substring(plainStart, position)))
+                        .append(HIGHLIGHT_OPEN)
+                        .append(HtmlUtils.htmlEscape(text.substring(position, position + matchedLength)))
+                        .append(HIGHLIGHT_CLOSE);
+                position += matchedLength;
+                plainStart = position;
+            } else {
+                position++;
+            }
+        }
+        return result.append(HtmlUtils.htmlEscape(text.substring(plainStart))).toString();
+    }
+
+    /**
+     * 转义 FTS5 返回的高亮文本，再把命中标记换成 &lt;mark&gt;
+     */
+    private static String escapeHighlighted(String text) {
+        if (text == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(text)
+                .replace(MATCH_OPEN, HIGHLIGHT_OPEN)
+                .replace(MATCH_CLOSE, HIGHLIGHT_CLOSE);
+    }
+}
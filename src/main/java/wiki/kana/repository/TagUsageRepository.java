@@ -0,0 +1,144 @@
+package wiki.kana.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签使用次数（tags.usage_count）
+ * 使用次数由 post_tags 和 posts 上的触发器在写入关联的同一事务内增减，实体不再写这一列；
+ * 开启 app.tags.usage-count.published-only 时只统计已发布文章，文章发布和撤销发布时同步调整
+ */
+@Slf4j
+@Repository
+@DependsOn("entityManagerFactory")
+public class TagUsageRepository {
+
+    private static final String TRIGGER_PREFIX = "tag_usage_";
+    private static final String PUBLISHED = " AND status = 'PUBLISHED'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean publishedOnly;
+
+    public TagUsageRepository(JdbcTemplate jdbcTemplate,
+                              @Value("${app.tags.usage-count.published-only:false}") boolean publishedOnly) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.publishedOnly = publishedOnly;
+    }
+
+    /**
+     * 安装计数触发器
+     * 触发器缺失或与当前统计口径不一致时重建，并全量重算一次使用次数
+     */
+    @PostConstruct
+    public void initialize() {
+        List<String> expected = triggerDefinitions();
+        List<String> existing = jdbcTemplate.queryForList(
+                "SELECT sql FROM sqlite_master WHERE type = 'trigger' AND name LIKE '" + TRIGGER_PREFIX + "%'",
+                String.class);
+        if (existing.size() == expected.size() && existing.containsAll(expected)) {
+            return;
+        }
+
+        jdbcTemplate.queryForList(
+                        "SELECT name FROM sqlite_master WHERE type = 'trigger' AND name LIKE '" + TRIGGER_PREFIX + "%'",
+                        String.class)
+                .forEach(name -> jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + name));
+        expected.forEach(jdbcTemplate::execute);
+        int updated = recalculateAll();
+        log.info("已安装标签使用次数触发器（{}），重算 {} 个标签", publishedOnly ? "仅已发布文章" : "全部文章", updated);
+    }
+
+    /**
+     * 用一条语句按关联表重算所有标签的使用次数
+     *
+     * @return 更新的标签数
+     */
+    public int recalculateAll() {
+        return jdbcTemplate.update("UPDATE tags SET usage_count = (" + countSql() + ")");
+    }
+
+    /**
+     * 按关联表重算单个标签的使用次数
+     *
+     * @return 重算后的使用次数
+     */
+    public int recalculate(Long tagId) {
+        jdbcTemplate.update("UPDATE tags SET usage_count = (" + countSql() + ") WHERE id = ?", tagId);
+        return usageCount(tagId);
+    }
+
+    /**
+     * 手动调整使用次数（不小于0）
+     */
+    public void adjust(Long tagId, int delta) {
+        jdbcTemplate.update("UPDATE tags SET usage_count = MAX(COALESCE(usage_count, 0) + ?, 0) WHERE id = ?",
+                delta, tagId);
+    }
+
+    public int usageCount(Long tagId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(usage_count, 0) FROM tags WHERE id = ?", Integer.class, tagId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 所有标签的使用次数（标签ID → 使用次数）
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> findAllUsageCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT id, COALESCE(usage_count, 0) FROM tags",
+                (RowCallbackHandler) rs -> counts.put(rs.getLong(1), rs.getInt(2)));
+        return counts;
+    }
+
+    public boolean isPublishedOnly() {
+        return publishedOnly;
+    }
+
+    private String countSql() {
+        return "SELECT COUNT(*) FROM post_tags pt JOIN posts p ON p.id = pt.post_id WHERE pt.tag_id = tags.id"
+                + (publishedOnly ? " AND p.status = 'PUBLISHED'" : "");
+    }
+
+    /**
+     * 触发器定义（与 sqlite_master 中保存的原文逐字比较）
+     * 只统计关联到现存文章（仅统计已发布时为已发布文章）的关联行，与 {@link #recalculateAll()} 口径一致；
+     * 删除文章前先删除其关联行，避免残留关联
+     */
+    private List<String> triggerDefinitions() {
+        String postFilter = publishedOnly ? PUBLISHED : "";
+        List<String> triggers = new ArrayList<>(List.of(
+                "CREATE TRIGGER " + TRIGGER_PREFIX + "ad AFTER DELETE ON post_tags BEGIN " +
+                        "UPDATE tags SET usage_count = COALESCE(usage_count, 0) - 1 WHERE id = old.tag_id " +
+                        "AND EXISTS (SELECT 1 FROM posts WHERE id = old.post_id" + postFilter + "); END",
+                "CREATE TRIGGER " + TRIGGER_PREFIX + "ai AFTER INSERT ON post_tags BEGIN " +
+                        "UPDATE tags SET usage_count = COALESCE(usage_count, 0) + 1 WHERE id = new.tag_id " +
+                        "AND EXISTS (SELECT 1 FROM posts WHERE id = new.post_id" + postFilter + "); END",
+                "CREATE TRIGGER " + TRIGGER_PREFIX + "post_bd BEFORE DELETE ON posts BEGIN " +
+                        "DELETE FROM post_tags WHERE post_id = old.id; END"));
+        if (publishedOnly) {
+            // Hibernate 更新文章时总会写 status 列，用 WHEN 只在状态真正变化时调整
+            triggers.add("CREATE TRIGGER " + TRIGGER_PREFIX + "publish AFTER UPDATE OF status ON posts " +
+                    "WHEN new.status = 'PUBLISHED' AND old.status IS NOT 'PUBLISHED' BEGIN " +
+                    "UPDATE tags SET usage_count = COALESCE(usage_count, 0) + 1 " +
+                    "WHERE id IN (SELECT tag_id FROM post_tags WHERE post_id = new.id); END");
+            triggers.add("CREATE TRIGGER " + TRIGGER_PREFIX + "unpublish AFTER UPDATE OF status ON posts " +
+                    "WHEN old.status = 'PUBLISHED' AND new.status IS NOT 'PUBLISHED' BEGIN " +
+                    "UPDATE tags SET usage_count = COALESCE(usage_count, 0) - 1 " +
+                    "WHERE id IN (SELECT tag_id FROM post_tags WHERE post_id = new.id); END");
+        }
+        return triggers;
+    }
+}
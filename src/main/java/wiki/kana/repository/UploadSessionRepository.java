@@ -0,0 +1,27 @@
+package wiki.kana.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import wiki.kana.entity.UploadSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 分片上传会话数据访问层
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+
+    /**
+     * 根据上传ID查找会话
+     */
+    Optional<UploadSession> findByUploadKey(String uploadKey);
+
+    /**
+     * 分批查找已过期的会话
+     */
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime time, Pageable pageable);
+}
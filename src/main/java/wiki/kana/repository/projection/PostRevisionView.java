@@ -0,0 +1,13 @@
+package wiki.kana.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章版本投影（ID + 更新时间），用于检查检索索引是否过期
+ */
+public interface PostRevisionView {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+}
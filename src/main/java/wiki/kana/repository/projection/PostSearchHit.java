@@ -0,0 +1,29 @@
+package wiki.kana.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 全文检索命中结果
+ */
+@Getter
+@AllArgsConstructor
+public class PostSearchHit {
+
+    private final Long postId;
+
+    /**
+     * BM25 相关度（越小越相关），回退到 LIKE 检索时为 null
+     */
+    private final Double score;
+
+    /**
+     * 高亮后的标题
+     */
+    private final String titleHighlight;
+
+    /**
+     * 正文中命中位置附近的摘要片段（已高亮）
+     */
+    private final String snippet;
+}
@@ -0,0 +1,44 @@
+package wiki.kana.repository.projection;
+
+import wiki.kana.entity.Post;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章列表投影
+ * 只包含列表展示需要的列，查询时不会读取 content 正文
+ */
+public interface PostSummaryView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getSlug();
+
+    String getExcerpt();
+
+    Post.PostStatus getStatus();
+
+    Boolean getIsFeatured();
+
+    Integer getViewCount();
+
+    LocalDateTime getPublishedAt();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getAuthorId();
+
+    String getAuthorUsername();
+
+    String getAuthorDisplayName();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    String getCategorySlug();
+}
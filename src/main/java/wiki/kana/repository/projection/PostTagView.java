@@ -0,0 +1,15 @@
+package wiki.kana.repository.projection;
+
+/**
+ * 文章标签投影（文章ID + 标签基本信息）
+ */
+public interface PostTagView {
+
+    Long getPostId();
+
+    Long getId();
+
+    String getName();
+
+    String getSlug();
+}
@@ -2,6 +2,7 @@ package wiki.kana.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -24,6 +25,7 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final PostDetailCache postDetailCache;
 
     // ==================== 基础查询 ====================
 
@@ -37,8 +39,7 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public Category findById(Long id) {
         log.debug("Finding category by ID: {}", id);
-        return categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        return withParent(requireCategory(id));
     }
 
     /**
@@ -51,8 +52,8 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public Category findBySlug(String slug) {
         log.debug("Finding category by slug: {}", slug);
-        return categoryRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with slug: " + slug));
+        return withParent(categoryRepository.findBySlug(slug)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with slug: " + slug)));
     }
 
     /**
@@ -65,8 +66,8 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public Category findByName(String name) {
         log.debug("Finding category by name: {}", name);
-        return categoryRepository.findByName(name)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with name: " + name));
+        return withParent(categoryRepository.findByName(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with name: " + name)));
     }
 
     /**
@@ -77,7 +78,7 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public List<Category> findAll() {
         log.debug("Finding all categories");
-        return categoryRepository.findAll();
+        return withParents(categoryRepository.findAll());
     }
 
     /**
@@ -112,7 +113,7 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public List<Category> findAllTopLevelCategories() {
         log.debug("Finding all top level categories (with children)");
-        return categoryRepository.findAllTopLevelCategories();
+        return withSubtree(categoryRepository.findAllTopLevelCategories());
     }
 
     /**
@@ -127,7 +128,7 @@ public class CategoryService {
             return Collections.emptyList();
         }
         log.debug("Finding children for parent category: {}", parentId);
-        Category parent = findById(parentId);
+        Category parent = requireCategory(parentId);
         return categoryRepository.findByParent(parent);
     }
 
@@ -233,6 +234,8 @@ public class CategoryService {
         }
 
         Category updated = categoryRepository.save(existing);
+        // 分类名称、slug 包含在文章详情中
+        postDetailCache.evictAll();
         log.info("Successfully updated category with ID: {}", updated.getId());
         return updated;
     }
@@ -320,7 +323,7 @@ public class CategoryService {
      */
     @Transactional(readOnly = true)
     public long countPublishedPosts(Long categoryId) {
-        Category category = findById(categoryId);
+        Category category = requireCategory(categoryId);
         return categoryRepository.countPublishedPostsByCategory(category);
     }
 
@@ -346,6 +349,35 @@ public class CategoryService {
 
     // ==================== 工具方法 ====================
 
+    private Category requireCategory(Long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+    }
+
+    /**
+     * 在事务内加载父分类，响应映射在事务外读取父分类名称
+     */
+    private Category withParent(Category category) {
+        Hibernate.initialize(category.getParent());
+        return category;
+    }
+
+    private List<Category> withParents(List<Category> categories) {
+        categories.forEach(this::withParent);
+        return categories;
+    }
+
+    /**
+     * 在事务内逐层加载子分类，供分类树在事务外遍历
+     */
+    private List<Category> withSubtree(List<Category> categories) {
+        categories.forEach(category -> {
+            Hibernate.initialize(category.getChildren());
+            withSubtree(category.getChildren());
+        });
+        return categories;
+    }
+
     /**
      * 验证分类输入
      *
@@ -0,0 +1,232 @@
+package wiki.kana.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import wiki.kana.dto.media.UploadSessionResponse;
+import wiki.kana.entity.Media;
+import wiki.kana.entity.UploadSession;
+import wiki.kana.exception.ResourceNotFoundException;
+import wiki.kana.repository.UploadSessionRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 分片上传服务
+ * <p>
+ * 协议：创建会话 → 按偏移 PUT 分片（可并发、可重传、可乱序）→ 提交。分片用定位写直接写入
+ * {uploadDir}/.partial/{uploadId} 的对应位置，不在内存中拼接；每个分片写入时计算 SHA-256，客户端
+ * 提供了分片校验值时当场核对，不一致的分片不记为已接收，只需重传该分片。会话和已接收分片位图保存在
+ * SQLite 中（经写队列更新），服务重启后客户端查询会话即可从缺失的分片继续。提交时对完整文件计算一次
+ * SHA-256（内容寻址需要），与创建会话时声明的值核对后移入内容块路径
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileStorageService fileStorageService;
+    private final MediaService mediaService;
+    private final WriteDispatcher writeDispatcher;
+
+    private final int chunkSize;
+    private final Duration sessionTtl;
+    private final int cleanupBatchSize;
+
+    public ChunkedUploadService(UploadSessionRepository uploadSessionRepository,
+                                FileStorageService fileStorageService,
+                                MediaService mediaService,
+                                WriteDispatcher writeDispatcher,
+                                @Value("${app.media.chunked.chunk-size:8388608}") int chunkSize,
+                                @Value("${app.media.chunked.session-ttl:P1D}") Duration sessionTtl,
+                                @Value("${app.media.chunked.cleanup-batch-size:100}") int cleanupBatchSize) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.fileStorageService = fileStorageService;
+        this.mediaService = mediaService;
+        this.writeDispatcher = writeDispatcher;
+        this.chunkSize = Math.max(64 * 1024, chunkSize);
+        this.sessionTtl = sessionTtl;
+        this.cleanupBatchSize = Math.max(1, cleanupBatchSize);
+    }
+
+    /**
+     * 创建分片上传会话
+     */
+    public UploadSessionResponse createSession(Long userId, String fileName, long fileSize, Media.MediaType type,
+                                               String description, String altText, String sha256) {
+        String originalName = StringUtils.getFilename(fileName);
+        if (!StringUtils.hasText(originalName)) {
+            throw new IllegalArgumentException("文件名不能为空");
+        }
+        if (fileSize <= 0) {
+            throw new IllegalArgumentException("文件大小必须大于0");
+        }
+        if (fileSize > mediaService.getMaxFileSize()) {
+            throw new IllegalArgumentException(FileStorageService.sizeLimitMessage(mediaService.getMaxFileSize()));
+        }
+
+        String uploadKey = UUID.randomUUID().toString().replace("-", "");
+        fileStorageService.partialFile(uploadKey);
+
+        // 实体在写操作内部创建，合并事务回滚后重新执行时不会复用已分配ID的实体
+        UploadSessionResponse response = writeDispatcher.execute(() -> {
+            UploadSession session = UploadSession.builder()
+                    .uploadKey(uploadKey)
+                    .uploadedById(userId)
+                    .originalName(originalName)
+                    .fileSize(fileSize)
+                    .chunkSize(chunkSize)
+                    .expectedSha256(StringUtils.hasText(sha256) ? sha256.toLowerCase() : null)
+                    .type(type)
+                    .description(description)
+                    .altText(altText)
+                    .expiresAt(LocalDateTime.now().plus(sessionTtl))
+                    .build();
+            return toResponse(uploadSessionRepository.save(session));
+        });
+        log.info("创建分片上传会话 {}: {} ({} 字节, {} 个分片)", uploadKey, originalName, fileSize, response.getChunkCount());
+        return response;
+    }
+
+    /**
+     * 查询会话进度，客户端断线或服务重启后据此续传
+     */
+    public UploadSessionResponse getSession(Long userId, String uploadKey) {
+        return toResponse(findActiveSession(userId, uploadKey));
+    }
+
+    /**
+     * 写入从 offset 开始的一个分片
+     *
+     * @param checksum 客户端提供的分片 SHA-256，可为空
+     */
+    public UploadSessionResponse writeChunk(Long userId, String uploadKey, long offset, InputStream content,
+                                            String checksum) {
+        UploadSession session = findActiveSession(userId, uploadKey);
+        if (offset < 0 || offset >= session.getFileSize() || offset % session.getChunkSize() != 0) {
+            throw new IllegalArgumentException("分片偏移必须是 " + session.getChunkSize() + " 的整数倍且小于文件大小");
+        }
+        int index = (int) (offset / session.getChunkSize());
+
+        Path partial = fileStorageService.partialFile(uploadKey);
+        String digest = fileStorageService.writeChunk(partial, offset, content, session.chunkLength(index));
+        if (StringUtils.hasText(checksum) && !checksum.trim().equalsIgnoreCase(digest)) {
+            throw new IllegalArgumentException("分片校验失败，请重新上传该分片");
+        }
+
+        // 位图的读改写在写线程中串行执行，并发上传的分片不会互相覆盖
+        return writeDispatcher.execute(() -> {
+            UploadSession current = uploadSessionRepository.findByUploadKey(uploadKey)
+                    .orElseThrow(() -> new ResourceNotFoundException("上传会话不存在或已过期"));
+            current.markChunkReceived(index);
+            current.setExpiresAt(LocalDateTime.now().plus(sessionTtl));
+            return toResponse(uploadSessionRepository.save(current));
+        });
+    }
+
+    /**
+     * 所有分片到齐后校验并存储文件，返回待创建媒体记录的文件信息；会话由调用方在创建媒体记录时删除
+     */
+    public CommittedUpload commit(Long userId, String uploadKey) {
+        UploadSession session = findActiveSession(userId, uploadKey);
+        if (!session.isComplete()) {
+            throw new IllegalArgumentException("还有 " + (session.getChunkCount() - session.getReceivedChunkCount())
+                    + " 个分片未上传");
+        }
+
+        Path partial = fileStorageService.partialLocation().resolve(uploadKey);
+        try {
+            FileStorageService.StoredFile storedFile = fileStorageService.store(partial, session.getOriginalName(),
+                    session.getExpectedSha256());
+            return new CommittedUpload(session, storedFile);
+        } catch (IllegalArgumentException e) {
+            // 完整文件与声明的 SHA-256 不一致，无法定位坏分片，放弃本次会话
+            abort(userId, uploadKey);
+            throw e;
+        }
+    }
+
+    /**
+     * 删除会话记录（在写队列中调用）
+     */
+    public void deleteSession(String uploadKey) {
+        uploadSessionRepository.findByUploadKey(uploadKey).ifPresent(uploadSessionRepository::delete);
+    }
+
+    /**
+     * 取消上传，删除会话和暂存文件
+     */
+    public void abort(Long userId, String uploadKey) {
+        findActiveSession(userId, uploadKey);
+        writeDispatcher.run(() -> deleteSession(uploadKey));
+        deletePartialFile(uploadKey);
+    }
+
+    /**
+     * 清理过期会话及其暂存文件
+     */
+    @Scheduled(fixedDelayString = "${app.media.chunked.cleanup-interval:3600000}",
+            initialDelayString = "${app.media.chunked.cleanup-interval:3600000}")
+    public void purgeExpiredSessions() {
+        List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now(),
+                PageRequest.of(0, cleanupBatchSize));
+        for (UploadSession session : expired) {
+            writeDispatcher.run(() -> uploadSessionRepository.deleteById(session.getId()));
+            deletePartialFile(session.getUploadKey());
+        }
+        if (!expired.isEmpty()) {
+            log.info("已清理 {} 个过期的分片上传会话", expired.size());
+        }
+    }
+
+    private UploadSession findActiveSession(Long userId, String uploadKey) {
+        return uploadSessionRepository.findByUploadKey(uploadKey)
+                .filter(session -> session.getUploadedById().equals(userId))
+                .filter(session -> session.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new ResourceNotFoundException("上传会话不存在或已过期"));
+    }
+
+    private void deletePartialFile(String uploadKey) {
+        try {
+            Files.deleteIfExists(fileStorageService.partialLocation().resolve(uploadKey));
+        } catch (IOException e) {
+            log.warn("删除上传暂存文件 {} 失败: {}", uploadKey, e.getMessage());
+        }
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        List<Long> missingOffsets = new ArrayList<>();
+        for (int i = 0; i < session.getChunkCount(); i++) {
+            if (!session.isChunkReceived(i)) {
+                missingOffsets.add((long) i * session.getChunkSize());
+            }
+        }
+        return UploadSessionResponse.builder()
+                .uploadId(session.getUploadKey())
+                .fileName(session.getOriginalName())
+                .fileSize(session.getFileSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(session.getChunkCount())
+                .receivedChunks(session.getChunkCount() - missingOffsets.size())
+                .missingOffsets(missingOffsets)
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
+    /**
+     * 已提交的上传：会话信息（类型、描述等）和存储后的文件
+     */
+    public record CommittedUpload(UploadSession session, FileStorageService.StoredFile storedFile) {
+    }
+}
@@ -0,0 +1,95 @@
+package wiki.kana.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 已上传文件的内容哈希缓存
+ * 内容块文件名即哈希，直接返回；早期按 UUID 命名的文件首次访问时以固定大小的直接缓冲区流式计算 SHA-256，
+ * 按路径缓存，文件大小或修改时间变化后重新计算。
+ * 超出条目上限时淘汰最久未访问的条目
+ */
+@Slf4j
+@Component
+public class ContentHashCache {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ContentHashCache(@Value("${app.media.hash-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 获取文件内容的 SHA-256（十六进制小写）
+     */
+    public String sha256(Path file) throws IOException {
+        // 内容寻址存储的文件名就是内容哈希，无需读取文件
+        String fileName = file.getFileName().toString();
+        if (FileStorageService.isSha256Hex(fileName)) {
+            return fileName;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            Entry entry = entries.get(file);
+            if (entry != null && entry.size() == size && entry.lastModified() == modified) {
+                return entry.hash();
+            }
+        }
+
+        // 在锁外计算，大文件不阻塞其他请求
+        String hash = computeSha256(file);
+        synchronized (this) {
+            entries.put(file, new Entry(hash, size, modified));
+            if (entries.size() > maxEntries) {
+                Map.Entry<Path, Entry> eldest = entries.entrySet().iterator().next();
+                entries.remove(eldest.getKey());
+            }
+        }
+        return hash;
+    }
+
+    static String computeSha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Entry(String hash, long size, long lastModified) {
+    }
+}
@@ -0,0 +1,144 @@
+package wiki.kana.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 公共内容版本号
+ * 按资源族（文章、分类、标签、作者、站点设置）分别维护版本号，公共读接口只组合自身响应涉及的资源族生成 ETag 和 Last-Modified，
+ * 某一族的变更不会让无关接口的缓存失效。
+ * 实体变更由 ContentRevisionListener 递增；不经过实体的写入（标签使用次数和关联调整、作者资料）由写入方调用 {@link #bump(Family)}。
+ * 浏览量不参与版本号：浏览量写回频繁，计入后文章接口的 ETag 几乎无法命中
+ */
+@Component
+public class ContentRevision {
+
+    /**
+     * 公共内容资源族
+     */
+    public enum Family {
+        POSTS, CATEGORIES, TAGS, AUTHORS, SETTINGS
+    }
+
+    /**
+     * 事务内待提交后递增的资源族
+     */
+    private static final Object TRANSACTION_KEY = new Object();
+
+    /**
+     * 启动标识，重启后版本号从 0 开始也不会与旧 ETag 冲突
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Family, AtomicReference<Stamp>> stamps = new EnumMap<>(Family.class);
+
+    public ContentRevision() {
+        long now = toSeconds(System.currentTimeMillis());
+        for (Family family : Family.values()) {
+            stamps.put(family, new AtomicReference<>(new Stamp(0L, now)));
+        }
+    }
+
+    /**
+     * 获取全部资源族组合后的当前版本
+     */
+    public Snapshot current() {
+        return current(EnumSet.allOf(Family.class));
+    }
+
+    /**
+     * 获取指定资源族组合后的当前版本
+     * ETag 由各族版本号按固定顺序拼接，Last-Modified 取各族最后修改时间的最大值
+     */
+    public Snapshot current(Set<Family> families) {
+        long revision = 0L;
+        long lastModified = 0L;
+        StringBuilder etag = new StringBuilder("\"").append(epoch);
+        for (Family family : Family.values()) {
+            if (!families.contains(family)) {
+                continue;
+            }
+            Stamp stamp = stamps.get(family).get();
+            revision += stamp.revision;
+            lastModified = Math.max(lastModified, stamp.lastModified);
+            etag.append('-').append(Long.toString(stamp.revision, 36));
+        }
+        return new Snapshot(revision, lastModified, etag.append('"').toString());
+    }
+
+    /**
+     * 记录一次内容变更
+     * 在事务中调用时，事务结束后会再次递增，避免并发读取在提交前拿到新版本号却读到旧数据
+     */
+    public void bump(Family family) {
+        increment(family);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Family> pending = (Set<Family>) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (pending == null) {
+            Set<Family> families = EnumSet.noneOf(Family.class);
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, families);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+                    families.forEach(ContentRevision.this::increment);
+                }
+            });
+            pending = families;
+        }
+        pending.add(family);
+    }
+
+    private void increment(Family family) {
+        // Last-Modified 精度为秒，保证每次变更严格递增，仅使用 If-Modified-Since 的客户端也能感知
+        stamps.get(family).updateAndGet(previous -> new Stamp(
+                previous.revision + 1,
+                Math.max(toSeconds(System.currentTimeMillis()), previous.lastModified + 1000L)));
+    }
+
+    private static long toSeconds(long millis) {
+        return millis / 1000L * 1000L;
+    }
+
+    /**
+     * 单个资源族的版本号和最后修改时间
+     */
+    @AllArgsConstructor
+    private static class Stamp {
+        private final long revision;
+        private final long lastModified;
+    }
+
+    /**
+     * 版本快照
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        /**
+         * 组合内各资源族版本号之和，只用于比较新旧
+         */
+        private final long revision;
+        /**
+         * 最后修改时间（毫秒，按秒取整）
+         */
+        private final long lastModified;
+        /**
+         * 强 ETag（含引号）
+         */
+        private final String etag;
+    }
+}
@@ -1,5 +1,9 @@
 package wiki.kana.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,36 +12,84 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import wiki.kana.exception.FileStorageException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
- * 简单文件存储服务
+ * 文件存储服务 - 按内容 SHA-256 寻址，相同内容只存一份
  */
 @Slf4j
 @Service
 public class FileStorageService {
 
+    /**
+     * 隔离区目录（上传目录下），待清理的文件先移入这里，保留期过后才删除
+     */
+    public static final String QUARANTINE_DIR = ".quarantine";
+    /**
+     * 分片上传中的文件目录（上传目录下），提交后移入内容块路径
+     */
+    public static final String PARTIAL_DIR = ".partial";
+    static final String TEMP_FILE_MARKER = ".tmp-";
+
+    private static final int SHA256_HEX_LENGTH = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final Path rootLocation;
     private final String urlPrefix;
+    private final DistributionSummary storedBytes;
+    private final Counter deduplicatedUploads;
+    private final int streamBufferSize;
+    private final BlockingQueue<ByteBuffer> streamBuffers;
 
     public FileStorageService(
             @Value("${app.media.upload-dir:uploads}") String uploadDir,
-            @Value("${app.media.url-prefix:/uploads}") String urlPrefix) {
+            @Value("${app.media.url-prefix:/uploads}") String urlPrefix,
+            @Value("${app.media.upload.buffer-size:65536}") int streamBufferSize,
+            @Value("${app.media.upload.buffer-pool-size:32}") int streamBufferPoolSize,
+            MeterRegistry meterRegistry) {
         this.rootLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
         this.urlPrefix = normalizeUrlPrefix(urlPrefix);
+        this.streamBufferSize = Math.max(4096, streamBufferSize);
+        this.streamBuffers = new ArrayBlockingQueue<>(Math.max(1, streamBufferPoolSize));
+        this.storedBytes = DistributionSummary.builder("konatablog.storage.stored.bytes")
+                .description("Size of files written by FileStorageService.store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.deduplicatedUploads = Counter.builder("konatablog.storage.deduplicated")
+                .description("Uploads whose content already existed on disk and were not written again")
+                .register(meterRegistry);
         initDirectory(this.rootLocation);
     }
 
     /**
      * 存储文件并返回文件信息
+     * <p>
+     * 文件按内容寻址：先流式计算 SHA-256，落盘到 {uploadDir}/ab/cd/{sha256}。
+     * 相同内容已存在时不再写盘，直接返回已有内容块（deduplicated=true）；
+     * 新内容先写入同目录的临时文件，再原子重命名到目标路径，并发上传相同内容也不会读到半个文件
      */
-    public StoredFile store(MultipartFile file, String subDirectory) {
+    @Timed(value = "konatablog.storage.store", histogram = true)
+    public StoredFile store(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new FileStorageException("上传文件不能为空");
         }
@@ -47,6 +99,183 @@ public class FileStorageService {
             originalFilename = file.getName();
         }
 
+        // transferTo(File) 让容器在可能时直接重命名 multipart 临时文件，避免再复制一遍
+        return storeBlob(originalFilename, file.getSize(), file::getInputStream, target -> file.transferTo(target.toFile()));
+    }
+
+    /**
+     * 存储程序生成的内容（如图片衍生图），去重和落盘规则与上传文件相同
+     */
+    @Timed(value = "konatablog.storage.store", histogram = true)
+    public StoredFile store(byte[] content, String filename) {
+        if (content == null || content.length == 0) {
+            throw new FileStorageException("文件内容不能为空");
+        }
+        return storeBlob(filename, content.length, () -> new ByteArrayInputStream(content),
+                target -> Files.write(target, content));
+    }
+
+    /**
+     * 从请求体流式存储上传文件，只读一遍、写一遍
+     * <p>
+     * 内容经固定大小的直接缓冲区边读边计算 SHA-256，写入上传目录下的临时文件，读完后按哈希原子重命名到
+     * 内容块路径；相同内容已存在时删除临时文件。超过 maxSize 时立即停止读取并删除临时文件
+     *
+     * @throws IllegalArgumentException 内容为空或超过 maxSize
+     */
+    @Timed(value = "konatablog.storage.store", histogram = true)
+    public StoredFile store(InputStream content, String filename, long maxSize) {
+        String originalFilename = StringUtils.getFilename(filename);
+        if (!StringUtils.hasText(originalFilename)) {
+            originalFilename = "file";
+        }
+
+        Path tempFile = rootLocation.resolve("upload" + TEMP_FILE_MARKER + UUID.randomUUID().toString().replace("-", ""));
+        MessageDigest digest = ContentHashCache.newSha256();
+        ByteBuffer buffer = acquireStreamBuffer();
+        long size = 0;
+        try {
+            try (ReadableByteChannel source = Channels.newChannel(content);
+                 FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (true) {
+                    buffer.clear();
+                    int read = source.read(buffer);
+                    if (read == -1) {
+                        break;
+                    }
+                    size += read;
+                    if (size > maxSize) {
+                        throw new IllegalArgumentException(sizeLimitMessage(maxSize));
+                    }
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                }
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("上传文件不能为空");
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            // 临时文件与内容块在同一文件系统，落位只是重命名
+            return storeBlob(originalFilename, size, sha256, target -> Files.move(tempFile, target));
+        } catch (IOException e) {
+            log.error("Failed to receive uploaded file {}", originalFilename, e);
+            throw new FileStorageException("文件接收失败，请稍后再试", e);
+        } finally {
+            releaseStreamBuffer(buffer);
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary upload {}", tempFile, e);
+            }
+        }
+    }
+
+    /**
+     * 在 position 处写入一个分片，返回分片内容的 SHA-256
+     * <p>
+     * 使用定位写，不同分片可以并发写入同一文件；写完后 force 到磁盘，再由调用方记录分片已接收
+     *
+     * @throws IllegalArgumentException 内容长度不等于 length
+     */
+    public String writeChunk(Path file, long position, InputStream content, long length) {
+        MessageDigest digest = ContentHashCache.newSha256();
+        ByteBuffer buffer = acquireStreamBuffer();
+        long written = 0;
+        try (ReadableByteChannel source = Channels.newChannel(content);
+             FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (true) {
+                buffer.clear();
+                int read = source.read(buffer);
+                if (read == -1) {
+                    break;
+                }
+                if (written + read > length) {
+                    throw new IllegalArgumentException("分片长度超过 " + length + " 字节");
+                }
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer, position + written);
+                }
+            }
+            if (written != length) {
+                throw new IllegalArgumentException("分片不完整，应为 " + length + " 字节，实际 " + written + " 字节");
+            }
+            target.force(false);
+        } catch (IOException e) {
+            log.error("Failed to write chunk at {} of {}", position, file.getFileName(), e);
+            throw new FileStorageException("分片写入失败，请重试", e);
+        } finally {
+            releaseStreamBuffer(buffer);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 存储已完整落盘的文件（如分片上传组装完成的文件），文件被移入内容块路径或在去重时删除
+     *
+     * @param expectedSha256 客户端声明的 SHA-256，不为空时不一致则拒绝且保留原文件
+     * @throws IllegalArgumentException 内容与 expectedSha256 不一致
+     */
+    @Timed(value = "konatablog.storage.store", histogram = true)
+    public StoredFile store(Path stagedFile, String filename, String expectedSha256) {
+        long size;
+        try {
+            size = Files.size(stagedFile);
+        } catch (IOException e) {
+            throw new FileStorageException("文件读取失败，请稍后再试", e);
+        }
+        String sha256 = hash(stagedFile, filename);
+        if (StringUtils.hasText(expectedSha256) && !expectedSha256.equalsIgnoreCase(sha256)) {
+            throw new IllegalArgumentException("文件校验失败，SHA-256 不一致");
+        }
+
+        StoredFile storedFile = storeBlob(filename, size, sha256, target -> Files.move(stagedFile, target));
+        try {
+            Files.deleteIfExists(stagedFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged file {}", stagedFile, e);
+        }
+        return storedFile;
+    }
+
+    /**
+     * 分片上传的暂存文件路径，文件不存在时创建空文件
+     */
+    public Path partialFile(String uploadKey) {
+        Path file = partialLocation().resolve(uploadKey).normalize();
+        if (!file.startsWith(partialLocation())) {
+            throw new IllegalArgumentException("无效的上传ID");
+        }
+        initDirectory(partialLocation());
+        try {
+            if (!Files.exists(file)) {
+                Files.createFile(file);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // 并发创建，文件已存在即可
+        } catch (IOException e) {
+            throw new FileStorageException("无法创建上传暂存文件", e);
+        }
+        return file;
+    }
+
+    /**
+     * 分片上传暂存目录
+     */
+    public Path partialLocation() {
+        return rootLocation.resolve(PARTIAL_DIR);
+    }
+
+    private StoredFile storeBlob(String originalFilename, long size, ContentSource source, ContentWriter writer) {
+        return storeBlob(originalFilename, size, hash(source, originalFilename), writer);
+    }
+
+    private StoredFile storeBlob(String originalFilename, long size, String sha256, ContentWriter writer) {
         String extension = StringUtils.getFilenameExtension(originalFilename);
         if (extension != null) {
             extension = extension.toLowerCase();
@@ -61,31 +290,245 @@ public class FileStorageService {
             sanitizedBaseName = "file";
         }
 
+        // 逻辑文件名对每次上传唯一（media.file_name），物理文件按内容共用
         String uniqueSuffix = UUID.randomUUID().toString().replace("-", "");
         String storedFileName = sanitizedBaseName + "_" + uniqueSuffix + (StringUtils.hasText(extension) ? "." + extension : "");
 
-        Path targetDir = resolveTargetDirectory(subDirectory);
-        Path destinationFile = targetDir.resolve(storedFileName).normalize();
+        String storagePath = blobPath(sha256);
+        Path destinationFile = rootLocation.resolve(storagePath).normalize();
+
+        boolean deduplicated = Files.isRegularFile(destinationFile) && sizeMatches(destinationFile, size);
+        if (deduplicated) {
+            deduplicatedUploads.increment();
+            log.debug("Upload {} matches existing blob {}", originalFilename, sha256);
+        } else {
+            writeBlob(writer, destinationFile, originalFilename);
+            storedBytes.record(size);
+        }
+
+        String publicUrl = urlPrefix + "/" + storagePath + (StringUtils.hasText(extension) ? "." + extension : "");
+        return new StoredFile(originalFilename, storedFileName, extension, size, destinationFile, publicUrl,
+                sha256, storagePath, deduplicated);
+    }
 
-        try (InputStream inputStream = file.getInputStream()) {
-            Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * 按公开 URL 中前缀之后的相对路径定位已存储的文件
+     * 请求的扩展名必须与媒体记录登记的扩展名一致（内容块 URL 只接受 {sha256}.{登记的扩展名}），
+     * 路径越出上传目录、扩展名不一致或文件不存在时返回 empty
+     *
+     * @param recordedExtension 媒体记录登记的扩展名，可带或不带前导点，为空表示没有扩展名
+     */
+    public Optional<Path> resolveStoredFile(String relativePath, String recordedExtension) {
+        if (!StringUtils.hasText(relativePath)) {
+            return Optional.empty();
+        }
+        String normalized = relativePath.replace("\\", "/");
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        Path resolved = rootLocation.resolve(normalized).normalize();
+        if (!resolved.startsWith(rootLocation) || resolved.startsWith(quarantineLocation())
+                || resolved.startsWith(partialLocation()) || resolved.getFileName().toString().contains(TEMP_FILE_MARKER)) {
+            return Optional.empty();
+        }
+        String fileName = resolved.getFileName().toString();
+        if (!hasRecordedExtension(fileName, recordedExtension)) {
+            return Optional.empty();
+        }
+        if (!Files.isRegularFile(resolved)) {
+            // 内容块的公开 URL 带登记的扩展名，磁盘上的文件名只有哈希
+            int dot = fileName.indexOf('.');
+            if (dot != SHA256_HEX_LENGTH || !isSha256Hex(fileName.substring(0, dot))) {
+                return Optional.empty();
+            }
+            resolved = resolved.resolveSibling(fileName.substring(0, dot));
+            if (!Files.isRegularFile(resolved)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(resolved);
+    }
+
+    private static boolean hasRecordedExtension(String fileName, String recordedExtension) {
+        String expected = StringUtils.hasText(recordedExtension)
+                ? StringUtils.trimLeadingCharacter(recordedExtension.trim(), '.')
+                : "";
+        String actual = StringUtils.getFilenameExtension(fileName);
+        return expected.isEmpty() ? actual == null : expected.equalsIgnoreCase(actual);
+    }
+
+    /**
+     * 将文件移入隔离区（保持相对路径），修改时间记为隔离时间
+     *
+     * @return 隔离区中的路径
+     */
+    public Path quarantine(Path file) throws IOException {
+        Path relative = rootLocation.relativize(file.toAbsolutePath().normalize());
+        Path target = quarantineLocation().resolve(relative).normalize();
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+        return target;
+    }
+
+    /**
+     * 内容块文件缺失时尝试从隔离区恢复（上传去重命中了刚被隔离的内容块）
+     *
+     * @return 文件是否存在于存储路径
+     */
+    public boolean ensureBlobPresent(String storagePath) {
+        Path target = rootLocation.resolve(storagePath).normalize();
+        if (Files.isRegularFile(target)) {
+            return true;
+        }
+        Path quarantined = quarantineLocation().resolve(storagePath).normalize();
+        if (!Files.isRegularFile(quarantined)) {
+            return false;
+        }
+        try {
+            initDirectory(target.getParent());
+            Files.move(quarantined, target, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Restored blob {} from quarantine", storagePath);
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to restore blob {} from quarantine", storagePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * 上传根目录
+     */
+    public Path getRootLocation() {
+        return rootLocation;
+    }
+
+    /**
+     * 隔离区目录
+     */
+    public Path quarantineLocation() {
+        return rootLocation.resolve(QUARANTINE_DIR);
+    }
+
+    /**
+     * 内容块相对上传目录的存储路径：ab/cd/{sha256}
+     */
+    public static String blobPath(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    static boolean isSha256Hex(String value) {
+        if (value.length() != SHA256_HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 公开访问 URL 前缀（如 /uploads）
+     */
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    private String hash(Path file, String originalFilename) {
+        MessageDigest digest = ContentHashCache.newSha256();
+        ByteBuffer buffer = acquireStreamBuffer();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (true) {
+                buffer.clear();
+                if (channel.read(buffer) == -1) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer);
+            }
+        } catch (IOException e) {
+            log.error("Failed to read file {}", originalFilename, e);
+            throw new FileStorageException("文件读取失败，请稍后再试", e);
+        } finally {
+            releaseStreamBuffer(buffer);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String hash(ContentSource source, String originalFilename) {
+        MessageDigest digest = ContentHashCache.newSha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = source.open()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            log.error("Failed to read uploaded file {}", originalFilename, e);
+            throw new FileStorageException("文件读取失败，请稍后再试", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void writeBlob(ContentWriter writer, Path destinationFile, String originalFilename) {
+        initDirectory(destinationFile.getParent());
+        Path tempFile = destinationFile.resolveSibling(destinationFile.getFileName() + TEMP_FILE_MARKER
+                + UUID.randomUUID().toString().replace("-", ""));
+        try {
+            writer.writeTo(tempFile);
+            try {
+                Files.move(tempFile, destinationFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             log.error("Failed to store file {}", originalFilename, e);
             throw new FileStorageException("文件保存失败，请稍后再试", e);
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary upload {}", tempFile, e);
+            }
         }
+    }
 
-        String publicUrl = buildPublicUrl(subDirectory, storedFileName);
-        return new StoredFile(originalFilename, storedFileName, extension, file.getSize(), destinationFile, publicUrl);
+    /**
+     * 直接缓冲区在堆外复用，写 FileChannel 时不再经过 JDK 的临时直接缓冲区；池空时临时分配
+     */
+    private ByteBuffer acquireStreamBuffer() {
+        ByteBuffer buffer = streamBuffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(streamBufferSize);
     }
 
-    private Path resolveTargetDirectory(String subDirectory) {
-        if (!StringUtils.hasText(subDirectory)) {
-            initDirectory(rootLocation);
-            return rootLocation;
+    private void releaseStreamBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        streamBuffers.offer(buffer);
+    }
+
+    static String sizeLimitMessage(long maxSize) {
+        return "文件大小不能超过" + formatSize(maxSize);
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes >= 1024 * 1024 && bytes % (1024 * 1024) == 0) {
+            return bytes / (1024 * 1024) + "MB";
+        }
+        if (bytes >= 1024 && bytes % 1024 == 0) {
+            return bytes / 1024 + "KB";
+        }
+        return bytes + " 字节";
+    }
+
+    private boolean sizeMatches(Path file, long expectedSize) {
+        try {
+            return Files.size(file) == expectedSize;
+        } catch (IOException e) {
+            return false;
         }
-        Path targetDir = rootLocation.resolve(subDirectory).normalize();
-        initDirectory(targetDir);
-        return targetDir;
     }
 
     private void initDirectory(Path directory) {
@@ -97,16 +540,6 @@ public class FileStorageService {
         }
     }
 
-    private String buildPublicUrl(String subDirectory, String storedFileName) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(urlPrefix);
-        if (StringUtils.hasText(subDirectory)) {
-            builder.append("/").append(subDirectory.replace("\\", "/"));
-        }
-        builder.append("/").append(storedFileName);
-        return builder.toString();
-    }
-
     private String normalizeUrlPrefix(String prefix) {
         if (!StringUtils.hasText(prefix)) {
             return "";
@@ -121,6 +554,16 @@ public class FileStorageService {
         return normalized;
     }
 
+    @FunctionalInterface
+    private interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ContentWriter {
+        void writeTo(Path target) throws IOException;
+    }
+
     /**
      * 已存储的文件信息
      */
@@ -132,19 +575,28 @@ public class FileStorageService {
         private final long size;
         private final Path absolutePath;
         private final String publicUrl;
+        private final String sha256;
+        private final String storagePath;
+        private final boolean deduplicated;
 
         public StoredFile(String originalFilename,
                           String storedFilename,
                           String extension,
                           long size,
                           Path absolutePath,
-                          String publicUrl) {
+                          String publicUrl,
+                          String sha256,
+                          String storagePath,
+                          boolean deduplicated) {
             this.originalFilename = originalFilename;
             this.storedFilename = storedFilename;
             this.extension = extension;
             this.size = size;
             this.absolutePath = absolutePath;
             this.publicUrl = publicUrl;
+            this.sha256 = sha256;
+            this.storagePath = storagePath;
+            this.deduplicated = deduplicated;
         }
     }
 }
@@ -0,0 +1,310 @@
+package wiki.kana.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import wiki.kana.entity.Media;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图片衍生图生成服务
+ * <p>
+ * 上传时只读取图片头获取宽高；原图解码、缩放和编码在固定大小的后台线程池中进行，
+ * 每张图片只解码一次，按配置的宽度从大到小逐级缩放生成响应式尺寸。衍生图按内容寻址存储，
+ * 以 THUMBNAIL 类型的媒体记录关联到原图，由写队列统一写库。
+ * <p>
+ * 运行时存在 WebP 编码器（ImageIO 插件）时输出 WebP，否则不透明图片输出 JPEG、带透明通道的输出 PNG。
+ * 队列已满时丢弃任务并计数，衍生图只影响页面加载体积，不影响原图可用性
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    private static final String WEBP = "webp";
+
+    private final FileStorageService fileStorageService;
+    private final MediaService mediaService;
+    private final WriteDispatcher writeDispatcher;
+
+    private final boolean enabled;
+    private final List<Integer> widths;
+    private final int workers;
+    private final int queueCapacity;
+    private final float quality;
+    private final long maxPixels;
+    private final boolean webpAvailable;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder renditions = new LongAdder();
+
+    public ImageDerivativeService(FileStorageService fileStorageService,
+                                  MediaService mediaService,
+                                  WriteDispatcher writeDispatcher,
+                                  @Value("${app.media.derivatives.enabled:true}") boolean enabled,
+                                  @Value("${app.media.derivatives.widths:320,640,1280}") List<Integer> widths,
+                                  @Value("${app.media.derivatives.workers:2}") int workers,
+                                  @Value("${app.media.derivatives.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.media.derivatives.quality:0.82}") float quality,
+                                  @Value("${app.media.derivatives.max-pixels:40000000}") long maxPixels) {
+        this.fileStorageService = fileStorageService;
+        this.mediaService = mediaService;
+        this.writeDispatcher = writeDispatcher;
+        this.enabled = enabled;
+        this.widths = widths.stream()
+                .filter(width -> width != null && width > 0)
+                .distinct()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        this.workers = Math.max(1, workers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+        this.webpAvailable = ImageIO.getImageWritersByFormatName(WEBP).hasNext();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("图片衍生图生成已关闭");
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-derivative-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("图片衍生图生成已启动，宽度: {}，线程数: {}，输出格式: {}",
+                widths, workers, webpAvailable ? WEBP : "jpg/png");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 只读取图片头获取宽高，不解码像素；无法识别的格式返回 empty
+     */
+    public Optional<ImageSize> readDimensions(Path file) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return Optional.empty();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return Optional.of(new ImageSize(reader.getWidth(0), reader.getHeight(0)));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.debug("无法读取图片尺寸 {}: {}", file.getFileName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 提交衍生图生成任务，媒体记录需已提交
+     *
+     * @return 任务是否进入队列
+     */
+    public boolean schedule(Long mediaId, Media.MediaType type, String originalName, Path sourceFile) {
+        if (executor == null || widths.isEmpty() || !isResizable(type, originalName)) {
+            return false;
+        }
+        String baseName = StringUtils.stripFilenameExtension(originalName);
+        try {
+            executor.execute(() -> generate(mediaId, sourceFile, baseName));
+            scheduled.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("衍生图队列已满，跳过媒体 {}", mediaId);
+            return false;
+        }
+    }
+
+    public Stats stats() {
+        return Stats.builder()
+                .queueSize(executor != null ? executor.getQueue().size() : 0)
+                .scheduled(scheduled.sum())
+                .rejected(rejected.sum())
+                .completed(completed.sum())
+                .failed(failed.sum())
+                .renditions(renditions.sum())
+                .build();
+    }
+
+    private boolean isResizable(Media.MediaType type, String originalName) {
+        if (type != Media.MediaType.IMAGE && type != Media.MediaType.BANNER) {
+            return false;
+        }
+        // GIF 缩放后会丢失动画，保留原图
+        String extension = StringUtils.getFilenameExtension(originalName);
+        return extension == null || !"gif".equals(extension.toLowerCase(Locale.ENGLISH));
+    }
+
+    private void generate(Long mediaId, Path sourceFile, String baseName) {
+        try {
+            Optional<ImageSize> size = readDimensions(sourceFile);
+            if (size.isEmpty() || (long) size.get().width() * size.get().height() > maxPixels) {
+                log.debug("媒体 {} 不是可缩放的图片或像素过多，跳过衍生图", mediaId);
+                completed.increment();
+                return;
+            }
+
+            BufferedImage source = ImageIO.read(sourceFile.toFile());
+            if (source == null) {
+                completed.increment();
+                return;
+            }
+
+            List<Rendition> generated = renderAll(source, baseName);
+            if (!generated.isEmpty()) {
+                writeDispatcher.run(() -> {
+                    Media original = mediaService.findById(mediaId);
+                    generated.forEach(rendition -> mediaService.createThumbnail(
+                            original, rendition.storedFile(), rendition.width(), rendition.height()));
+                });
+                renditions.add(generated.size());
+            }
+            completed.increment();
+            log.debug("媒体 {} 已生成 {} 个衍生图", mediaId, generated.size());
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("媒体 {} 衍生图生成失败: {}", mediaId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从大到小逐级缩放，每一级以上一级为输入，避免每个尺寸都从原图缩放
+     */
+    private List<Rendition> renderAll(BufferedImage source, String baseName) throws IOException {
+        boolean alpha = source.getColorModel().hasAlpha();
+        String format = webpAvailable ? WEBP : (alpha ? "png" : "jpg");
+
+        List<Rendition> result = new ArrayList<>();
+        BufferedImage current = source;
+        for (int width : widths) {
+            if (width >= source.getWidth()) {
+                continue;
+            }
+            int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+            current = resize(current, width, height, alpha);
+            byte[] encoded = encode(current, format);
+            FileStorageService.StoredFile stored = fileStorageService.store(encoded, baseName + "_" + width + "w." + format);
+            result.add(new Rendition(stored, width, height));
+        }
+        return result;
+    }
+
+    /**
+     * 每次最多缩小一半的多步双线性缩放，大比例缩小时比一次缩放清晰
+     */
+    static BufferedImage resize(BufferedImage source, int targetWidth, int targetHeight, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!"png".equals(format) && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] compressionTypes = param.getCompressionTypes();
+                if (param.getCompressionType() == null && compressionTypes != null && compressionTypes.length > 0) {
+                    param.setCompressionType(compressionTypes[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 图片尺寸
+     */
+    public record ImageSize(int width, int height) {
+    }
+
+    private record Rendition(FileStorageService.StoredFile storedFile, int width, int height) {
+    }
+
+    @Getter
+    @Builder
+    public static class Stats {
+        private final int queueSize;
+        private final long scheduled;
+        private final long rejected;
+        private final long completed;
+        private final long failed;
+        private final long renditions;
+    }
+}
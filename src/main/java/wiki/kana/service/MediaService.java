@@ -1,33 +1,57 @@
 package wiki.kana.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import wiki.kana.entity.Media;
+import wiki.kana.entity.MediaBlob;
 import wiki.kana.entity.User;
 import wiki.kana.exception.DuplicateResourceException;
+import wiki.kana.exception.FileStorageException;
 import wiki.kana.exception.ResourceNotFoundException;
+import wiki.kana.repository.MediaBlobRepository;
 import wiki.kana.repository.MediaRepository;
+import wiki.kana.repository.MediaSpecifications;
 import wiki.kana.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * 媒体文件管理服务
  */
 @Slf4j
 @Service
+@Timed("konatablog.service")
 @RequiredArgsConstructor
 @Transactional
 public class MediaService {
 
     private final MediaRepository mediaRepository;
+    private final MediaBlobRepository mediaBlobRepository;
     private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+
+    /**
+     * 单个媒体文件大小上限（字节），分片上传的文件同样受此限制
+     */
+    @Value("${app.media.max-file-size:2147483648}")
+    private long maxFileSize = 2L * 1024 * 1024 * 1024;
 
     // ==================== CRUD 操作 ====================
 
@@ -51,6 +75,14 @@ public class MediaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Media not found with filename: " + fileName));
     }
 
+    /**
+     * 根据公开访问路径查找媒体记录，文件访问接口据此确定响应类型
+     */
+    @Transactional(readOnly = true)
+    public Optional<Media> findByLocalUrl(String localUrl) {
+        return mediaRepository.findFirstByLocalUrl(localUrl);
+    }
+
     /**
      * 查找所有媒体
      */
@@ -60,6 +92,24 @@ public class MediaService {
         return mediaRepository.findAll();
     }
 
+    /**
+     * 分页查询媒体库，过滤、排序和分页都在数据库完成
+     *
+     * @param type         媒体类型，为空时不按类型过滤并排除衍生图
+     * @param uploadedById 上传者ID，为空时不过滤
+     */
+    @Transactional(readOnly = true)
+    public Page<Media> searchMedia(Media.MediaType type, Long uploadedById, Pageable pageable) {
+        log.debug("分页查询媒体 - 类型: {}, 上传者: {}, 分页: {}", type, uploadedById, pageable);
+        List<Specification<Media>> conditions = new ArrayList<>(List.of(
+                MediaSpecifications.hasType(type),
+                MediaSpecifications.uploadedBy(uploadedById)));
+        if (type == null) {
+            conditions.add(MediaSpecifications.isOriginal());
+        }
+        return mediaRepository.findAll(Specification.allOf(conditions), pageable);
+    }
+
     /**
      * 根据媒体类型查找
      */
@@ -109,6 +159,28 @@ public class MediaService {
         return savedMedia;
     }
 
+    /**
+     * 为已存储的上传文件创建媒体记录，并引用对应的内容块（引用计数 +1）
+     */
+    public Media createMedia(Media media, Long uploadedById, FileStorageService.StoredFile storedFile) {
+        MediaBlob blob = mediaBlobRepository.findBySha256(storedFile.getSha256())
+                .orElseGet(() -> MediaBlob.builder()
+                        .sha256(storedFile.getSha256())
+                        .storagePath(storedFile.getStoragePath())
+                        .fileSize(storedFile.getSize())
+                        .build());
+        // 去重命中的内容块可能刚被存储清理隔离，写库前确认文件仍在
+        if (!fileStorageService.ensureBlobPresent(storedFile.getStoragePath())) {
+            throw new FileStorageException("文件已被清理，请重新上传");
+        }
+        blob.setRefCount(blob.getRefCount() + 1);
+        media.setBlob(mediaBlobRepository.save(blob));
+
+        Media savedMedia = createMedia(media, uploadedById);
+        log.debug("媒体 {} 引用内容块 {}，引用数 {}", savedMedia.getId(), blob.getSha256(), blob.getRefCount());
+        return savedMedia;
+    }
+
     /**
      * 更新媒体信息
      */
@@ -155,9 +227,12 @@ public class MediaService {
 
         Media media = findById(id);
 
-        // 在实际应用中，这里应该删除物理文件
-        // deletePhysicalFile(media.getFileName());
+        // 衍生图随原图删除
+        List<Media> renditions = mediaRepository.findBySourceMediaId(id);
+        renditions.forEach(this::releaseBlob);
+        mediaRepository.deleteAll(renditions);
 
+        releaseBlob(media);
         mediaRepository.deleteById(id);
         log.info("媒体 ID: {} 已删除", id);
     }
@@ -184,24 +259,39 @@ public class MediaService {
     }
 
     /**
-     * 创建缩略图
+     * 为原图创建衍生图记录（缩略图、响应式尺寸），引用已存储的内容块
      */
-    public Media createThumbnail(Media originalMedia, String thumbnailFileName, int width, int height) {
-        log.info("创建缩略图: {} -> {}", originalMedia.getFileName(), thumbnailFileName);
+    public Media createThumbnail(Media originalMedia, FileStorageService.StoredFile storedFile, int width, int height) {
+        log.info("创建缩略图: {} -> {} ({}x{})", originalMedia.getFileName(), storedFile.getStoredFilename(), width, height);
 
         Media thumbnail = Media.builder()
-                .originalName(originalMedia.getOriginalName() + "_thumb")
-                .fileName(thumbnailFileName)
-                .fileExtension(originalMedia.getFileExtension())
-                .fileSize(calculateThumbnailSize(originalMedia.getFileSize()))
+                .originalName(originalMedia.getOriginalName() + "_" + width + "w")
+                .fileName(storedFile.getStoredFilename())
+                .fileExtension(storedFile.getExtension())
+                .fileSize(storedFile.getSize())
+                .localUrl(storedFile.getPublicUrl())
                 .width(width)
                 .height(height)
                 .type(Media.MediaType.THUMBNAIL)
-                .uploadedBy(originalMedia.getUploadedBy())
-                .description("Thumbnail of " + originalMedia.getDescription())
+                .altText(originalMedia.getAltText())
+                .description("Thumbnail of " + originalMedia.getOriginalName())
+                .sourceMedia(originalMedia)
                 .build();
 
-        return mediaRepository.save(thumbnail);
+        return createMedia(thumbnail, originalMedia.getUploadedBy().getId(), storedFile);
+    }
+
+    /**
+     * 批量查询衍生图，按原图ID分组，组内按宽度升序
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<Media>> findRenditions(Collection<Long> sourceMediaIds) {
+        if (sourceMediaIds == null || sourceMediaIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return mediaRepository.findRenditions(sourceMediaIds).stream()
+                .collect(Collectors.groupingBy(media -> media.getSourceMedia().getId(),
+                        LinkedHashMap::new, Collectors.toList()));
     }
 
     // ==================== 搜索和过滤 ====================
@@ -287,6 +377,17 @@ public class MediaService {
         return fileName;
     }
 
+    /**
+     * 物理文件由内容块共享，这里只释放引用；引用数归零的内容块由 {@link MediaStorageReconciler} 在宽限期后回收
+     */
+    private void releaseBlob(Media media) {
+        MediaBlob blob = media.getBlob();
+        if (blob != null) {
+            blob.setRefCount(Math.max(0, blob.getRefCount() - 1));
+            mediaBlobRepository.save(blob);
+        }
+    }
+
     /**
      * 验证媒体文件
      */
@@ -311,17 +412,17 @@ public class MediaService {
             throw new IllegalArgumentException("Media type is required");
         }
 
-        // 验证文件大小限制 (10MB)
-        if (media.getFileSize() > 10 * 1024 * 1024) {
-            throw new IllegalArgumentException("File size exceeds maximum limit of 10MB");
+        // 验证文件大小限制（app.media.max-file-size）
+        if (media.getFileSize() > maxFileSize) {
+            throw new IllegalArgumentException("File size exceeds maximum limit of " + maxFileSize + " bytes");
         }
     }
 
     /**
-     * 计算缩略图大小（约原始文件的1/10）
+     * 单个媒体文件大小上限（字节）
      */
-    private Long calculateThumbnailSize(Long originalSize) {
-        return originalSize / 10;
+    public long getMaxFileSize() {
+        return maxFileSize;
     }
 
     /**
@@ -0,0 +1,489 @@
+package wiki.kana.service;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wiki.kana.entity.MediaBlob;
+import wiki.kana.repository.MediaBlobRepository;
+import wiki.kana.repository.MediaRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 媒体存储清理与对账
+ * <p>
+ * 定时增量执行，每轮各阶段最多处理 batch-size 条，游标保存在内存中，下一轮从上次停下的位置继续：
+ * <ol>
+ *     <li>引用数为 0 且超过宽限期的内容块：按 media.blob_id 复核引用数，确认无引用后文件移入隔离区并删除记录</li>
+ *     <li>media 记录：文件缺失的记录默认只计数并告警；开启 remove-missing-rows 后，删除未被 post_media、
+ *     posts.banner_media_id 和正文引用的记录，但本批缺失比例超过 max-missing-percent 时整批放弃删除
+ *     （通常是上传目录未挂载或路径配置错误，而不是文件真的丢了）</li>
+ *     <li>上传目录：遗留的临时文件直接删除；没有对应内容块或媒体记录的文件移入隔离区</li>
+ *     <li>隔离区：超过保留期的文件删除，计入回收字节数</li>
+ * </ol>
+ * 文章正文、头像和站点设置中仍出现的文件不会被隔离。这类正文检查需要全表扫描，在读连接上于写队列之外完成；
+ * 修改数据库和移动文件的操作经写队列执行，与上传写库互斥，写线程内只复核引用数、记录是否存在等走索引的条件。
+ * 上传去重命中已隔离的内容块时由 {@link FileStorageService#ensureBlobPresent} 恢复。
+ * 每次文件操作后按 max-files-per-second 暂停，避免清理 I/O 影响请求延迟
+ */
+@Slf4j
+@Component
+public class MediaStorageReconciler {
+
+    private static final String CONTENT_REFERENCE_SQL =
+            "SELECT EXISTS(SELECT 1 FROM posts WHERE instr(content, ?) > 0)"
+                    + " OR EXISTS(SELECT 1 FROM users WHERE instr(avatar_url, ?) > 0)"
+                    + " OR EXISTS(SELECT 1 FROM settings WHERE instr(config_value, ?) > 0)";
+    private static final String POST_REFERENCE_SQL =
+            "SELECT EXISTS(SELECT 1 FROM post_media WHERE media_id = ?)"
+                    + " OR EXISTS(SELECT 1 FROM posts WHERE banner_media_id = ?)";
+
+    private final FileStorageService fileStorageService;
+    private final MediaService mediaService;
+    private final MediaRepository mediaRepository;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final WriteDispatcher writeDispatcher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration gracePeriod;
+    private final Duration quarantineRetention;
+    private final long pauseNanos;
+    private final boolean removeMissingRows;
+    private final int maxMissingPercent;
+
+    private long blobCursor;
+    private long mediaCursor;
+    private String directoryCursor;
+    private int fileOffset;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder scannedFiles = new LongAdder();
+    private final LongAdder scannedRows = new LongAdder();
+    private final LongAdder quarantinedFiles = new LongAdder();
+    private final LongAdder deletedFiles = new LongAdder();
+    private final LongAdder reclaimedBytes = new LongAdder();
+    private final LongAdder removedRows = new LongAdder();
+    private final LongAdder missingFiles = new LongAdder();
+
+    public MediaStorageReconciler(FileStorageService fileStorageService,
+                                  MediaService mediaService,
+                                  MediaRepository mediaRepository,
+                                  MediaBlobRepository mediaBlobRepository,
+                                  WriteDispatcher writeDispatcher,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.media.gc.enabled:true}") boolean enabled,
+                                  @Value("${app.media.gc.batch-size:200}") int batchSize,
+                                  @Value("${app.media.gc.grace-period:PT1H}") Duration gracePeriod,
+                                  @Value("${app.media.gc.quarantine-retention:P7D}") Duration quarantineRetention,
+                                  @Value("${app.media.gc.max-files-per-second:50}") int maxFilesPerSecond,
+                                  @Value("${app.media.gc.remove-missing-rows:false}") boolean removeMissingRows,
+                                  @Value("${app.media.gc.max-missing-percent:10}") int maxMissingPercent) {
+        this.fileStorageService = fileStorageService;
+        this.mediaService = mediaService;
+        this.mediaRepository = mediaRepository;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.writeDispatcher = writeDispatcher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.gracePeriod = gracePeriod;
+        this.quarantineRetention = quarantineRetention;
+        this.pauseNanos = maxFilesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxFilesPerSecond : 0L;
+        this.removeMissingRows = removeMissingRows;
+        this.maxMissingPercent = Math.max(0, maxMissingPercent);
+    }
+
+    @Scheduled(fixedDelayString = "${app.media.gc.interval:600000}",
+            initialDelayString = "${app.media.gc.initial-delay:300000}")
+    public void scheduledRun() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * 执行一轮清理，返回本轮统计
+     */
+    public synchronized RunReport reconcile() {
+        long start = System.nanoTime();
+        RunReport report = new RunReport();
+        try {
+            sweepUnreferencedBlobs(report);
+            sweepMediaRows(report);
+            sweepUploadDirectory(report);
+            purgeQuarantine(report);
+        } catch (Exception e) {
+            log.warn("存储清理中断，下一轮继续: {}", e.getMessage(), e);
+        }
+
+        runs.increment();
+        scannedFiles.add(report.scannedFiles);
+        scannedRows.add(report.scannedRows);
+        quarantinedFiles.add(report.quarantinedFiles);
+        deletedFiles.add(report.deletedFiles);
+        reclaimedBytes.add(report.reclaimedBytes);
+        removedRows.add(report.removedRows);
+        missingFiles.add(report.missingFiles);
+
+        if (report.quarantinedFiles + report.deletedFiles + report.removedRows + report.missingFiles > 0) {
+            log.info("存储清理完成 - 扫描文件:{}, 扫描记录:{}, 隔离:{}, 删除:{}, 回收 {} 字节, 删除记录:{}, 文件缺失:{}, 耗时 {} ms",
+                    report.scannedFiles, report.scannedRows, report.quarantinedFiles, report.deletedFiles,
+                    report.reclaimedBytes, report.removedRows, report.missingFiles,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return report;
+    }
+
+    public Stats stats() {
+        return Stats.builder()
+                .runs(runs.sum())
+                .scannedFiles(scannedFiles.sum())
+                .scannedRows(scannedRows.sum())
+                .quarantinedFiles(quarantinedFiles.sum())
+                .deletedFiles(deletedFiles.sum())
+                .reclaimedBytes(reclaimedBytes.sum())
+                .removedRows(removedRows.sum())
+                .missingFiles(missingFiles.sum())
+                .build();
+    }
+
+    // ==================== 内容块 ====================
+
+    private void sweepUnreferencedBlobs(RunReport report) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        List<MediaBlob> candidates = mediaBlobRepository.findUnreferenced(cutoff, blobCursor, PageRequest.of(0, batchSize));
+        for (MediaBlob candidate : candidates) {
+            report.scannedRows++;
+            blobCursor = candidate.getId();
+            if (isReferencedByContent(candidate.getSha256())) {
+                continue;
+            }
+            Boolean quarantined = writeDispatcher.execute(() -> quarantineBlob(candidate.getId()));
+            if (Boolean.TRUE.equals(quarantined)) {
+                report.quarantinedFiles++;
+            }
+            throttle();
+        }
+        if (candidates.size() < batchSize) {
+            blobCursor = 0;
+        }
+    }
+
+    /**
+     * 在写线程中复核引用数，仍无引用时隔离文件并删除内容块记录（正文引用已在写队列外检查）
+     */
+    private boolean quarantineBlob(Long blobId) {
+        MediaBlob blob = mediaBlobRepository.findById(blobId).orElse(null);
+        if (blob == null || blob.getRefCount() > 0) {
+            return false;
+        }
+        long actual = mediaRepository.countByBlobId(blobId);
+        if (actual > 0) {
+            log.warn("内容块 {} 引用数不一致，修正为 {}", blob.getSha256(), actual);
+            blob.setRefCount((int) actual);
+            return false;
+        }
+
+        Path file = fileStorageService.getRootLocation().resolve(blob.getStoragePath()).normalize();
+        if (Files.isRegularFile(file)) {
+            try {
+                fileStorageService.quarantine(file);
+            } catch (IOException e) {
+                log.warn("隔离内容块 {} 失败: {}", blob.getSha256(), e.getMessage());
+                return false;
+            }
+        }
+        mediaBlobRepository.delete(blob);
+        return true;
+    }
+
+    // ==================== 媒体记录 ====================
+
+    private void sweepMediaRows(RunReport report) {
+        List<MediaRow> rows = read(() -> jdbcTemplate.query(
+                "SELECT m.id, m.local_url, m.file_extension, b.storage_path FROM media m"
+                        + " LEFT JOIN media_blobs b ON b.id = m.blob_id WHERE m.id > ? ORDER BY m.id LIMIT ?",
+                (rs, rowNum) -> new MediaRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)),
+                mediaCursor, batchSize));
+
+        List<MediaRow> missing = new ArrayList<>();
+        for (MediaRow row : rows) {
+            report.scannedRows++;
+            mediaCursor = row.id();
+            if (!fileExists(row)) {
+                missing.add(row);
+            }
+        }
+        if (rows.size() < batchSize) {
+            mediaCursor = 0;
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        report.missingFiles += missing.size();
+        if (!removeMissingRows) {
+            missing.forEach(row -> log.warn("媒体 {} 的文件缺失: {}", row.id(), row.localUrl()));
+            return;
+        }
+        if (missing.size() * 100L > (long) rows.size() * maxMissingPercent) {
+            log.error("本批 {} 条媒体记录中 {} 条文件缺失，超过 {}% 上限，放弃删除；请检查上传目录 {} 是否正确挂载",
+                    rows.size(), missing.size(), maxMissingPercent, fileStorageService.getRootLocation());
+            return;
+        }
+
+        for (MediaRow row : missing) {
+            if (Boolean.TRUE.equals(read(() -> isReferencedByPosts(row.id())))
+                    || (row.localUrl() != null && isReferencedByContent(row.localUrl()))) {
+                log.warn("媒体 {} 的文件缺失但仍被文章引用: {}", row.id(), row.localUrl());
+                continue;
+            }
+            Boolean removed = writeDispatcher.execute(() -> {
+                if (!mediaRepository.existsById(row.id()) || isReferencedByPosts(row.id())) {
+                    return false;
+                }
+                mediaService.deleteMedia(row.id());
+                return true;
+            });
+            if (Boolean.TRUE.equals(removed)) {
+                report.removedRows++;
+                log.info("已删除文件缺失且无引用的媒体记录 {}: {}", row.id(), row.localUrl());
+            }
+        }
+    }
+
+    private boolean fileExists(MediaRow row) {
+        if (row.storagePath() != null) {
+            return fileStorageService.ensureBlobPresent(row.storagePath());
+        }
+        String prefix = fileStorageService.getUrlPrefix();
+        if (row.localUrl() == null || !row.localUrl().startsWith(prefix + "/")) {
+            // 只有 CDN 地址或外部地址的记录不在本地存储
+            return true;
+        }
+        return fileStorageService.resolveStoredFile(row.localUrl().substring(prefix.length()), row.fileExtension())
+                .isPresent();
+    }
+
+    // ==================== 上传目录 ====================
+
+    /**
+     * 按一级目录名排序逐个扫描（根目录下的文件最先），每轮最多检查 batch-size 个文件
+     */
+    private void sweepUploadDirectory(RunReport report) throws IOException {
+        Path root = fileStorageService.getRootLocation();
+        List<String> units = new ArrayList<>();
+        units.add("");
+        try (Stream<Path> children = Files.list(root)) {
+            children.filter(Files::isDirectory)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> !FileStorageService.QUARANTINE_DIR.equals(name)
+                            && !FileStorageService.PARTIAL_DIR.equals(name))
+                    .sorted()
+                    .forEach(units::add);
+        }
+
+        int processed = 0;
+        for (String unit : units) {
+            if (directoryCursor != null && unit.compareTo(directoryCursor) <= 0) {
+                continue;
+            }
+            List<Path> files = listFiles(unit.isEmpty() ? root : root.resolve(unit), !unit.isEmpty());
+            while (fileOffset < files.size() && processed < batchSize) {
+                inspectFile(files.get(fileOffset++), report);
+                processed++;
+                throttle();
+            }
+            if (processed >= batchSize) {
+                return;
+            }
+            directoryCursor = unit;
+            fileOffset = 0;
+        }
+        // 完成一遍完整扫描，下一轮从头开始
+        directoryCursor = null;
+    }
+
+    private List<Path> listFiles(Path directory, boolean recursive) throws IOException {
+        try (Stream<Path> stream = recursive ? Files.walk(directory) : Files.list(directory)) {
+            return stream.filter(Files::isRegularFile)
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+
+    private void inspectFile(Path file, RunReport report) {
+        report.scannedFiles++;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long ageMillis = System.currentTimeMillis() - attributes.lastModifiedTime().toMillis();
+            if (ageMillis < gracePeriod.toMillis()) {
+                // 可能是正在上传、尚未写库的文件
+                return;
+            }
+
+            String fileName = file.getFileName().toString();
+            if (fileName.contains(FileStorageService.TEMP_FILE_MARKER)) {
+                Files.deleteIfExists(file);
+                report.deletedFiles++;
+                report.reclaimedBytes += attributes.size();
+                return;
+            }
+
+            String relativePath = fileStorageService.getRootLocation().relativize(file).toString().replace('\\', '/');
+            boolean blobFile = FileStorageService.isSha256Hex(fileName)
+                    && relativePath.equals(FileStorageService.blobPath(fileName));
+            if (Boolean.TRUE.equals(read(() -> isFileRegistered(blobFile, fileName, relativePath)))
+                    || isReferencedByContent(blobFile ? fileName : relativePath)) {
+                return;
+            }
+
+            Boolean quarantined = writeDispatcher.execute(() -> {
+                // 在写线程中复核登记记录，避免与同时进行的上传写库交错
+                if (!Files.exists(file) || isFileRegistered(blobFile, fileName, relativePath)) {
+                    return false;
+                }
+                try {
+                    fileStorageService.quarantine(file);
+                    return true;
+                } catch (IOException e) {
+                    log.warn("隔离文件 {} 失败: {}", relativePath, e.getMessage());
+                    return false;
+                }
+            });
+            if (Boolean.TRUE.equals(quarantined)) {
+                report.quarantinedFiles++;
+                log.debug("已隔离无引用的文件 {}", relativePath);
+            }
+        } catch (IOException e) {
+            log.debug("检查文件 {} 失败: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 文件是否登记为内容块或媒体记录，两者都走索引，可在写线程中复核
+     */
+    private boolean isFileRegistered(boolean blobFile, String fileName, String relativePath) {
+        if (blobFile) {
+            return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS(SELECT 1 FROM media_blobs WHERE sha256 = ?)", Boolean.class, fileName));
+        }
+        String url = fileStorageService.getUrlPrefix() + "/" + relativePath;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM media WHERE local_url = ?)", Boolean.class, url));
+    }
+
+    // ==================== 隔离区 ====================
+
+    private void purgeQuarantine(RunReport report) throws IOException {
+        Path quarantine = fileStorageService.quarantineLocation();
+        if (!Files.isDirectory(quarantine)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - quarantineRetention.toMillis();
+        List<Path> expired;
+        try (Stream<Path> stream = Files.walk(quarantine)) {
+            expired = stream.filter(Files::isRegularFile)
+                    .filter(path -> lastModifiedMillis(path) < cutoff)
+                    .limit(batchSize)
+                    .toList();
+        }
+        for (Path file : expired) {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                report.deletedFiles++;
+                report.reclaimedBytes += size;
+            }
+            throttle();
+        }
+    }
+
+    private static long lastModifiedMillis(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // ==================== 引用检查 ====================
+
+    private boolean isReferencedByPosts(long mediaId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(POST_REFERENCE_SQL, Boolean.class, mediaId, mediaId));
+    }
+
+    /**
+     * 文章正文、用户头像、站点设置中是否出现该文件（哈希、相对路径或 URL）
+     * 需要逐行扫描，只在写队列之外通过读连接执行
+     */
+    private boolean isReferencedByContent(String token) {
+        return Boolean.TRUE.equals(read(() ->
+                jdbcTemplate.queryForObject(CONTENT_REFERENCE_SQL, Boolean.class, token, token, token)));
+    }
+
+    private <T> T read(Supplier<T> query) {
+        return readTemplate.execute(status -> query.get());
+    }
+
+    private void throttle() {
+        if (pauseNanos > 0) {
+            LockSupport.parkNanos(pauseNanos);
+        }
+    }
+
+    private record MediaRow(long id, String localUrl, String fileExtension, String storagePath) {
+    }
+
+    /**
+     * 单轮清理统计
+     */
+    @Getter
+    public static class RunReport {
+        private long scannedFiles;
+        private long scannedRows;
+        private long quarantinedFiles;
+        private long deletedFiles;
+        private long reclaimedBytes;
+        private long removedRows;
+        private long missingFiles;
+    }
+
+    @Getter
+    @Builder
+    public static class Stats {
+        private final long runs;
+        private final long scannedFiles;
+        private final long scannedRows;
+        private final long quarantinedFiles;
+        private final long deletedFiles;
+        private final long reclaimedBytes;
+        private final long removedRows;
+        private final long missingFiles;
+    }
+}
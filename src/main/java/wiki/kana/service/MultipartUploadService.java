@@ -0,0 +1,123 @@
+package wiki.kana.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.util.WebUtils;
+import wiki.kana.util.MultipartStreamReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 上传请求接收服务
+ * <p>
+ * 应用关闭了 Servlet 容器的 multipart 解析（spring.servlet.multipart.enabled=false），上传接口自己读取请求体：
+ * multipart 流只解析一遍，文件项边读边校验大小、计算哈希并写入上传目录，不再先落一份容器临时文件再复制。
+ * 请求已被解析为 {@link MultipartHttpServletRequest} 时（如 MockMvc 或重新启用了 multipart 解析）直接使用已解析的文件
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MultipartUploadService {
+
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+    /**
+     * 请求体中除文件内容外的边界、表单项头和普通字段的预留大小
+     */
+    private static final long MULTIPART_OVERHEAD = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+
+    /**
+     * 接收上传请求中的一个文件和普通表单字段
+     *
+     * @param fileField 文件字段名，同名的多个文件只取第一个
+     * @param maxSize   文件大小上限，超过时立即停止读取
+     * @param validator 读取文件内容前的校验，只能看到文件项之前的字段
+     * @throws IllegalArgumentException 请求格式错误、文件超过大小上限或未通过校验
+     */
+    public Upload receive(HttpServletRequest request, String fileField, long maxSize, UploadValidator validator) {
+        // 安全过滤器链会包装请求，需要解开包装才能判断是否已被解析
+        MultipartHttpServletRequest multipartRequest = WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+        if (multipartRequest != null) {
+            return receiveResolved(multipartRequest, fileField, maxSize, validator);
+        }
+
+        String boundary = MultipartStreamReader.boundaryOf(request.getContentType())
+                .orElseThrow(() -> new IllegalArgumentException("上传请求必须是 multipart/form-data"));
+        if (request.getContentLengthLong() > maxSize + MULTIPART_OVERHEAD) {
+            // 声明的长度已超限，不读取请求体
+            throw new IllegalArgumentException(FileStorageService.sizeLimitMessage(maxSize));
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        FileStorageService.StoredFile storedFile = null;
+        try {
+            MultipartStreamReader reader = new MultipartStreamReader(request.getInputStream(), boundary);
+            MultipartStreamReader.Part part;
+            while ((part = reader.nextPart()) != null) {
+                if (part.isFile()) {
+                    // 未选择文件时浏览器也会发送 filename="" 的空文件项
+                    if (storedFile == null && fileField.equals(part.name()) && StringUtils.hasText(part.filename())) {
+                        validator.validate(part.filename(), Collections.unmodifiableMap(fields));
+                        storedFile = fileStorageService.store(part.body(), part.filename(), maxSize);
+                    }
+                } else if (part.name() != null) {
+                    fields.putIfAbsent(part.name(), part.readString(MAX_FIELD_BYTES));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Malformed multipart upload: {}", e.getMessage());
+            throw new IllegalArgumentException("上传请求格式错误", e);
+        }
+        return new Upload(storedFile, fields);
+    }
+
+    private Upload receiveResolved(MultipartHttpServletRequest request, String fileField, long maxSize,
+                                   UploadValidator validator) {
+        Map<String, String> fields = new HashMap<>();
+        request.getParameterMap().forEach((name, values) -> {
+            if (values.length > 0) {
+                fields.put(name, values[0]);
+            }
+        });
+
+        MultipartFile file = request.getFile(fileField);
+        if (file == null || file.isEmpty()) {
+            return new Upload(null, fields);
+        }
+        if (file.getSize() > maxSize) {
+            throw new IllegalArgumentException(FileStorageService.sizeLimitMessage(maxSize));
+        }
+        validator.validate(file.getOriginalFilename(), Collections.unmodifiableMap(fields));
+        return new Upload(fileStorageService.store(file), fields);
+    }
+
+    /**
+     * 读取文件内容前的校验，不通过时抛出 IllegalArgumentException
+     */
+    @FunctionalInterface
+    public interface UploadValidator {
+        void validate(String filename, Map<String, String> precedingFields);
+    }
+
+    /**
+     * 接收结果
+     *
+     * @param file   已存储的文件，请求中没有文件时为 null
+     * @param fields 普通表单字段（同名字段取第一个）
+     */
+    public record Upload(FileStorageService.StoredFile file, Map<String, String> fields) {
+
+        public String field(String name) {
+            return fields.get(name);
+        }
+    }
+}
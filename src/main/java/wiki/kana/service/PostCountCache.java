@@ -0,0 +1,66 @@
+package wiki.kana.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * 已发布文章总数缓存
+ * 公共列表分页只需在缓存失效后执行一次 COUNT 查询，发布、撤销发布、删除文章时失效
+ */
+@Slf4j
+@Component
+public class PostCountCache {
+
+    private static final long EMPTY = -1L;
+
+    /**
+     * 当前缓存值及其代数，每次失效代数加一
+     */
+    private final AtomicReference<Snapshot> publishedCount = new AtomicReference<>(new Snapshot(0, EMPTY));
+
+    /**
+     * 获取已发布文章总数，缓存为空时通过 loader 加载
+     * 加载期间发生过失效（代数变化）时，加载结果只返回给本次调用，不写入缓存
+     */
+    public long getPublishedCount(LongSupplier loader) {
+        Snapshot cached = publishedCount.get();
+        if (cached.count() != EMPTY) {
+            return cached.count();
+        }
+
+        long loaded = loader.getAsLong();
+        if (publishedCount.compareAndSet(cached, new Snapshot(cached.generation(), loaded))) {
+            log.debug("已发布文章总数缓存已加载: {}", loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 使缓存失效
+     * 在事务中调用时，事务结束（提交或回滚）后会再次失效，避免并发读取把未提交前的旧值写回缓存
+     */
+    public void invalidate() {
+        clear();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        publishedCount.updateAndGet(snapshot -> new Snapshot(snapshot.generation() + 1, EMPTY));
+    }
+
+    private record Snapshot(long generation, long count) {
+    }
+}
@@ -0,0 +1,288 @@
+package wiki.kana.service;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wiki.kana.dto.post.PostResponse;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 已发布文章详情缓存
+ * 按 ID 和 Slug 缓存完整的 PostResponse，按条目数和估算字节数双重限制，超出时淘汰最久未访问的条目。
+ * 文章、标签、分类、作者变更时由对应服务精确失效
+ */
+@Slf4j
+@Component
+public class PostDetailCache {
+
+    /**
+     * 单个条目的固定开销估算（对象头、引用、时间字段等）
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 512L;
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idsBySlug = new HashMap<>();
+    private long weightBytes;
+
+    /**
+     * 失效版本号：加载期间发生过失效时，加载结果不写入缓存，避免把旧数据写回
+     */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PostDetailCache(@Value("${app.posts.detail-cache.max-entries:500}") int maxEntries,
+                           @Value("${app.posts.detail-cache.max-bytes:33554432}") long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 按 ID 读取，未命中时通过 loader 加载并写入缓存
+     */
+    public PostResponse getById(Long id, Supplier<PostResponse> loader) {
+        long stamp;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                hits.increment();
+                return copy(entry.response);
+            }
+            stamp = generation;
+        }
+        return load(loader, stamp);
+    }
+
+    /**
+     * 按 Slug 读取，未命中时通过 loader 加载并写入缓存
+     */
+    public PostResponse getBySlug(String slug, Supplier<PostResponse> loader) {
+        long stamp;
+        synchronized (this) {
+            Long id = idsBySlug.get(slug);
+            Entry entry = id != null ? entries.get(id) : null;
+            if (entry != null) {
+                hits.increment();
+                return copy(entry.response);
+            }
+            stamp = generation;
+        }
+        return load(loader, stamp);
+    }
+
+    /**
+     * 查找已缓存文章的 ID（不计入命中统计），未缓存时返回 null
+     */
+    public synchronized Long findIdBySlug(String slug) {
+        return idsBySlug.get(slug);
+    }
+
+    /**
+     * 使单篇文章失效
+     * 在事务中调用时，事务结束后会再次失效，避免并发读取把提交前的旧数据写回缓存
+     */
+    public void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        remove(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * 清空缓存（分类、作者等被多篇文章共享的数据变更时使用）
+     */
+    public void evictAll() {
+        clear();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    /**
+     * 浏览量写回数据库后同步累加到缓存条目，无需重新加载
+     */
+    public synchronized void addViewCount(Long id, long delta) {
+        // 正在加载的条目可能读到写回前的浏览量，不允许其写入
+        generation++;
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            int stored = entry.response.getViewCount() != null ? entry.response.getViewCount() : 0;
+            entry.response.setViewCount((int) Math.min(Integer.MAX_VALUE, stored + delta));
+        }
+    }
+
+    /**
+     * 获取命中、未命中、淘汰和失效统计
+     */
+    public synchronized Stats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return Stats.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(total > 0 ? (double) hitCount / total : 0.0)
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .size(entries.size())
+                .weightBytes(weightBytes)
+                .maxEntries(maxEntries)
+                .maxBytes(maxBytes)
+                .build();
+    }
+
+    private PostResponse load(Supplier<PostResponse> loader, long stamp) {
+        misses.increment();
+        PostResponse loaded = loader.get();
+        if (loaded == null || loaded.getId() == null) {
+            return loaded;
+        }
+
+        PostResponse cached = copy(loaded);
+        synchronized (this) {
+            if (stamp == generation) {
+                put(cached);
+            }
+        }
+        return loaded;
+    }
+
+    private void put(PostResponse response) {
+        long weight = estimateWeight(response);
+        if (weight > maxBytes) {
+            log.debug("文章 {} 详情过大，不写入缓存: {} bytes", response.getId(), weight);
+            return;
+        }
+
+        removeEntry(response.getId());
+        entries.put(response.getId(), new Entry(response, weight));
+        if (response.getSlug() != null) {
+            idsBySlug.put(response.getSlug(), response.getId());
+        }
+        weightBytes += weight;
+
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weightBytes > maxBytes) && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            unlink(evicted);
+            evictions.increment();
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        generation++;
+        if (removeEntry(id)) {
+            invalidations.increment();
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        invalidations.add(entries.size());
+        entries.clear();
+        idsBySlug.clear();
+        weightBytes = 0;
+    }
+
+    private boolean removeEntry(Long id) {
+        Entry removed = entries.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        unlink(removed);
+        return true;
+    }
+
+    private void unlink(Entry entry) {
+        weightBytes -= entry.weight;
+        String slug = entry.response.getSlug();
+        if (slug != null && entry.response.getId().equals(idsBySlug.get(slug))) {
+            idsBySlug.remove(slug);
+        }
+    }
+
+    /**
+     * 返回副本，调用方修改（如叠加未写回的浏览量）不影响缓存内容
+     */
+    private static PostResponse copy(PostResponse response) {
+        return response.toBuilder().build();
+    }
+
+    /**
+     * 估算条目占用：字符串按 UTF-16 每字符 2 字节计
+     */
+    private static long estimateWeight(PostResponse response) {
+        long chars = length(response.getTitle()) + length(response.getSlug())
+                + length(response.getContent()) + length(response.getExcerpt());
+        if (response.getAuthor() != null) {
+            chars += length(response.getAuthor().getUsername()) + length(response.getAuthor().getNickname());
+        }
+        if (response.getCategory() != null) {
+            chars += length(response.getCategory().getName()) + length(response.getCategory().getSlug());
+        }
+        long tagBytes = 0;
+        if (response.getTags() != null) {
+            for (PostResponse.TagDto tag : response.getTags()) {
+                chars += length(tag.getName()) + length(tag.getSlug());
+                tagBytes += 64;
+            }
+        }
+        return ENTRY_OVERHEAD_BYTES + tagBytes + chars * 2;
+    }
+
+    private static long length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private record Entry(PostResponse response, long weight) {
+    }
+
+    /**
+     * 缓存统计
+     */
+    @Getter
+    @Builder
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final double hitRate;
+        private final long evictions;
+        private final long invalidations;
+        private final int size;
+        private final long weightBytes;
+        private final int maxEntries;
+        private final long maxBytes;
+    }
+}
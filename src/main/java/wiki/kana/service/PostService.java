@@ -1,16 +1,32 @@
 package wiki.kana.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import wiki.kana.entity.*;
 import wiki.kana.exception.DuplicateResourceException;
 import wiki.kana.exception.ResourceNotFoundException;
 import wiki.kana.repository.*;
+import wiki.kana.repository.projection.PostSearchHit;
+import wiki.kana.repository.projection.PostSummaryView;
+import wiki.kana.service.search.SearchDocument;
+import wiki.kana.service.search.SearchIndex;
+import wiki.kana.service.search.SearchIndexReport;
+import wiki.kana.repository.projection.PostTagView;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -24,24 +40,34 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@Timed("konatablog.service")
 @RequiredArgsConstructor
 @Transactional
 public class PostService {
 
+    /**
+     * 游标分页的起始位置（晚于任何实际发布时间）
+     */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final PostRepository postRepository;
+    private final SearchIndex searchIndex;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
+    private final PostCountCache postCountCache;
+    private final ViewCountBuffer viewCountBuffer;
+    private final PostDetailCache postDetailCache;
 
     // ==================== 查找方法 ====================
 
     /**
-     * 根据ID查找博客
+     * 根据ID查找博客（管理端，一并加载作者、分类和标签）
      */
+    @Transactional(readOnly = true)
     public Post findById(Long id) {
         log.debug("查找博客 ID: {}", id);
-        return postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + id));
+        return withDetails(requirePost(id));
     }
 
     /**
@@ -57,16 +83,17 @@ public class PostService {
             throw new ResourceNotFoundException("Published post not found with id: " + id);
         }
 
-        return post;
+        return withDetails(post);
     }
 
     /**
-     * 根据Slug查找博客
+     * 根据Slug查找博客（管理端，一并加载作者、分类和标签）
      */
+    @Transactional(readOnly = true)
     public Post findBySlug(String slug) {
         log.debug("Finding post by slug: {}", slug);
-        return postRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found with slug: " + slug));
+        return withDetails(postRepository.findBySlug(slug)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with slug: " + slug)));
     }
 
     /**
@@ -82,12 +109,13 @@ public class PostService {
             throw new ResourceNotFoundException("Published post not found with slug: " + slug);
         }
 
-        return post;
+        return withDetails(post);
     }
 
     /**
      * 查找所有博客
      */
+    @Transactional(readOnly = true)
     public List<Post> findAll() {
         log.debug("查询全部博客");
         return postRepository.findAll();
@@ -105,6 +133,7 @@ public class PostService {
     /**
      * 按发布时间倒序查找所有博客
      */
+    @Transactional(readOnly = true)
     public List<Post> findAllOrderByPublishedAtDesc() {
         log.debug("按时间排序博客列表");
         return postRepository.findAll()
@@ -123,7 +152,7 @@ public class PostService {
     @Transactional(readOnly = true)
     public Page<Post> findAllPosts(Pageable pageable) {
         log.debug("分页查询博客, page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
-        return postRepository.findAll(pageable);
+        return withTags(postRepository.findAll(pageable));
     }
 
     /**
@@ -132,37 +161,66 @@ public class PostService {
     @Transactional(readOnly = true)
     public Page<Post> findPublishedPosts(Pageable pageable) {
         log.debug("分页查询已发布的博客, page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
-        List<Post> publishedPosts = postRepository.findPublishedPosts(pageable);
-
-        // 转换为Page对象
-        int start = Math.min((int) pageable.getOffset(), publishedPosts.size());
-        int end = Math.min(start + pageable.getPageSize(), publishedPosts.size());
-        List<Post> content = publishedPosts.subList(start, end);
+        Pageable sortedPageable = pageable.getSort().isSorted()
+                ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("publishedAt").descending());
 
-        return new org.springframework.data.domain.PageImpl<>(content, pageable, publishedPosts.size());
+        // 数据库只返回当前页，总数走缓存（仅在缓存失效后执行一次 COUNT）
+        List<Post> content = withTags(postRepository.findPublishedPosts(sortedPageable));
+        return PageableExecutionUtils.getPage(content, sortedPageable,
+                () -> postCountCache.getPublishedCount(postRepository::countPublishedPosts));
     }
 
     // ==================== 搜索功能 ====================
 
     /**
-     * 搜索博客 - 按标题和内容
+     * 全文检索已发布博客 - 按标题、摘要和内容的相关度排序，数据库端分页
      */
-    public List<Post> searchByKeyword(String keyword) {
-        log.info("搜索博客，关键词: {}", keyword);
+    @Transactional(readOnly = true)
+    public Page<PostSearchHit> searchPublished(String keyword, Pageable pageable) {
+        log.info("全文检索博客，关键词: {}", keyword);
         if (!StringUtils.hasText(keyword)) {
+            return Page.empty(pageable);
+        }
+
+        Page<PostSearchHit> hits = searchIndex.search(keyword, pageable);
+        log.debug("找到 {} 篇博客匹配关键词", hits.getTotalElements());
+        return hits;
+    }
+
+    /**
+     * 根据ID批量查询博客摘要，按传入ID的顺序返回
+     */
+    @Transactional(readOnly = true)
+    public List<PostSummaryView> findSummariesByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<Post> posts = new ArrayList<>();
-        // 仅搜索已发布文章（与仓库层保持一致）
-        posts.addAll(postRepository.searchByTitle(keyword));
-        posts.addAll(postRepository.searchByContent(keyword));
+        Map<Long, PostSummaryView> byId = postRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(PostSummaryView::getId, view -> view));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
-        // 去重
-        Set<Post> uniquePosts = new HashSet<>(posts);
-        log.debug("找到 {} 篇博客匹配关键词", uniquePosts.size());
+    /**
+     * 全量重建检索索引
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SearchIndexReport rebuildSearchIndex() {
+        log.info("重建检索索引");
+        searchIndex.rebuild();
+        return searchIndex.checkConsistency();
+    }
 
-        return new ArrayList<>(uniquePosts);
+    /**
+     * 检查检索索引与 posts 表是否一致
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SearchIndexReport checkSearchIndex() {
+        return searchIndex.checkConsistency();
     }
 
     /**
@@ -177,34 +235,37 @@ public class PostService {
     /**
      * 分页搜索
      */
+    @Transactional(readOnly = true)
     public Page<Post> searchPosts(String keyword, Boolean isFeatured, Pageable pageable) {
         log.debug("搜索博客: keyword={}, featured={}, page={} size={}", keyword, isFeatured, pageable.getPageNumber(), pageable.getPageSize());
 
         // 这里可以添加更复杂的搜索逻辑
         // 目前使用分页接口
-        return postRepository.findAll(pageable);
+        return withTags(postRepository.findAll(pageable));
     }
 
     /**
      * 按作者搜索
      */
+    @Transactional(readOnly = true)
     public Page<Post> findByAuthor(Long authorId, Pageable pageable) {
         log.debug("查询作者 {} 的博客", authorId);
         User author = userRepository.findById(authorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Author not found with id: " + authorId));
 
-        return postRepository.findByAuthor(author, pageable);
+        return withTags(postRepository.findByAuthor(author, pageable));
     }
 
     /**
      * 按分类搜索
      */
+    @Transactional(readOnly = true)
     public Page<Post> findByCategory(Long categoryId, Pageable pageable) {
         log.debug("查询分类 {} 的博客", categoryId);
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
 
-        return postRepository.findByCategory(category, pageable);
+        return withTags(postRepository.findByCategory(category, pageable));
     }
 
     /**
@@ -216,7 +277,7 @@ public class PostService {
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag not found with id: " + tagId));
 
-        return postRepository.findByTag(tag);
+        return withTags(postRepository.findByTag(tag));
     }
 
     /**
@@ -227,7 +288,7 @@ public class PostService {
         log.debug("Paginate published posts by tag {}", tagId);
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag not found with id: " + tagId));
-        return postRepository.findPublishedByTag(tag, pageable);
+        return withTags(postRepository.findPublishedByTag(tag, pageable));
     }
 
     /**
@@ -242,7 +303,145 @@ public class PostService {
         LocalDateTime start = LocalDateTime.of(year, 1, 1, 0, 0);
         LocalDateTime end = start.plusYears(1).minusNanos(1);
         log.debug("Paginate published posts between {} and {}", start, end);
-        return postRepository.findPublishedPostsBetween(start, end, pageable);
+        return withTags(postRepository.findPublishedPostsBetween(start, end, pageable));
+    }
+
+    // ==================== 列表摘要（不读取正文） ====================
+
+    /**
+     * 分页查询全部博客摘要（管理端列表）
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryView> findAllSummaries(Pageable pageable) {
+        log.debug("分页查询全部博客摘要, page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        return postRepository.findAllSummaries(pageable);
+    }
+
+    /**
+     * 分页查询已发布的博客摘要（公共列表）
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryView> findPublishedSummaries(Pageable pageable) {
+        log.debug("分页查询已发布的博客摘要, page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        Pageable sortedPageable = pageable.getSort().isSorted()
+                ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("publishedAt").descending());
+
+        List<PostSummaryView> content = postRepository.findPublishedSummaries(sortedPageable);
+        return PageableExecutionUtils.getPage(content, sortedPageable,
+                () -> postCountCache.getPublishedCount(postRepository::countPublishedPosts));
+    }
+
+    /**
+     * 分页根据标签查询已发布文章摘要
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryView> findPublishedSummariesByTag(Long tagId, Pageable pageable) {
+        log.debug("Paginate published post summaries by tag {}", tagId);
+        Tag tag = tagRepository.findById(tagId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tag not found with id: " + tagId));
+        return postRepository.findPublishedSummariesByTag(tag, pageable);
+    }
+
+    /**
+     * 分页根据年份查询已发布文章摘要
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryView> findPublishedSummariesByYear(int year, Pageable pageable) {
+        if (year < 1970 || year > 9999) {
+            throw new IllegalArgumentException("Invalid year: " + year);
+        }
+
+        LocalDateTime start = LocalDateTime.of(year, 1, 1, 0, 0);
+        LocalDateTime end = start.plusYears(1).minusNanos(1);
+        log.debug("Paginate published post summaries between {} and {}", start, end);
+        return postRepository.findPublishedSummariesBetween(start, end, pageable);
+    }
+
+    /**
+     * 批量查询文章摘要的标签，按文章ID分组（一条 IN 查询）
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<PostTagView>> findTagsForSummaries(List<PostSummaryView> summaries) {
+        if (summaries == null || summaries.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Long> postIds = summaries.stream()
+                .map(PostSummaryView::getId)
+                .collect(Collectors.toList());
+        return postRepository.findTagViewsByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(PostTagView::getPostId));
+    }
+
+    // ==================== 游标分页 ====================
+
+    /**
+     * 游标分页查询已发布的博客摘要（按发布时间、ID倒序）
+     *
+     * @param afterPublishedAt 上一页最后一篇的发布时间，为null时从第一页开始
+     * @param afterId          上一页最后一篇的ID
+     * @param size             每页数量
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryView> findPublishedPostsAfter(LocalDateTime afterPublishedAt, Long afterId, int size) {
+        log.debug("Keyset paginate published posts after ({}, {}), size: {}", afterPublishedAt, afterId, size);
+        return toSlice(postRepository.findPublishedPostsAfter(
+                keysetAt(afterPublishedAt), keysetId(afterPublishedAt, afterId), keysetLimit(size)), size);
+    }
+
+    /**
+     * 游标分页根据标签查询已发布文章
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryView> findPublishedByTagAfter(Long tagId, LocalDateTime afterPublishedAt, Long afterId, int size) {
+        log.debug("Keyset paginate published posts by tag {} after ({}, {})", tagId, afterPublishedAt, afterId);
+        Tag tag = tagRepository.findById(tagId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tag not found with id: " + tagId));
+        return toSlice(postRepository.findPublishedByTagAfter(
+                tag, keysetAt(afterPublishedAt), keysetId(afterPublishedAt, afterId), keysetLimit(size)), size);
+    }
+
+    /**
+     * 游标分页根据分类查询已发布文章
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryView> findPublishedByCategoryAfter(Long categoryId, LocalDateTime afterPublishedAt, Long afterId, int size) {
+        log.debug("Keyset paginate published posts by category {} after ({}, {})", categoryId, afterPublishedAt, afterId);
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
+        return toSlice(postRepository.findPublishedByCategoryAfter(
+                category, keysetAt(afterPublishedAt), keysetId(afterPublishedAt, afterId), keysetLimit(size)), size);
+    }
+
+    /**
+     * 游标分页根据年份查询已发布文章
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryView> findPublishedByYearAfter(int year, LocalDateTime afterPublishedAt, Long afterId, int size) {
+        if (year < 1970 || year > 9999) {
+            throw new IllegalArgumentException("Invalid year: " + year);
+        }
+
+        LocalDateTime start = LocalDateTime.of(year, 1, 1, 0, 0);
+        LocalDateTime end = start.plusYears(1).minusNanos(1);
+        LocalDateTime afterAt = afterPublishedAt != null && afterPublishedAt.isBefore(end) ? afterPublishedAt : end;
+        Long afterKeyId = afterPublishedAt != null && afterPublishedAt.isBefore(end) ? afterId : Long.MAX_VALUE;
+        log.debug("Keyset paginate published posts of year {} after ({}, {})", year, afterAt, afterKeyId);
+        return toSlice(postRepository.findPublishedPostsBetweenAfter(start, afterAt, afterKeyId, keysetLimit(size)), size);
+    }
+
+    /**
+     * 游标分页按关键词搜索已发布文章
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryView> searchPublishedAfter(String keyword, LocalDateTime afterPublishedAt, Long afterId, int size) {
+        log.debug("Keyset search published posts by '{}' after ({}, {})", keyword, afterPublishedAt, afterId);
+        if (!StringUtils.hasText(keyword)) {
+            return new SliceImpl<>(Collections.emptyList(), PageRequest.ofSize(size), false);
+        }
+        return toSlice(postRepository.searchPublishedAfter(
+                keyword, keysetAt(afterPublishedAt), keysetId(afterPublishedAt, afterId), keysetLimit(size)), size);
     }
 
     // ==================== 状态管理功能 ====================
@@ -254,12 +453,16 @@ public class PostService {
     public Post publishPost(Long id) {
         log.info("发布博客 ID: {}", id);
 
-        Post post = findById(id);
+        Post post = requirePost(id);
         post.setStatus(Post.PostStatus.PUBLISHED);
         post.setPublishedAt(LocalDateTime.now());
+        postCountCache.invalidate();
+        postDetailCache.evict(id);
 
         log.info("博客 [{}] 已发布", post.getTitle());
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        syncSearchIndex(saved);
+        return saved;
     }
 
     /**
@@ -269,12 +472,16 @@ public class PostService {
     public Post unpublishPost(Long id) {
         log.info("撤销发布博客 ID: {}", id);
 
-        Post post = findById(id);
+        Post post = requirePost(id);
         post.setStatus(Post.PostStatus.DRAFT);
         post.setPublishedAt(null);
+        postCountCache.invalidate();
+        postDetailCache.evict(id);
 
         log.info("博客 [{}] 已撤销发布", post.getTitle());
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        syncSearchIndex(saved);
+        return saved;
     }
 
     // ==================== 统计功能 ====================
@@ -321,21 +528,29 @@ public class PostService {
     /**
      * 获取热门博客
      */
+    @Transactional(readOnly = true)
     public List<Post> findPopularPosts(int limit) {
         log.debug("获取热门博客，限制: {} 篇", limit);
         // 使用分页从仓库层获取热门博客
-        return postRepository.findPopularPosts(org.springframework.data.domain.PageRequest.of(0, Math.max(1, limit)));
+        return withTags(postRepository.findPopularPosts(org.springframework.data.domain.PageRequest.of(0, Math.max(1, limit))));
     }
 
     /**
      * 增加博客浏览量
+     * 仅写入内存缓冲，由 {@link ViewCountBuffer} 定时批量写回，读请求不占用数据库写锁
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void incrementViewCount(Long id) {
         log.debug("增加博客 ID: {}", id);
-        Post post = findById(id);
-        post.incrementViewCount();
-        postRepository.save(post);
+        viewCountBuffer.increment(id);
+    }
+
+    /**
+     * 获取尚未写回数据库的浏览量
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long getPendingViewCount(Long id) {
+        return viewCountBuffer.getPending(id);
     }
 
     // ==================== 创建和更新博客 ====================
@@ -375,6 +590,10 @@ public class PostService {
         }
 
         Post savedPost = postRepository.save(post);
+        if (savedPost.getStatus() == Post.PostStatus.PUBLISHED) {
+            postCountCache.invalidate();
+        }
+        syncSearchIndex(savedPost);
         log.info("已创建博客 ID: {}", savedPost.getId());
 
         return savedPost;
@@ -388,7 +607,8 @@ public class PostService {
         log.info("更新博客 ID: {}", id);
 
         // 验证博客存在
-        Post existingPost = findById(id);
+        Post existingPost = requirePost(id);
+        postDetailCache.evict(id);
 
         // 更新基本信息
         if (StringUtils.hasText(updatedPost.getTitle())) {
@@ -406,6 +626,9 @@ public class PostService {
         // 更新状态（同时维护 publishedAt）
         if (updatedPost.getStatus() != null) {
             Post.PostStatus nextStatus = updatedPost.getStatus();
+            if (nextStatus != existingPost.getStatus()) {
+                postCountCache.invalidate();
+            }
             existingPost.setStatus(nextStatus);
 
             if (nextStatus == Post.PostStatus.PUBLISHED && existingPost.getPublishedAt() == null) {
@@ -437,7 +660,9 @@ public class PostService {
             existingPost.setTags(processTags(updatedPost.getTags()));
         }
 
-        return postRepository.save(existingPost);
+        Post savedPost = postRepository.save(existingPost);
+        syncSearchIndex(savedPost);
+        return savedPost;
     }
 
     /**
@@ -452,11 +677,90 @@ public class PostService {
         }
 
         postRepository.deleteById(id);
+        postCountCache.invalidate();
+        postDetailCache.evict(id);
+        runAfterCommit(() -> searchIndex.remove(id));
         log.info("博客 ID: {} 已删除", id);
     }
 
     // ==================== 私有辅助方法 ====================
 
+    /**
+     * 游标起点：无游标时从最大发布时间开始
+     */
+    private LocalDateTime keysetAt(LocalDateTime afterPublishedAt) {
+        return afterPublishedAt != null ? afterPublishedAt : KEYSET_START;
+    }
+
+    private Long keysetId(LocalDateTime afterPublishedAt, Long afterId) {
+        return afterPublishedAt != null && afterId != null ? afterId : Long.MAX_VALUE;
+    }
+
+    /**
+     * 事务提交后同步检索索引（回滚时不会写入未提交的内容）
+     */
+    private void syncSearchIndex(Post post) {
+        runAfterCommit(() -> searchIndex.index(SearchDocument.from(post)));
+    }
+
+    private void runAfterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * 写操作内部加载博客，只取实体本身，关联按需懒加载
+     */
+    private Post requirePost(Long id) {
+        return postRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + id));
+    }
+
+    /**
+     * 在事务内加载列表文章的标签
+     * Post.tags 配置了批量抓取，首次访问即用一条 IN 查询加载整页文章的标签
+     */
+    private List<Post> withTags(List<Post> posts) {
+        posts.forEach(post -> Hibernate.initialize(post.getTags()));
+        return posts;
+    }
+
+    private Page<Post> withTags(Page<Post> page) {
+        withTags(page.getContent());
+        return page;
+    }
+
+    /**
+     * 在事务内加载详情所需的作者、分类和标签，映射响应时不再依赖懒加载
+     */
+    private Post withDetails(Post post) {
+        Hibernate.initialize(post.getAuthor());
+        Hibernate.initialize(post.getCategory());
+        Hibernate.initialize(post.getTags());
+        return post;
+    }
+
+    /**
+     * 多取一条用于判断是否还有下一页
+     */
+    private Pageable keysetLimit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    private <T> Slice<T> toSlice(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+
     /**
      * 处理标签 - 确保标签存在
      */
@@ -487,9 +791,9 @@ public class PostService {
     }
 
     /**
-     * 生成博客slug
+     * 生成博客slug（包内可见，供基准测试调用）
      */
-    private String generateSlug(String title) {
+    String generateSlug(String title) {
         if (!StringUtils.hasText(title)) {
             return "untitled-post";
         }
@@ -516,7 +820,8 @@ public class PostService {
     public Post setPostTags(Long postId, List<Long> tagIds) {
         log.debug("Setting tags for post {}: {}", postId, tagIds);
 
-        Post post = findById(postId);
+        Post post = requirePost(postId);
+        postDetailCache.evict(postId);
 
         // 清除现有标签关联
         List<Tag> existingTags = new ArrayList<>(post.getTags());
@@ -560,7 +865,7 @@ public class PostService {
     public Post addTagToPost(Long postId, Long tagId) {
         log.debug("Adding tag {} to post {}", tagId, postId);
 
-        Post post = findById(postId);
+        Post post = requirePost(postId);
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag not found with id: " + tagId));
 
@@ -569,6 +874,7 @@ public class PostService {
             tag.addPost(post);
             postRepository.save(post);
             tagRepository.save(tag);
+            postDetailCache.evict(postId);
             log.info("Successfully added tag {} to post {}", tagId, postId);
         } else {
             log.debug("Tag {} is already associated with post {}", tagId, postId);
@@ -587,7 +893,7 @@ public class PostService {
     public Post removeTagFromPost(Long postId, Long tagId) {
         log.debug("Removing tag {} from post {}", tagId, postId);
 
-        Post post = findById(postId);
+        Post post = requirePost(postId);
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag not found with id: " + tagId));
 
@@ -596,6 +902,7 @@ public class PostService {
             tag.removePost(post);
             postRepository.save(post);
             tagRepository.save(tag);
+            postDetailCache.evict(postId);
             log.info("Successfully removed tag {} from post {}", tagId, postId);
         } else {
             log.debug("Tag {} is not associated with post {}", tagId, postId);
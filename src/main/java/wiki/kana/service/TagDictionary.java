@@ -0,0 +1,577 @@
+package wiki.kana.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import wiki.kana.entity.Tag;
+import wiki.kana.repository.TagRepository;
+import wiki.kana.repository.TagUsageRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内标签词典，供标签输入建议使用
+ * <p>
+ * 词典以不可变快照提供查询：标签按使用次数降序排列，前缀匹配走压缩前缀树（每个节点预存排名前
+ * {@value #MAX_SUGGESTIONS} 的标签，命中节点即得结果，被过滤掉太多时再遍历子树），不足时再用一元/二元组
+ * 倒排表查找包含关键词的标签。标签变更由 {@link wiki.kana.entity.listener.TagDictionaryListener} 在事务提交后
+ * 写入增量表，查询时与快照合并；增量条目超过阈值时才重建快照，查询本身不访问数据库。
+ * 使用次数由数据库触发器维护、不经过实体，定时在后台重新读取
+ */
+@Slf4j
+@Component
+public class TagDictionary {
+
+    /**
+     * 单次建议的最大条数
+     */
+    public static final int MAX_SUGGESTIONS = 20;
+
+    /**
+     * 增量条目数超过 max(该值, 标签总数 / {@value #COMPACT_RATIO}) 时重建快照
+     */
+    private static final int MIN_COMPACT_THRESHOLD = 64;
+    private static final int COMPACT_RATIO = 32;
+
+    private final ObjectProvider<TagRepository> tagRepository;
+    private final ObjectProvider<TagUsageRepository> tagUsageRepository;
+
+    /**
+     * 当前全部标签，按ID索引（受 this 保护）
+     */
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    /**
+     * 快照之后的变更，值为 null 表示已删除（受 this 保护）
+     */
+    private final Map<Long, Entry> pending = new HashMap<>();
+
+    /**
+     * 标签集合版本号，任何已提交的标签变更都会递增
+     */
+    private final AtomicLong revision = new AtomicLong();
+
+    private volatile View view = new View(Index.build(List.of()), Map.of(), 0);
+    private volatile boolean loaded;
+
+    /**
+     * 标签实体监听器在 EntityManagerFactory 初始化时创建，这里延迟获取仓库，避免循环依赖
+     */
+    public TagDictionary(ObjectProvider<TagRepository> tagRepository,
+                         ObjectProvider<TagUsageRepository> tagUsageRepository) {
+        this.tagRepository = tagRepository;
+        this.tagUsageRepository = tagUsageRepository;
+    }
+
+    /**
+     * 启动时从数据库加载全部标签
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        List<Tag> tags = tagRepository.getObject().findAll();
+        entries.clear();
+        tags.forEach(tag -> entries.put(tag.getId(), Entry.from(tag)));
+        rebuild();
+        loaded = true;
+        revision.incrementAndGet();
+        log.info("已加载标签词典，共 {} 个标签", entries.size());
+    }
+
+    /**
+     * 标签输入建议：名称以关键词开头的标签在前，其次是名称包含关键词的标签，两组内部按使用次数降序
+     *
+     * @param query      关键词
+     * @param limit      返回条数，最多 {@value #MAX_SUGGESTIONS}
+     * @param ignoreCase 是否忽略大小写
+     */
+    public List<Entry> suggest(String query, int limit, boolean ignoreCase) {
+        if (!StringUtils.hasText(query) || limit <= 0) {
+            return List.of();
+        }
+        return currentView().lookup(query.trim(), Math.min(limit, MAX_SUGGESTIONS), ignoreCase);
+    }
+
+    /**
+     * 标签已新增或修改，事务提交后写入词典（回滚时不写入）
+     */
+    public void put(Tag tag) {
+        // 提交后再读取实体字段，同一事务内的后续修改和刷新时生成的时间戳都会反映出来
+        afterCommit(() -> apply(tag.getId(), Entry.from(tag)));
+    }
+
+    /**
+     * 标签已删除，事务提交后从词典移除
+     */
+    public void remove(Long tagId) {
+        afterCommit(() -> apply(tagId, null));
+    }
+
+    /**
+     * 使用次数在数据库中被批量修改，事务提交后在后台重新读取
+     */
+    public void usageCountsChanged() {
+        afterCommit(() -> CompletableFuture.runAsync(this::refreshUsageCounts)
+                .exceptionally(e -> {
+                    log.warn("刷新标签使用次数失败: {}", e.getMessage());
+                    return null;
+                }));
+    }
+
+    /**
+     * 重新读取所有标签的使用次数，有变化时更新词典
+     */
+    @Scheduled(fixedDelayString = "${app.tags.dictionary.refresh-interval:30000}",
+            initialDelayString = "${app.tags.dictionary.refresh-interval:30000}")
+    public void refreshUsageCounts() {
+        if (!loaded) {
+            return;
+        }
+        Map<Long, Integer> counts = tagUsageRepository.getObject().findAllUsageCounts();
+        synchronized (this) {
+            boolean changed = false;
+            for (Map.Entry<Long, Entry> item : entries.entrySet()) {
+                Integer count = counts.get(item.getKey());
+                Entry entry = item.getValue();
+                if (count != null && count != entry.usageCount()) {
+                    item.setValue(entry.withUsageCount(count));
+                    pending.put(item.getKey(), item.getValue());
+                    changed = true;
+                }
+            }
+            if (changed) {
+                revision.incrementAndGet();
+                publish();
+            }
+        }
+    }
+
+    public int size() {
+        return currentView().size;
+    }
+
+    /**
+     * 标签集合版本号，基于全部标签计算的结果可据此判断是否需要重新计算
+     */
+    public long revision() {
+        return revision.get();
+    }
+
+    private synchronized void apply(Long tagId, Entry entry) {
+        revision.incrementAndGet();
+        if (!loaded || tagId == null) {
+            // 尚未加载时变更已提交，加载时会从数据库读到
+            return;
+        }
+        if (entry != null) {
+            entries.put(tagId, entry);
+        } else {
+            entries.remove(tagId);
+        }
+        pending.put(tagId, entry);
+        publish();
+    }
+
+    /**
+     * 发布新的视图：增量条目不多时沿用原快照，只复制增量表；否则重建快照（调用方持有 this）
+     */
+    private void publish() {
+        if (pending.size() > Math.max(MIN_COMPACT_THRESHOLD, entries.size() / COMPACT_RATIO)) {
+            rebuild();
+        } else {
+            view = new View(view.base, new HashMap<>(pending), entries.size());
+        }
+    }
+
+    private void rebuild() {
+        pending.clear();
+        view = new View(Index.build(entries.values()), Map.of(), entries.size());
+    }
+
+    private View currentView() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+        return view;
+    }
+
+    private static void afterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * 词典条目（标签的只读副本）
+     */
+    public record Entry(Long id, String name, String slug, String description, String color, int usageCount,
+                        LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        static Entry from(Tag tag) {
+            return new Entry(tag.getId(), tag.getName(), tag.getSlug(), tag.getDescription(), tag.getColor(),
+                    tag.getUsageCount() != null ? tag.getUsageCount() : 0, tag.getCreatedAt(), tag.getUpdatedAt());
+        }
+
+        Entry withUsageCount(int count) {
+            return new Entry(id, name, slug, description, color, count, createdAt, updatedAt);
+        }
+    }
+
+    /**
+     * 快照加增量表，查询时合并两者的结果
+     */
+    private static final class View {
+
+        private final Index base;
+        private final Map<Long, Entry> delta;
+        private final int size;
+
+        View(Index base, Map<Long, Entry> delta, int size) {
+            this.base = base;
+            this.delta = delta;
+            this.size = size;
+        }
+
+        List<Entry> lookup(String query, int limit, boolean ignoreCase) {
+            String key = query.toLowerCase(Locale.ROOT);
+            List<Entry> result = merge(base.prefixMatches(query, key, limit, ignoreCase, delta.keySet()),
+                    changedMatches(query, key, ignoreCase, true), limit);
+            if (result.size() == limit) {
+                return result;
+            }
+            int remaining = limit - result.size();
+            result.addAll(merge(base.substringMatches(query, key, remaining, ignoreCase, delta.keySet()),
+                    changedMatches(query, key, ignoreCase, false), remaining));
+            return result;
+        }
+
+        private List<Entry> changedMatches(String query, String key, boolean ignoreCase, boolean prefix) {
+            if (delta.isEmpty()) {
+                return List.of();
+            }
+            List<Entry> matches = new ArrayList<>();
+            for (Entry entry : delta.values()) {
+                if (entry == null) {
+                    continue;
+                }
+                String name = ignoreCase ? entry.name().toLowerCase(Locale.ROOT) : entry.name();
+                String term = ignoreCase ? key : query;
+                boolean startsWith = name.startsWith(term);
+                if (prefix ? startsWith : !startsWith && name.contains(term)) {
+                    matches.add(entry);
+                }
+            }
+            return matches;
+        }
+
+        private static List<Entry> merge(List<Entry> indexed, List<Entry> changed, int limit) {
+            if (changed.isEmpty()) {
+                return new ArrayList<>(indexed);
+            }
+            List<Entry> merged = new ArrayList<>(indexed.size() + changed.size());
+            merged.addAll(indexed);
+            merged.addAll(changed);
+            merged.sort(Index.RANK);
+            return new ArrayList<>(merged.subList(0, Math.min(limit, merged.size())));
+        }
+    }
+
+    /**
+     * 不可变的词典快照
+     * <p>
+     * 条目按排名存放在数组中，前缀树和倒排表只保存条目下标，下标越小排名越高。前缀树以 CSR 形式存储：
+     * 节点 v 的子边为 [firstEdge[v], firstEdge[v+1])，按字符升序，查找子节点用二分；
+     * 节点 v 子树中排名前 {@value #MAX_SUGGESTIONS} 的条目为 topEntries[topStart[v], topStart[v+1])，
+     * 名称恰好终止于节点 v 的条目为 endEntries[endStart[v], endStart[v+1])
+     */
+    static final class Index {
+
+        private static final Comparator<Entry> RANK = Comparator.comparingInt(Entry::usageCount).reversed()
+                .thenComparing(Entry::name, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(Entry::id);
+
+        private final Entry[] entries;
+        private final String[] keys;
+
+        private final int[] firstEdge;
+        private final char[] edgeChars;
+        private final int[] edgeTargets;
+        private final int[] topStart;
+        private final int[] topEntries;
+        private final int[] endStart;
+        private final int[] endEntries;
+
+        /**
+         * 一元组、二元组 → 含有该组合的条目下标（升序，即按排名）
+         */
+        private final Map<Long, int[]> grams;
+
+        private Index(Entry[] entries, String[] keys, int[] firstEdge, char[] edgeChars, int[] edgeTargets,
+                      int[] topStart, int[] topEntries, int[] endStart, int[] endEntries, Map<Long, int[]> grams) {
+            this.entries = entries;
+            this.keys = keys;
+            this.firstEdge = firstEdge;
+            this.edgeChars = edgeChars;
+            this.edgeTargets = edgeTargets;
+            this.topStart = topStart;
+            this.topEntries = topEntries;
+            this.endStart = endStart;
+            this.endEntries = endEntries;
+            this.grams = grams;
+        }
+
+        static Index build(Collection<Entry> values) {
+            Entry[] entries = values.toArray(new Entry[0]);
+            Arrays.sort(entries, RANK);
+            String[] keys = new String[entries.length];
+            int totalChars = 0;
+            for (int i = 0; i < entries.length; i++) {
+                keys[i] = entries[i].name().toLowerCase(Locale.ROOT);
+                totalChars += keys[i].length();
+            }
+
+            // 第一遍：按排名插入前缀树，边暂存为 (父节点 << 16 | 字符) → 子节点，记录每个条目经过的节点
+            Map<Long, Integer> edges = new HashMap<>(Math.max(16, totalChars * 2));
+            int[] pathNodes = new int[totalChars];
+            int[] subtreeSize = new int[totalChars + 1];
+            int[] endNodes = new int[keys.length];
+            int nodeCount = 1;
+            int pos = 0;
+            for (int i = 0; i < keys.length; i++) {
+                String key = keys[i];
+                int node = 0;
+                subtreeSize[0]++;
+                for (int j = 0; j < key.length(); j++) {
+                    long edge = ((long) node << 16) | key.charAt(j);
+                    Integer child = edges.get(edge);
+                    if (child == null) {
+                        child = nodeCount++;
+                        edges.put(edge, child);
+                    }
+                    node = child;
+                    subtreeSize[node]++;
+                    pathNodes[pos++] = node;
+                }
+                endNodes[i] = node;
+            }
+
+            // 第二遍：条目已按排名排序，先到达节点的即为该节点的前若干名
+            int[] topStart = new int[nodeCount + 1];
+            for (int v = 0; v < nodeCount; v++) {
+                topStart[v + 1] = topStart[v] + Math.min(MAX_SUGGESTIONS, subtreeSize[v]);
+            }
+            int[] topEntries = new int[topStart[nodeCount]];
+            int[] filled = new int[nodeCount];
+            pos = 0;
+            for (int i = 0; i < keys.length; i++) {
+                addTop(topStart, topEntries, filled, 0, i);
+                for (int j = 0; j < keys[i].length(); j++) {
+                    addTop(topStart, topEntries, filled, pathNodes[pos++], i);
+                }
+            }
+
+            // 边按 (父节点, 字符) 排序后即为 CSR 顺序
+            long[] edgeKeys = edges.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int[] firstEdge = new int[nodeCount + 1];
+            char[] edgeChars = new char[edgeKeys.length];
+            int[] edgeTargets = new int[edgeKeys.length];
+            for (int k = 0; k < edgeKeys.length; k++) {
+                edgeChars[k] = (char) edgeKeys[k];
+                edgeTargets[k] = edges.get(edgeKeys[k]);
+                firstEdge[(int) (edgeKeys[k] >>> 16) + 1]++;
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                firstEdge[v + 1] += firstEdge[v];
+            }
+
+            // 终止节点同样按 CSR 存放，节点内按排名升序
+            int[] endStart = new int[nodeCount + 1];
+            for (int endNode : endNodes) {
+                endStart[endNode + 1]++;
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                endStart[v + 1] += endStart[v];
+            }
+            int[] endEntries = new int[keys.length];
+            int[] ended = new int[nodeCount];
+            for (int i = 0; i < keys.length; i++) {
+                endEntries[endStart[endNodes[i]] + ended[endNodes[i]]++] = i;
+            }
+
+            return new Index(entries, keys, firstEdge, edgeChars, edgeTargets, topStart, topEntries,
+                    endStart, endEntries, buildGrams(keys));
+        }
+
+        private static void addTop(int[] topStart, int[] topEntries, int[] filled, int node, int entry) {
+            if (topStart[node] + filled[node] < topStart[node + 1]) {
+                topEntries[topStart[node] + filled[node]++] = entry;
+            }
+        }
+
+        private static Map<Long, int[]> buildGrams(String[] keys) {
+            Map<Long, IntList> postings = new HashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                String key = keys[i];
+                for (int j = 0; j < key.length(); j++) {
+                    addPosting(postings, key.charAt(j), i);
+                    if (j > 0) {
+                        addPosting(postings, bigram(key.charAt(j - 1), key.charAt(j)), i);
+                    }
+                }
+            }
+            Map<Long, int[]> grams = new HashMap<>(Math.max(16, postings.size() * 2));
+            postings.forEach((gram, list) -> grams.put(gram, list.toArray()));
+            return grams;
+        }
+
+        private static void addPosting(Map<Long, IntList> postings, long gram, int entry) {
+            IntList list = postings.computeIfAbsent(gram, key -> new IntList());
+            // 同一名称中重复出现的组合只记一次
+            if (list.size == 0 || list.values[list.size - 1] != entry) {
+                list.add(entry);
+            }
+        }
+
+        private static long bigram(char first, char second) {
+            return 1L << 32 | (long) first << 16 | second;
+        }
+
+        /**
+         * 名称以关键词开头的条目，按排名取前 limit 个，跳过 excluded 中的标签
+         */
+        List<Entry> prefixMatches(String query, String key, int limit, boolean ignoreCase, Set<Long> excluded) {
+            int node = findNode(key);
+            if (node < 0) {
+                return List.of();
+            }
+            List<Entry> result = new ArrayList<>(limit);
+            for (int p = topStart[node]; p < topStart[node + 1] && result.size() < limit; p++) {
+                if (acceptsPrefix(topEntries[p], query, ignoreCase, excluded)) {
+                    result.add(entries[topEntries[p]]);
+                }
+            }
+            if (result.size() == limit || topStart[node + 1] - topStart[node] < MAX_SUGGESTIONS) {
+                // 预存的前若干名已是整棵子树
+                return result;
+            }
+
+            // 前若干名被大小写或增量过滤掉太多，遍历子树取全部匹配条目后按排名截取
+            IntList matched = new IntList();
+            IntList stack = new IntList();
+            stack.add(node);
+            while (stack.size > 0) {
+                int v = stack.values[--stack.size];
+                for (int p = endStart[v]; p < endStart[v + 1]; p++) {
+                    if (acceptsPrefix(endEntries[p], query, ignoreCase, excluded)) {
+                        matched.add(endEntries[p]);
+                    }
+                }
+                for (int edge = firstEdge[v]; edge < firstEdge[v + 1]; edge++) {
+                    stack.add(edgeTargets[edge]);
+                }
+            }
+            int[] ranked = matched.toArray();
+            Arrays.sort(ranked);
+            result.clear();
+            for (int i = 0; i < ranked.length && result.size() < limit; i++) {
+                result.add(entries[ranked[i]]);
+            }
+            return result;
+        }
+
+        /**
+         * 名称包含关键词但不以其开头的条目，按排名取前 limit 个，跳过 excluded 中的标签
+         */
+        List<Entry> substringMatches(String query, String key, int limit, boolean ignoreCase, Set<Long> excluded) {
+            // 取最短的一元/二元组倒排表作为候选，逐个核对是否包含关键词
+            int[] candidates = null;
+            if (key.length() == 1) {
+                candidates = grams.get((long) key.charAt(0));
+            } else {
+                for (int j = 1; j < key.length(); j++) {
+                    int[] posting = grams.get(bigram(key.charAt(j - 1), key.charAt(j)));
+                    if (posting == null) {
+                        return List.of();
+                    }
+                    if (candidates == null || posting.length < candidates.length) {
+                        candidates = posting;
+                    }
+                }
+            }
+            if (candidates == null) {
+                return List.of();
+            }
+
+            List<Entry> result = new ArrayList<>(limit);
+            for (int i = 0; i < candidates.length && result.size() < limit; i++) {
+                int entry = candidates[i];
+                String name = ignoreCase ? keys[entry] : entries[entry].name();
+                String term = ignoreCase ? key : query;
+                if (!name.startsWith(term) && name.contains(term) && !excluded.contains(entries[entry].id())) {
+                    result.add(entries[entry]);
+                }
+            }
+            return result;
+        }
+
+        private boolean acceptsPrefix(int entry, String query, boolean ignoreCase, Set<Long> excluded) {
+            return (ignoreCase || entries[entry].name().startsWith(query)) && !excluded.contains(entries[entry].id());
+        }
+
+        private int findNode(String key) {
+            int node = 0;
+            for (int j = 0; j < key.length(); j++) {
+                int edge = Arrays.binarySearch(edgeChars, firstEdge[node], firstEdge[node + 1], key.charAt(j));
+                if (edge < 0) {
+                    return -1;
+                }
+                node = edgeTargets[edge];
+            }
+            return node;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package wiki.kana.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -13,8 +14,10 @@ import wiki.kana.exception.DuplicateResourceException;
 import wiki.kana.exception.ResourceNotFoundException;
 import wiki.kana.repository.PostRepository;
 import wiki.kana.repository.TagRepository;
+import wiki.kana.repository.TagUsageRepository;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -23,12 +26,22 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@Timed("konatablog.service")
 @RequiredArgsConstructor
 @Transactional
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final TagUsageRepository tagUsageRepository;
     private final PostRepository postRepository;
+    private final PostDetailCache postDetailCache;
+    private final TagDictionary tagDictionary;
+    private final ContentRevision contentRevision;
+
+    /**
+     * 最近一次合并建议的结果，标签集合变化后失效
+     */
+    private final AtomicReference<MergeSuggestions> mergeSuggestionCache = new AtomicReference<>();
 
     // ==================== 基础查询 ====================
 
@@ -175,6 +188,7 @@ public class TagService {
         }
 
         Tag updated = tagRepository.save(existing);
+        evictPostDetails(updated.getPosts());
         log.info("Successfully updated tag with ID: {}", updated.getId());
         return updated;
     }
@@ -213,6 +227,7 @@ public class TagService {
                 post.getTags().remove(tag);
                 postRepository.save(post);
             }
+            evictPostDetails(associatedPosts);
         }
 
         tagRepository.delete(tag);
@@ -220,29 +235,32 @@ public class TagService {
     }
 
     // ==================== 使用计数管理 ====================
+    // 使用计数由 post_tags 上的触发器维护，以下方法直接在数据库中重算，不经过实体
 
     /**
      * 增加标签使用计数
+     * 计数以关联表为准，关联已由调用方写入，这里按关联表重新同步，避免手动加减与触发器重复计数
      *
      * @param id 标签ID
      */
     public void incrementUsageCount(Long id) {
         log.debug("Incrementing usage count for tag ID: {}", id);
-        Tag tag = findById(id);
-        tag.incrementUsage();
-        tagRepository.save(tag);
+        findById(id);
+        tagUsageRepository.recalculate(id);
+        usageCountsChanged();
     }
 
     /**
      * 减少标签使用计数
+     * 与 {@link #incrementUsageCount} 相同，按关联表重新同步
      *
      * @param id 标签ID
      */
     public void decrementUsageCount(Long id) {
         log.debug("Decrementing usage count for tag ID: {}", id);
-        Tag tag = findById(id);
-        tag.decrementUsage();
-        tagRepository.save(tag);
+        findById(id);
+        tagUsageRepository.recalculate(id);
+        usageCountsChanged();
     }
 
     /**
@@ -253,10 +271,10 @@ public class TagService {
     public void recalculateUsageCount(Long id) {
         log.info("Recalculating usage count for tag ID: {}", id);
         Tag tag = findById(id);
-        int actualCount = tag.getPostCount();
-        tag.setUsageCount(actualCount);
-        tagRepository.save(tag);
-        log.info("Updated usage count for tag {}: {} -> {}", tag.getName(), tag.getUsageCount(), actualCount);
+        int previousCount = tag.getUsageCount();
+        int actualCount = tagUsageRepository.recalculate(id);
+        usageCountsChanged();
+        log.info("Updated usage count for tag {}: {} -> {}", tag.getName(), previousCount, actualCount);
     }
 
     // ==================== 搜索和发现 ====================
@@ -491,27 +509,25 @@ public class TagService {
     }
 
     /**
-     * 重新计算所有标签的使用计数
+     * 重新计算所有标签的使用计数（一条 UPDATE 语句完成）
      */
     public void recalculateAllUsageCounts() {
         log.info("Recalculating all tag usage counts");
-        List<Tag> allTags = findAll();
-        int updatedCount = 0;
-
-        for (Tag tag : allTags) {
-            try {
-                recalculateUsageCount(tag.getId());
-                updatedCount++;
-            } catch (Exception e) {
-                log.warn("Failed to recalculate usage count for tag {}: {}", tag.getName(), e.getMessage());
-            }
-        }
-
+        int updatedCount = tagUsageRepository.recalculateAll();
+        usageCountsChanged();
         log.info("Recalculated usage counts for {} tags", updatedCount);
     }
 
     // ==================== 私有辅助方法 ====================
 
+    /**
+     * 使用次数由触发器或 SQL 直接修改，不触发实体监听器：提交后刷新标签词典，并递增标签的内容版本号使公共接口的 ETag 失效
+     */
+    private void usageCountsChanged() {
+        tagDictionary.usageCountsChanged();
+        contentRevision.bump(ContentRevision.Family.TAGS);
+    }
+
     /**
      * 验证标签输入
      *
@@ -562,6 +578,16 @@ public class TagService {
         return sanitized;
     }
 
+    /**
+     * 使关联文章的详情缓存失效（标签名称、slug 包含在文章详情中）
+     */
+    private void evictPostDetails(Collection<Post> posts) {
+        if (posts == null) {
+            return;
+        }
+        posts.forEach(post -> postDetailCache.evict(post.getId()));
+    }
+
     // ==================== 标签管理和验证 ====================
 
     /**
@@ -905,9 +931,9 @@ public class TagService {
             sourceTag.removePost(post);
             postRepository.save(post);
         }
+        evictPostDetails(sourcePosts);
 
-        // 保存目标标签（更新使用计数）
-        targetTag.setUsageCount(targetTag.getPostCount());
+        // 保存目标标签（写入关联，使用计数由触发器随关联更新）
         tagRepository.save(targetTag);
 
         // 记录合并信息
@@ -923,6 +949,7 @@ public class TagService {
 
         // 删除源标签
         tagRepository.delete(sourceTag);
+        usageCountsChanged();
 
         log.info("Successfully merged tag '{}' into '{}' with {} posts transferred",
                 sourceTag.getName(), targetTag.getName(), sourcePosts.size());
@@ -982,6 +1009,7 @@ public class TagService {
 
     /**
      * 建议标签合并（基于相似名称）
+     * 只对长度和公共二元组数满足相似度下限的名称对计算编辑距离，结果缓存到标签集合下次变化
      *
      * @param similarityThreshold 相似度阈值（0.0-1.0）
      * @return 合并建议列表
@@ -990,87 +1018,68 @@ public class TagService {
     public List<Map<String, Object>> suggestTagMerges(double similarityThreshold) {
         log.debug("Suggesting tag merges with similarity threshold: {}", similarityThreshold);
 
-        List<Tag> allTags = tagRepository.findAll();
-        List<Map<String, Object>> suggestions = new ArrayList<>();
-
-        for (int i = 0; i < allTags.size(); i++) {
-            for (int j = i + 1; j < allTags.size(); j++) {
-                Tag tag1 = allTags.get(i);
-                Tag tag2 = allTags.get(j);
-
-                double similarity = calculateNameSimilarity(tag1.getName(), tag2.getName());
-                if (similarity >= similarityThreshold) {
-                    Map<String, Object> suggestion = new HashMap<>();
-                    suggestion.put("tag1", Map.of("id", tag1.getId(), "name", tag1.getName(), "usageCount", tag1.getUsageCount()));
-                    suggestion.put("tag2", Map.of("id", tag2.getId(), "name", tag2.getName(), "usageCount", tag2.getUsageCount()));
-                    suggestion.put("similarity", similarity);
-                    suggestion.put("recommendedTarget", tag1.getUsageCount() >= tag2.getUsageCount() ? tag1.getId() : tag2.getId());
-                    suggestions.add(suggestion);
-                }
-            }
+        // 先读版本号再读标签，期间发生的变更只会让缓存提前失效
+        long revision = tagDictionary.revision();
+        MergeSuggestions cached = mergeSuggestionCache.get();
+        if (cached != null && cached.revision() == revision
+                && Double.compare(cached.threshold(), similarityThreshold) == 0) {
+            return cached.suggestions();
         }
 
-        return suggestions.stream()
-                .sorted((s1, s2) -> Double.compare((Double) s2.get("similarity"), (Double) s1.get("similarity")))
-                .collect(Collectors.toList());
+        List<Map<String, Object>> suggestions = computeMergeSuggestions(tagRepository.findAll(), similarityThreshold);
+        mergeSuggestionCache.set(new MergeSuggestions(revision, similarityThreshold, suggestions));
+        return suggestions;
     }
 
     /**
-     * 计算两个标签名称的相似度（简单的Levenshtein距离算法）
+     * 计算合并建议（包内可见，供基准测试调用）
      *
-     * @param name1 名称1
-     * @param name2 名称2
-     * @return 相似度（0.0-1.0）
+     * @param allTags             全部标签
+     * @param similarityThreshold 相似度阈值
+     * @return 按相似度降序排列的合并建议
      */
-    private double calculateNameSimilarity(String name1, String name2) {
-        if (name1 == null || name2 == null) {
-            return 0.0;
-        }
-
-        String s1 = name1.toLowerCase().trim();
-        String s2 = name2.toLowerCase().trim();
-
-        if (s1.equals(s2)) {
-            return 1.0;
-        }
+    List<Map<String, Object>> computeMergeSuggestions(List<Tag> allTags, double similarityThreshold) {
+        List<String> names = allTags.stream()
+                .map(tag -> tag.getName() != null ? tag.getName().toLowerCase().trim() : null)
+                .collect(Collectors.toList());
 
-        int maxLength = Math.max(s1.length(), s2.length());
-        if (maxLength == 0) {
-            return 1.0;
+        List<TagSimilarityIndex.SimilarPair> pairs = new ArrayList<>(
+                TagSimilarityIndex.findSimilarPairs(names, similarityThreshold));
+        // 相似度相同时保持原先两两比较的顺序
+        pairs.sort(Comparator.comparingDouble(TagSimilarityIndex.SimilarPair::similarity).reversed()
+                .thenComparingInt(TagSimilarityIndex.SimilarPair::first)
+                .thenComparingInt(TagSimilarityIndex.SimilarPair::second));
+
+        List<Map<String, Object>> suggestions = new ArrayList<>(pairs.size());
+        for (TagSimilarityIndex.SimilarPair pair : pairs) {
+            Tag tag1 = allTags.get(pair.first());
+            Tag tag2 = allTags.get(pair.second());
+            Map<String, Object> suggestion = new HashMap<>();
+            suggestion.put("tag1", Map.of("id", tag1.getId(), "name", tag1.getName(), "usageCount", tag1.getUsageCount()));
+            suggestion.put("tag2", Map.of("id", tag2.getId(), "name", tag2.getName(), "usageCount", tag2.getUsageCount()));
+            suggestion.put("similarity", pair.similarity());
+            suggestion.put("recommendedTarget", tag1.getUsageCount() >= tag2.getUsageCount() ? tag1.getId() : tag2.getId());
+            suggestions.add(Collections.unmodifiableMap(suggestion));
         }
-
-        int distance = calculateLevenshteinDistance(s1, s2);
-        return 1.0 - (double) distance / maxLength;
+        return Collections.unmodifiableList(suggestions);
     }
 
     /**
-     * 计算Levenshtein距离
+     * 计算Levenshtein距离（包内可见，供基准测试调用）
      *
      * @param s1 字符串1
      * @param s2 字符串2
      * @return 距离
      */
-    private int calculateLevenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
-        }
-
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
-                dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + cost
-                );
-            }
-        }
+    int calculateLevenshteinDistance(String s1, String s2) {
+        int limit = Math.max(s1.length(), s2.length());
+        return TagSimilarityIndex.boundedDistance(s1, s2, limit, new int[s2.length() + 1], new int[s2.length() + 1]);
+    }
 
-        return dp[s1.length()][s2.length()];
+    /**
+     * 合并建议缓存
+     */
+    private record MergeSuggestions(long revision, double threshold, List<Map<String, Object>> suggestions) {
     }
 
     // ==================== 书签绑定需求特有功能 ====================
@@ -1141,6 +1150,8 @@ public class TagService {
             tag.addPost(post);
             postRepository.save(post);
             tagRepository.save(tag);
+            postDetailCache.evict(postId);
+            usageCountsChanged();
             log.debug("Successfully added post {} to tag {}", postId, tagId);
         } else {
             log.debug("Post {} is already associated with tag {}", postId, tagId);
@@ -1164,6 +1175,8 @@ public class TagService {
             tag.removePost(post);
             postRepository.save(post);
             tagRepository.save(tag);
+            postDetailCache.evict(postId);
+            usageCountsChanged();
             log.debug("Successfully removed post {} from tag {}", postId, tagId);
         } else {
             log.debug("Post {} is not associated with tag {}", postId, tagId);
@@ -1195,6 +1208,7 @@ public class TagService {
                     post.getTags().add(tag);
                     tag.addPost(post);
                     postRepository.save(post);
+                    postDetailCache.evict(postId);
                     addedCount++;
                 }
             } catch (Exception e) {
@@ -1204,6 +1218,7 @@ public class TagService {
 
         if (addedCount > 0) {
             tagRepository.save(tag);
+            usageCountsChanged();
         }
 
         log.info("Successfully added {} posts to tag {}", addedCount, tagId);
@@ -1234,6 +1249,7 @@ public class TagService {
                     post.getTags().remove(tag);
                     tag.removePost(post);
                     postRepository.save(post);
+                    postDetailCache.evict(postId);
                     removedCount++;
                 }
             } catch (Exception e) {
@@ -1243,6 +1259,7 @@ public class TagService {
 
         if (removedCount > 0) {
             tagRepository.save(tag);
+            usageCountsChanged();
         }
 
         log.info("Successfully removed {} posts from tag {}", removedCount, tagId);
@@ -0,0 +1,300 @@
+package wiki.kana.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 标签名称相似对查找（标签合并建议用）
+ * <p>
+ * 相似度定义为 1 - 编辑距离 / 较长名称长度。给定阈值后，长度为 L 的名称只可能与长度在 [L-k, L] 内的名称相似
+ * （k 为允许的最大编辑距离），且两者补齐首尾后的二元组至少共享 L+1-2k 个（每次编辑最多破坏两个二元组）。
+ * 按二元组建立倒排表，每个名称只与满足长度窗口和公共二元组下限的候选计算编辑距离，编辑距离用两行滚动数组并在
+ * 超过 k 时提前结束。各名称的候选查找互不依赖，用 fork/join 分段并行
+ */
+final class TagSimilarityIndex {
+
+    /**
+     * 每个叶子任务处理的名称数
+     */
+    private static final int LEAF_SIZE = 64;
+
+    private static final char PAD = '\uffff';
+
+    private final String[] names;
+    private final int[] lengths;
+    private final double threshold;
+
+    /**
+     * 按长度升序排列的名称下标，长度为 L 的名称位于 [lengthStart[L], lengthStart[L+1])
+     */
+    private final int[] byLength;
+    private final int[] lengthStart;
+
+    /**
+     * 每个名称的二元组及出现次数（按二元组升序）
+     */
+    private final int[][] nameGrams;
+    private final int[][] nameGramCounts;
+
+    /**
+     * 二元组 → 含有它的名称下标和出现次数
+     */
+    private final Map<Integer, int[][]> postings;
+
+    private final int maxLength;
+
+    private TagSimilarityIndex(List<String> names, double threshold) {
+        int n = names.size();
+        this.names = names.toArray(new String[0]);
+        this.threshold = threshold;
+        this.lengths = new int[n];
+        int longest = 0;
+        for (int i = 0; i < n; i++) {
+            lengths[i] = this.names[i] != null ? this.names[i].length() : -1;
+            longest = Math.max(longest, lengths[i]);
+        }
+        this.maxLength = longest;
+
+        this.lengthStart = new int[longest + 2];
+        for (int length : lengths) {
+            if (length >= 0) {
+                lengthStart[length + 1]++;
+            }
+        }
+        for (int l = 0; l <= longest; l++) {
+            lengthStart[l + 1] += lengthStart[l];
+        }
+        this.byLength = new int[lengthStart[longest + 1]];
+        int[] fill = Arrays.copyOf(lengthStart, longest + 1);
+        for (int i = 0; i < n; i++) {
+            if (lengths[i] >= 0) {
+                byLength[fill[lengths[i]]++] = i;
+            }
+        }
+
+        this.nameGrams = new int[n][];
+        this.nameGramCounts = new int[n][];
+        Map<Integer, List<int[]>> building = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (lengths[i] < 0) {
+                continue;
+            }
+            int[] grams = paddedBigrams(this.names[i]);
+            Arrays.sort(grams);
+            int distinct = 0;
+            int[] counts = new int[grams.length];
+            for (int g = 0; g < grams.length; g++) {
+                if (distinct > 0 && grams[distinct - 1] == grams[g]) {
+                    counts[distinct - 1]++;
+                } else {
+                    grams[distinct] = grams[g];
+                    counts[distinct++] = 1;
+                }
+            }
+            nameGrams[i] = Arrays.copyOf(grams, distinct);
+            nameGramCounts[i] = Arrays.copyOf(counts, distinct);
+            for (int g = 0; g < distinct; g++) {
+                building.computeIfAbsent(nameGrams[i][g], key -> new ArrayList<>()).add(new int[]{i, counts[g]});
+            }
+        }
+        this.postings = new HashMap<>(Math.max(16, building.size() * 2));
+        building.forEach((gram, list) -> {
+            int[] ids = new int[list.size()];
+            int[] counts = new int[list.size()];
+            for (int p = 0; p < list.size(); p++) {
+                ids[p] = list.get(p)[0];
+                counts[p] = list.get(p)[1];
+            }
+            postings.put(gram, new int[][]{ids, counts});
+        });
+    }
+
+    /**
+     * 查找相似度不低于阈值的所有名称对
+     *
+     * @param names     名称（已规范化，null 表示不参与比较）
+     * @param threshold 相似度阈值
+     * @return 名称对，first &lt; second，未排序
+     */
+    static List<SimilarPair> findSimilarPairs(List<String> names, double threshold) {
+        if (names.size() < 2 || threshold > 1.0) {
+            return new ArrayList<>();
+        }
+        TagSimilarityIndex index = new TagSimilarityIndex(names, threshold);
+        return ForkJoinPool.commonPool().invoke(index.new SearchTask(0, names.size()));
+    }
+
+    /**
+     * 两个字符串的编辑距离，超过 limit 时提前结束并返回 limit + 1
+     * prev 和 curr 为调用方提供的滚动行，长度至少为 b.length() + 1
+     */
+    static int boundedDistance(String a, String b, int limit, int[] prev, int[] curr) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > limit) {
+            return limit + 1;
+        }
+        for (int j = 0; j <= lb; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= la; i++) {
+            curr[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= lb; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+                curr[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[lb] <= limit ? prev[lb] : limit + 1;
+    }
+
+    /**
+     * 较长名称长度为 length 时允许的最大编辑距离（与相似度的浮点计算保持一致）
+     */
+    private int maxDistance(int length) {
+        int k = (int) Math.floor((1.0 - threshold) * length);
+        while (k + 1 <= length && 1.0 - (double) (k + 1) / length >= threshold) {
+            k++;
+        }
+        while (k >= 0 && 1.0 - (double) k / length < threshold) {
+            k--;
+        }
+        return k;
+    }
+
+    private static int[] paddedBigrams(String name) {
+        int length = name.length();
+        int[] grams = new int[length + 1];
+        char previous = PAD;
+        for (int j = 0; j <= length; j++) {
+            char current = j < length ? name.charAt(j) : PAD;
+            grams[j] = previous << 16 | current;
+            previous = current;
+        }
+        return grams;
+    }
+
+    /**
+     * 为下标在 [from, to) 内的名称查找相似名称：每对只由较长的一方（等长时由下标较小的一方）负责
+     */
+    private final class SearchTask extends RecursiveTask<List<SimilarPair>> {
+
+        private final int from;
+        private final int to;
+
+        SearchTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SimilarPair> compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                SearchTask left = new SearchTask(from, middle);
+                left.fork();
+                List<SimilarPair> right = new SearchTask(middle, to).compute();
+                List<SimilarPair> result = left.join();
+                result.addAll(right);
+                return result;
+            }
+
+            List<SimilarPair> result = new ArrayList<>();
+            int[] shared = new int[names.length];
+            int[] touched = new int[names.length];
+            int[] prev = new int[maxLength + 1];
+            int[] curr = new int[maxLength + 1];
+            for (int i = from; i < to; i++) {
+                if (lengths[i] >= 0) {
+                    search(i, result, shared, touched, prev, curr);
+                }
+            }
+            return result;
+        }
+
+        private void search(int i, List<SimilarPair> result, int[] shared, int[] touched, int[] prev, int[] curr) {
+            int length = lengths[i];
+            if (length == 0) {
+                // 两个空名称视为相同
+                for (int p = lengthStart[0]; p < lengthStart[1]; p++) {
+                    if (byLength[p] > i) {
+                        result.add(new SimilarPair(i, byLength[p], 1.0));
+                    }
+                }
+                return;
+            }
+            int k = maxDistance(length);
+            if (k < 0) {
+                return;
+            }
+            int minLength = Math.max(0, length - k);
+            int required = length + 1 - 2 * k;
+
+            if (required <= 0) {
+                // 阈值过低时二元组过滤无效，长度窗口内的名称都需要比较
+                for (int p = lengthStart[minLength]; p < lengthStart[length + 1]; p++) {
+                    int other = byLength[p];
+                    if (lengths[other] < length || other > i) {
+                        verify(i, other, length, k, result, prev, curr);
+                    }
+                }
+                return;
+            }
+
+            int touchedCount = 0;
+            int[] grams = nameGrams[i];
+            int[] counts = nameGramCounts[i];
+            for (int g = 0; g < grams.length; g++) {
+                int[][] posting = postings.get(grams[g]);
+                int[] ids = posting[0];
+                int[] postingCounts = posting[1];
+                for (int p = 0; p < ids.length; p++) {
+                    int other = ids[p];
+                    int otherLength = lengths[other];
+                    if (otherLength < minLength || otherLength > length || (otherLength == length && other <= i)) {
+                        continue;
+                    }
+                    if (shared[other] == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                    shared[other] += Math.min(counts[g], postingCounts[p]);
+                }
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                if (shared[other] >= required) {
+                    verify(i, other, length, k, result, prev, curr);
+                }
+                shared[other] = 0;
+            }
+        }
+
+        private void verify(int i, int other, int length, int k, List<SimilarPair> result, int[] prev, int[] curr) {
+            int distance = boundedDistance(names[i], names[other], k, prev, curr);
+            if (distance <= k) {
+                double similarity = 1.0 - (double) distance / length;
+                result.add(new SimilarPair(Math.min(i, other), Math.max(i, other), similarity));
+            }
+        }
+    }
+
+    /**
+     * 相似名称对（下标对应传入的名称列表）
+     */
+    record SimilarPair(int first, int second, double similarity) {
+    }
+}
@@ -27,6 +27,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PostDetailCache postDetailCache;
+    private final ContentRevision contentRevision;
 
     // ==================== CRUD 操作 ====================
 
@@ -216,6 +218,9 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(existingUser);
+        // 作者用户名、昵称包含在文章详情和列表中；登录时间等其他字段不出现在公共接口，不递增版本号
+        postDetailCache.evictAll();
+        contentRevision.bump(ContentRevision.Family.AUTHORS);
         log.info("Successfully updated user with ID: {}", updatedUser.getId());
 
         return updatedUser;
@@ -424,6 +429,7 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
+        contentRevision.bump(ContentRevision.Family.AUTHORS);
         log.info("Successfully deleted user with ID: {}", id);
     }
 
@@ -0,0 +1,134 @@
+package wiki.kana.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 文章浏览量写回缓冲
+ * 读请求只在内存中累加计数，由定时任务批量执行 view_count = view_count + ? 写回数据库；
+ * 每篇文章一个 LongAdder，热门文章的并发浏览分散到多个单元累加，不在同一个哈希桶上竞争；
+ * 写回时用 sumThenReset 取出增量，只移除取出后仍为零的计数器，缓冲中只保留两次写回之间被浏览过的文章；
+ * 浏览量不参与内容版本号，写回不会让公共读接口的 ETag 失效，304 响应中的浏览量可能偏旧
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ViewCountBuffer {
+
+    private static final String FLUSH_SQL = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PostDetailCache postDetailCache;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 上次写回时移除的计数器：判断为零与移除之间到达的浏览仍累加在旧计数器上，下次写回时一并取出
+     */
+    private final Map<Long, LongAdder> retired = new HashMap<>();
+
+    /**
+     * 记录一次浏览（只在内存中原子累加，不访问数据库）
+     */
+    public void increment(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        LongAdder adder = pending.computeIfAbsent(postId, id -> new LongAdder());
+        adder.increment();
+        // 取到计数器后写回恰好把它移除了：把这次累加转回新的计数器（sumThenReset 逐单元原子清零，不会重复计数）
+        if (pending.get(postId) != adder) {
+            long orphaned = adder.sumThenReset();
+            if (orphaned > 0) {
+                pending.computeIfAbsent(postId, id -> new LongAdder()).add(orphaned);
+            }
+        }
+    }
+
+    /**
+     * 获取尚未写回数据库的浏览量
+     */
+    public long getPending(Long postId) {
+        LongAdder adder = postId != null ? pending.get(postId) : null;
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * 缓冲中有待写回浏览量的文章数
+     */
+    public int pendingPosts() {
+        return pending.size();
+    }
+
+    /**
+     * 定时将累计的浏览量批量写回数据库（同一事务内提交）
+     */
+    @Scheduled(fixedDelayString = "${app.posts.view-count.flush-interval:5000}")
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : retired.entrySet()) {
+            collect(deltas, entry.getKey(), entry.getValue().sumThenReset());
+        }
+        retired.clear();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            collect(deltas, entry.getKey(), adder.sumThenReset());
+            // 取出后又有新浏览的保留，留给下次写回
+            if (adder.sum() == 0 && pending.remove(entry.getKey(), adder)) {
+                retired.put(entry.getKey(), adder);
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((postId, delta) -> batch.add(new Object[]{delta, postId}));
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+            // 已写回的增量同步到详情缓存，缓存条目无需重新加载
+            for (Object[] row : batch) {
+                postDetailCache.addViewCount((Long) row[1], (Long) row[0]);
+            }
+            log.debug("已写回 {} 篇博客的浏览量", batch.size());
+        } catch (Exception e) {
+            // 写回失败时把增量放回缓冲，等待下次重试
+            for (Object[] row : batch) {
+                pending.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+            log.warn("浏览量写回失败，将在下次重试: {}", e.getMessage());
+        }
+    }
+
+    private static void collect(Map<Long, Long> deltas, Long postId, long delta) {
+        if (delta > 0) {
+            deltas.merge(postId, delta, Long::sum);
+        }
+    }
+
+    /**
+     * 应用关闭前写回剩余的浏览量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("应用关闭，写回剩余浏览量");
+        flush();
+    }
+}
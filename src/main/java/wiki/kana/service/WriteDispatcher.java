@@ -0,0 +1,328 @@
+package wiki.kana.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+import wiki.kana.exception.WriteQueueFullException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 单写者写入调度器
+ * <p>
+ * SQLite 同一时间只允许一个写者。所有写操作提交到有界队列，由唯一的写线程依次取出执行：
+ * 队列中积压的多个写操作合并在一个事务里提交（group commit），合并事务失败时逐个重新执行，
+ * 只有真正出错的操作返回异常。队列已满时调用方最多等待 offer-timeout，仍无法入队则抛出
+ * {@link WriteQueueFullException}。
+ * <p>
+ * 写操作在写线程的事务中执行，返回值应在操作内部完成映射，不要依赖事务外的懒加载。
+ * 合并事务回滚后操作会被再次执行，要持久化的实体必须在操作内部创建：回滚不会撤销实体上已分配的
+ * ID 和版本号，复用上一次执行修改过的实体会被当作已存在的记录合并。
+ */
+@Slf4j
+@Component
+public class WriteDispatcher {
+
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<WriteCommand<?>> queue;
+    private final int maxBatchSize;
+    private final long offerTimeoutMillis;
+    private final long executeTimeoutMillis;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder committedBatches = new LongAdder();
+    private final LongAdder committedCommands = new LongAdder();
+    private final LongAdder failedCommands = new LongAdder();
+    private final LongAdder splitBatches = new LongAdder();
+    private final LongAdder busyErrors = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public WriteDispatcher(PlatformTransactionManager transactionManager,
+                           @Value("${app.write-queue.capacity:1024}") int capacity,
+                           @Value("${app.write-queue.max-batch-size:32}") int maxBatchSize,
+                           @Value("${app.write-queue.offer-timeout:2000}") long offerTimeoutMillis,
+                           @Value("${app.write-queue.execute-timeout:30000}") long executeTimeoutMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.executeTimeoutMillis = executeTimeoutMillis;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "sqlite-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("写入调度器已启动，队列容量: {}，单批最多: {}", queue.remainingCapacity(), maxBatchSize);
+    }
+
+    /**
+     * 停止接收新写入，等待队列中已有的写操作执行完毕
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread current = writer;
+        running = false;
+        if (current != null) {
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        // 停止前一刻才入队、没有被执行的写操作
+        List<WriteCommand<?>> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(command -> command.future.completeExceptionally(
+                new IllegalStateException("Write dispatcher stopped before executing the write")));
+        log.info("写入调度器已停止");
+    }
+
+    /**
+     * 提交写操作，返回在事务提交后完成的 Future
+     * 在写线程或已有读写事务中调用时直接在当前事务内执行，避免等待自身造成死锁
+     *
+     * @throws WriteQueueFullException 队列已满且等待超时
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> action) {
+        if (runsInline()) {
+            try {
+                return CompletableFuture.completedFuture(action.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return enqueue(action).future;
+    }
+
+    private <T> WriteCommand<T> enqueue(Supplier<T> action) {
+        if (!running) {
+            throw new IllegalStateException("Write dispatcher is not running");
+        }
+
+        WriteCommand<T> command = new WriteCommand<>(action);
+        boolean accepted;
+        try {
+            accepted = queue.offer(command, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteQueueFullException("Interrupted while waiting for the write queue");
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new WriteQueueFullException("Write queue is full, please retry later");
+        }
+        submitted.increment();
+        return command;
+    }
+
+    /**
+     * 提交写操作并等待结果，操作抛出的运行时异常原样抛出
+     * 最多等待 execute-timeout：超时时仍在排队的操作从队列移除不再执行，已在执行的操作继续完成
+     *
+     * @throws WriteQueueFullException 队列已满或等待结果超时
+     */
+    public <T> T execute(Supplier<T> action) {
+        if (runsInline()) {
+            return action.get();
+        }
+
+        WriteCommand<T> command = enqueue(action);
+        try {
+            return command.future.get(executeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            if (queue.remove(command)) {
+                command.future.cancel(false);
+                throw new WriteQueueFullException("Write was not started within " + executeTimeoutMillis + " ms");
+            }
+            throw new WriteQueueFullException("Write did not complete within " + executeTimeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteQueueFullException("Interrupted while waiting for the write to complete");
+        }
+    }
+
+    /**
+     * 提交无返回值的写操作并等待完成
+     */
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 获取队列和提交统计
+     */
+    public Stats stats() {
+        return Stats.builder()
+                .queueSize(queue.size())
+                .remainingCapacity(queue.remainingCapacity())
+                .submitted(submitted.sum())
+                .rejected(rejected.sum())
+                .committedBatches(committedBatches.sum())
+                .committedCommands(committedCommands.sum())
+                .failedCommands(failedCommands.sum())
+                .splitBatches(splitBatches.sum())
+                .busyErrors(busyErrors.sum())
+                .timedOut(timedOut.sum())
+                .build();
+    }
+
+    private boolean runsInline() {
+        return Thread.currentThread() == writer
+                || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    private void drainLoop() {
+        List<WriteCommand<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                WriteCommand<?> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                // 写线程不能退出，未完成的 Future 以异常结束
+                log.error("写入调度器处理批次失败", t);
+                batch.forEach(command -> command.future.completeExceptionally(t));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<WriteCommand<?>> batch) {
+        if (batch.size() == 1) {
+            executeAlone(batch.get(0));
+            return;
+        }
+
+        List<Object> results;
+        try {
+            results = transactionTemplate.execute(status -> {
+                List<Object> values = new ArrayList<>(batch.size());
+                for (WriteCommand<?> command : batch) {
+                    values.add(command.action.get());
+                }
+                return values;
+            });
+        } catch (RuntimeException | Error e) {
+            // 合并事务已整体回滚，逐个重新执行以隔离失败的操作
+            log.debug("合并提交失败，拆分为 {} 个独立事务: {}", batch.size(), e.getMessage());
+            splitBatches.increment();
+            countBusy(e);
+            batch.forEach(this::executeAlone);
+            return;
+        }
+
+        committedBatches.increment();
+        committedCommands.add(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+
+    private <T> void executeAlone(WriteCommand<T> command) {
+        try {
+            T result = transactionTemplate.execute(status -> command.action.get());
+            committedBatches.increment();
+            committedCommands.increment();
+            command.future.complete(result);
+        } catch (RuntimeException | Error e) {
+            failedCommands.increment();
+            countBusy(e);
+            command.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 统计 busy_timeout 耗尽仍未拿到锁的失败（异常链中的 SQLITE_BUSY / SQLITE_LOCKED）
+     */
+    private void countBusy(Throwable error) {
+        for (Throwable t = error; t != null && t.getCause() != t; t = t.getCause()) {
+            if (t instanceof SQLiteException sqliteException) {
+                int primaryCode = sqliteException.getResultCode().code & 0xff;
+                if (primaryCode == SQLiteErrorCode.SQLITE_BUSY.code || primaryCode == SQLiteErrorCode.SQLITE_LOCKED.code) {
+                    busyErrors.increment();
+                }
+                return;
+            }
+        }
+    }
+
+    private static final class WriteCommand<T> {
+        private final Supplier<T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private WriteCommand(Supplier<T> action) {
+            this.action = action;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+
+    /**
+     * 写入调度统计
+     */
+    @Getter
+    @Builder
+    public static class Stats {
+        private final int queueSize;
+        private final int remainingCapacity;
+        private final long submitted;
+        private final long rejected;
+        private final long committedBatches;
+        private final long committedCommands;
+        private final long failedCommands;
+        private final long splitBatches;
+        private final long busyErrors;
+        private final long timedOut;
+    }
+}
@@ -0,0 +1,54 @@
+package wiki.kana.service.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import wiki.kana.repository.PostSearchRepository;
+import wiki.kana.repository.projection.PostSearchHit;
+
+/**
+ * 基于 SQLite FTS5 的检索索引
+ * 索引由 posts 表上的触发器在写事务内同步，index/remove 无需额外操作
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "fts", matchIfMissing = true)
+public class FtsSearchIndex implements SearchIndex {
+
+    private final PostSearchRepository postSearchRepository;
+
+    @Override
+    public Page<PostSearchHit> search(String keyword, Pageable pageable) {
+        return postSearchRepository.searchPublished(keyword, pageable);
+    }
+
+    @Override
+    public void index(SearchDocument document) {
+        // 由触发器同步
+    }
+
+    @Override
+    public void remove(Long postId) {
+        // 由触发器同步
+    }
+
+    @Override
+    public void rebuild() {
+        log.info("重建 FTS5 全文索引");
+        postSearchRepository.rebuild();
+    }
+
+    @Override
+    public SearchIndexReport checkConsistency() {
+        return SearchIndexReport.builder()
+                .engine("fts")
+                .expectedCount(postSearchRepository.countSourcePosts())
+                .indexedCount(postSearchRepository.countIndexedPosts())
+                .intact(postSearchRepository.integrityCheck())
+                .build();
+    }
+}
@@ -0,0 +1,749 @@
+package wiki.kana.service.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+import wiki.kana.entity.Post;
+import wiki.kana.repository.PostRepository;
+import wiki.kana.repository.projection.PostRevisionView;
+import wiki.kana.repository.projection.PostSearchHit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 进程内倒排索引
+ * 只索引已发布文章，检索完全在内存中完成（BM25 排序），由 PostService 在写事务提交后增量更新，
+ * 定时和关闭时把索引压缩写入快照文件，启动时加载快照并与 posts 表比对，不一致时全量重建。
+ * 每篇文章只保留一份去掉 HTML 标签的纯文本（短语确认和片段都用它）；删除和更新只把旧文档序号标记为空位，
+ * 倒排列表中的空位在检索时跳过，空位超过阈值时压缩文档序号并重写倒排列表。
+ * 全量重建在锁外加载文章，期间的增量更新同时记入变更日志，替换索引前在写锁内重放，避免被重建结果覆盖
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemorySearchIndex implements SearchIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x4B534958;
+    private static final int SNAPSHOT_VERSION = 2;
+
+    /**
+     * 空位数不少于该值且超过存活文档数的 COMPACT_RATIO 时压缩
+     */
+    private static final int COMPACT_MIN_TOMBSTONES = 64;
+    private static final double COMPACT_RATIO = 0.25;
+
+    private static final int TITLE_WEIGHT = 5;
+    private static final int EXCERPT_WEIGHT = 2;
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    private static final String HIGHLIGHT_OPEN = "<mark>";
+    private static final String HIGHLIGHT_CLOSE = "</mark>";
+    private static final int SNIPPET_BEFORE = 20;
+    private static final int SNIPPET_LENGTH = 80;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final PostRepository postRepository;
+    private final Path snapshotPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private IndexData data = new IndexData();
+    private volatile boolean dirty;
+
+    /**
+     * 重建期间的增量变更（文章ID → 最新文档，null 表示移除），没有重建时为 null；由写锁保护
+     */
+    private Map<Long, SearchDocument> pendingChanges;
+
+    public InMemorySearchIndex(PostRepository postRepository,
+                               @Value("${app.search.memory.snapshot-path:data/search-index.snapshot.gz}") String snapshotPath) {
+        this.postRepository = postRepository;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    // ==================== 生命周期 ====================
+
+    /**
+     * 启动时加载快照，快照缺失或与数据库不一致时全量重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (loadSnapshot()) {
+            SearchIndexReport report = checkConsistency();
+            if (report.isConsistent()) {
+                log.info("已从快照加载检索索引，共 {} 篇文章", report.getIndexedCount());
+                return;
+            }
+            log.warn("检索索引快照与数据库不一致（缺失 {}，过期 {}，多余 {}），重建索引",
+                    report.getMissingIds().size(), report.getStaleIds().size(), report.getExtraIds().size());
+        }
+        rebuild();
+    }
+
+    /**
+     * 定时写入快照（仅在索引有变化时）
+     */
+    @Scheduled(fixedDelayString = "${app.search.memory.snapshot-interval:60000}")
+    public void saveSnapshotIfDirty() {
+        if (dirty) {
+            saveSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        saveSnapshotIfDirty();
+    }
+
+    // ==================== SearchIndex ====================
+
+    @Override
+    public Page<PostSearchHit> search(String keyword, Pageable pageable) {
+        List<String> phrases = Arrays.stream(keyword.trim().toLowerCase(Locale.ROOT).split("\\s+"))
+                .filter(phrase -> !phrase.isEmpty())
+                .collect(Collectors.toList());
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.queryTokens(keyword)));
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<ScoredDoc> matches = match(data, tokens, phrases);
+            matches.sort(Comparator.comparingDouble((ScoredDoc doc) -> doc.score).reversed()
+                    .thenComparing(doc -> doc.entry.publishedAt, Comparator.reverseOrder())
+                    .thenComparing(doc -> doc.entry.postId, Comparator.reverseOrder()));
+
+            int from = (int) Math.min(pageable.getOffset(), matches.size());
+            int to = Math.min(from + pageable.getPageSize(), matches.size());
+            List<PostSearchHit> hits = matches.subList(from, to).stream()
+                    .map(doc -> new PostSearchHit(
+                            doc.entry.postId,
+                            -doc.score,
+                            highlight(doc.entry.title, phrases),
+                            snippet(doc.entry.body, phrases)))
+                    .collect(Collectors.toList());
+            return new PageImpl<>(hits, pageable, matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(SearchDocument document) {
+        if (document == null || document.getPostId() == null) {
+            return;
+        }
+        if (!document.isPublished()) {
+            remove(document.getPostId());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            data.remove(document.getPostId());
+            data.add(document);
+            data.compactIfNeeded();
+            dirty = true;
+            if (pendingChanges != null) {
+                pendingChanges.put(document.getPostId(), document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long postId) {
+        if (postId == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (data.remove(postId)) {
+                data.compactIfNeeded();
+                dirty = true;
+            }
+            // 旧索引中没有也要记录，重建加载时可能读到了移除前的数据
+            if (pendingChanges != null) {
+                pendingChanges.put(postId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IndexData rebuilt = new IndexData();
+        try {
+            for (Post post : postRepository.findByStatus(Post.PostStatus.PUBLISHED)) {
+                rebuilt.add(SearchDocument.from(post));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            // 重放加载期间的增量变更后再替换，两步之间不能有新的变更插入
+            replayed = pendingChanges.size();
+            for (Map.Entry<Long, SearchDocument> change : pendingChanges.entrySet()) {
+                rebuilt.remove(change.getKey());
+                if (change.getValue() != null) {
+                    rebuilt.add(change.getValue());
+                }
+            }
+            rebuilt.compactIfNeeded();
+            pendingChanges = null;
+            data = rebuilt;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("检索索引重建完成，共 {} 篇文章，重放 {} 条增量变更，耗时 {} ms",
+                rebuilt.liveDocs, replayed, System.currentTimeMillis() - start);
+        saveSnapshot();
+    }
+
+    @Override
+    public SearchIndexReport checkConsistency() {
+        List<PostRevisionView> revisions = postRepository.findPublishedRevisions();
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        List<Long> extra = new ArrayList<>();
+        long indexedCount;
+
+        lock.readLock().lock();
+        try {
+            Set<Long> expected = new HashSet<>();
+            for (PostRevisionView revision : revisions) {
+                expected.add(revision.getId());
+                DocEntry entry = data.get(revision.getId());
+                if (entry == null) {
+                    missing.add(revision.getId());
+                } else if (toMillis(revision.getUpdatedAt()) > entry.updatedAt) {
+                    stale.add(revision.getId());
+                }
+            }
+            for (Long postId : data.ordinals.keySet()) {
+                if (!expected.contains(postId)) {
+                    extra.add(postId);
+                }
+            }
+            indexedCount = data.liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return SearchIndexReport.builder()
+                .engine("memory")
+                .expectedCount(revisions.size())
+                .indexedCount(indexedCount)
+                .missingIds(missing)
+                .staleIds(stale)
+                .extraIds(extra)
+                .build();
+    }
+
+    // ==================== 检索 ====================
+
+    private List<ScoredDoc> match(IndexData index, List<String> tokens, List<String> phrases) {
+        List<IntPostingList> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            IntPostingList list = index.postings.get(token);
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+
+        double avgLength = index.liveDocs > 0 ? (double) index.totalLength / index.liveDocs : 1.0;
+        // 文档频率含尚未压缩的空位，空位比例有上限，对排序影响很小
+        double[] idf = new double[lists.size()];
+        for (int i = 0; i < lists.size(); i++) {
+            int df = lists.get(i).size();
+            idf[i] = Math.log(1 + (index.liveDocs - df + 0.5) / (df + 0.5));
+        }
+
+        List<ScoredDoc> matches = new ArrayList<>();
+        IntPostingList shortest = lists.get(0);
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            int ordinal = shortest.doc(i);
+            DocEntry entry = index.docs.get(ordinal);
+            if (entry == null) {
+                continue;
+            }
+            double norm = BM25_K1 * (1 - BM25_B + BM25_B * entry.length / avgLength);
+            double score = 0;
+            for (int t = 0; t < lists.size(); t++) {
+                int freq = t == 0 ? shortest.freq(i) : lists.get(t).freqOf(ordinal);
+                if (freq == 0) {
+                    continue candidates;
+                }
+                score += idf[t] * freq * (BM25_K1 + 1) / (freq + norm);
+            }
+            // 二元组全部命中后再确认关键词整体出现，避免跨词误命中
+            for (String phrase : phrases) {
+                if (!entry.contains(phrase)) {
+                    continue candidates;
+                }
+            }
+            matches.add(new ScoredDoc(entry, score));
+        }
+        return matches;
+    }
+
+    private String highlight(String text, List<String> phrases) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.length() != text.length()) {
+            return HtmlUtils.htmlEscape(text);
+        }
+
+        // 文本是纯文本，输出前转义，只有 mark 标签是 HTML
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        int plainStart = 0;
+        int position = 0;
+        while (position < text.length()) {
+            int matchedLength = 0;
+            for (String phrase : phrases) {
+                if (phrase.length() > matchedLength && lower.startsWith(phrase, position)) {
+                    matchedLength = phrase.length();
+                }
+            }
+            if (matchedLength > 0) {
+                result.append(HtmlUtils.htmlEscape(text.substring(plainStart, position)))
+                        .append(HIGHLIGHT_OPEN)
+                        .append(HtmlUtils.htmlEscape(text.substring(position, position + matchedLength)))
+                        .append(HIGHLIGHT_CLOSE);
+                position += matchedLength;
+                plainStart = position;
+            } else {
+                position++;
+            }
+        }
+        return result.append(HtmlUtils.htmlEscape(text.substring(plainStart))).toString();
+    }
+
+    private String snippet(String content, List<String> phrases) {
+        if (content == null || content.isEmpty()) {
+            return content;
+        }
+        String lower = content.toLowerCase(Locale.ROOT);
+        int first = -1;
+        for (String phrase : lower.length() == content.length() ? phrases : List.<String>of()) {
+            int index = lower.indexOf(phrase);
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+
+        int start = first > SNIPPET_BEFORE ? first - SNIPPET_BEFORE : 0;
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+        String fragment = highlight(content.substring(start, end), phrases);
+        return (start > 0 ? "…" : "") + fragment + (end < content.length() ? "…" : "");
+    }
+
+    // ==================== 快照 ====================
+
+    /**
+     * 写入压缩快照：文档纯文本 + 以变长整数差值编码的倒排列表，先写临时文件再原子替换
+     */
+    void saveSnapshot() {
+        lock.readLock().lock();
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = Files.createTempFile(parent, "search-index", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                writeSnapshot(data, out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+            log.debug("检索索引快照已写入 {}", snapshotPath);
+        } catch (IOException e) {
+            log.warn("写入检索索引快照失败: {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 加载快照，文件不存在或格式不兼容时返回false
+     */
+    boolean loadSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotPath))))) {
+            IndexData loaded = readSnapshot(in);
+            lock.writeLock().lock();
+            try {
+                data = loaded;
+                dirty = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取检索索引快照失败，将重建索引: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeSnapshot(IndexData index, DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+
+        // 压缩文档序号，跳过已删除的空位
+        int[] remap = new int[index.docs.size()];
+        Arrays.fill(remap, -1);
+        out.writeInt(index.liveDocs);
+        int next = 0;
+        for (int ordinal = 0; ordinal < index.docs.size(); ordinal++) {
+            DocEntry entry = index.docs.get(ordinal);
+            if (entry == null) {
+                continue;
+            }
+            remap[ordinal] = next++;
+            out.writeLong(entry.postId);
+            out.writeLong(entry.publishedAt);
+            out.writeLong(entry.updatedAt);
+            out.writeInt(entry.length);
+            writeString(out, entry.title);
+            writeString(out, entry.excerpt);
+            writeString(out, entry.body);
+        }
+
+        // 倒排列表跳过空位，只剩空位的词不写入
+        int termCount = 0;
+        for (IntPostingList list : index.postings.values()) {
+            if (liveCount(list, remap) > 0) {
+                termCount++;
+            }
+        }
+        out.writeInt(termCount);
+        for (Map.Entry<String, IntPostingList> posting : index.postings.entrySet()) {
+            IntPostingList list = posting.getValue();
+            int live = liveCount(list, remap);
+            if (live == 0) {
+                continue;
+            }
+            writeString(out, posting.getKey());
+            writeVarInt(out, live);
+            int previous = 0;
+            for (int i = 0; i < list.size(); i++) {
+                int ordinal = remap[list.doc(i)];
+                if (ordinal < 0) {
+                    continue;
+                }
+                writeVarInt(out, ordinal - previous);
+                writeVarInt(out, list.freq(i));
+                previous = ordinal;
+            }
+        }
+    }
+
+    private static int liveCount(IntPostingList list, int[] remap) {
+        int live = 0;
+        for (int i = 0; i < list.size(); i++) {
+            if (remap[list.doc(i)] >= 0) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private static IndexData readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported snapshot format");
+        }
+
+        IndexData index = new IndexData();
+        int docCount = in.readInt();
+        for (int i = 0; i < docCount; i++) {
+            long postId = in.readLong();
+            long publishedAt = in.readLong();
+            long updatedAt = in.readLong();
+            int length = in.readInt();
+            String title = readString(in);
+            String excerpt = readString(in);
+            String body = readString(in);
+            index.attach(new DocEntry(postId, title, excerpt, body, publishedAt, updatedAt, length));
+        }
+
+        int termCount = in.readInt();
+        for (int t = 0; t < termCount; t++) {
+            String term = readString(in);
+            int size = readVarInt(in);
+            IntPostingList list = new IntPostingList();
+            int ordinal = 0;
+            for (int i = 0; i < size; i++) {
+                ordinal += readVarInt(in);
+                list.append(ordinal, readVarInt(in));
+            }
+            index.postings.put(term, list);
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * 词频（标题、摘要加权）
+     */
+    private static Map<String, Integer> termFrequencies(String title, String excerpt, String body) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTokens(frequencies, title, TITLE_WEIGHT);
+        addTokens(frequencies, excerpt, EXCERPT_WEIGHT);
+        addTokens(frequencies, body, 1);
+        return frequencies;
+    }
+
+    private static void addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : SearchTokenizer.indexTokens(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    // ==================== 内部结构 ====================
+
+    /**
+     * 索引数据：词 -> 倒排列表，文档序号 -> 文档（已删除的序号为 null 空位）
+     */
+    private static final class IndexData {
+        private final Map<String, IntPostingList> postings = new HashMap<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private List<DocEntry> docs = new ArrayList<>();
+        private long totalLength;
+        private int liveDocs;
+        private int tombstones;
+
+        DocEntry get(Long postId) {
+            Integer ordinal = ordinals.get(postId);
+            return ordinal != null ? docs.get(ordinal) : null;
+        }
+
+        int attach(DocEntry entry) {
+            int ordinal = docs.size();
+            docs.add(entry);
+            ordinals.put(entry.postId, ordinal);
+            totalLength += entry.length;
+            liveDocs++;
+            return ordinal;
+        }
+
+        void add(SearchDocument document) {
+            String excerpt = SearchTokenizer.plainText(document.getExcerpt());
+            String body = SearchTokenizer.plainText(document.getContent());
+            Map<String, Integer> frequencies = termFrequencies(document.getTitle(), excerpt, body);
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+            int ordinal = attach(new DocEntry(document.getPostId(), document.getTitle(), excerpt, body,
+                    toMillis(document.getPublishedAt()), toMillis(document.getUpdatedAt()), length));
+            frequencies.forEach((term, freq) -> postings.computeIfAbsent(term, key -> new IntPostingList()).put(ordinal, freq));
+        }
+
+        /**
+         * 把文档序号标记为空位，倒排列表留到压缩时再清理
+         */
+        boolean remove(Long postId) {
+            Integer ordinal = ordinals.remove(postId);
+            if (ordinal == null) {
+                return false;
+            }
+            DocEntry entry = docs.get(ordinal);
+            docs.set(ordinal, null);
+            totalLength -= entry.length;
+            liveDocs--;
+            tombstones++;
+            return true;
+        }
+
+        void compactIfNeeded() {
+            if (tombstones >= COMPACT_MIN_TOMBSTONES && tombstones > liveDocs * COMPACT_RATIO) {
+                compact();
+            }
+        }
+
+        /**
+         * 压缩文档序号：存活文档按原顺序重新编号，倒排列表去掉空位，只剩空位的词直接删除
+         */
+        void compact() {
+            int[] remap = new int[docs.size()];
+            List<DocEntry> live = new ArrayList<>(liveDocs);
+            for (int ordinal = 0; ordinal < docs.size(); ordinal++) {
+                DocEntry entry = docs.get(ordinal);
+                if (entry == null) {
+                    remap[ordinal] = -1;
+                } else {
+                    remap[ordinal] = live.size();
+                    ordinals.put(entry.postId, live.size());
+                    live.add(entry);
+                }
+            }
+            postings.values().removeIf(list -> list.compact(remap) == 0);
+            docs = live;
+            tombstones = 0;
+        }
+    }
+
+    private static final class DocEntry {
+        private final long postId;
+        private final String title;
+        private final String excerpt;
+        private final String body;
+        private final long publishedAt;
+        private final long updatedAt;
+        private final int length;
+
+        private DocEntry(long postId, String title, String excerpt, String body,
+                         long publishedAt, long updatedAt, int length) {
+            this.postId = postId;
+            this.title = title;
+            this.excerpt = excerpt;
+            this.body = body;
+            this.publishedAt = publishedAt;
+            this.updatedAt = updatedAt;
+            this.length = length;
+        }
+
+        /**
+         * 关键词（已转小写）是否在标题、摘要或正文中连续出现，逐字符忽略大小写比较，不另存小写副本
+         */
+        private boolean contains(String phrase) {
+            return containsIgnoreCase(title, phrase) || containsIgnoreCase(excerpt, phrase)
+                    || containsIgnoreCase(body, phrase);
+        }
+
+        private static boolean containsIgnoreCase(String text, String phrase) {
+            if (text == null) {
+                return false;
+            }
+            int last = text.length() - phrase.length();
+            for (int i = 0; i <= last; i++) {
+                if (text.regionMatches(true, i, phrase, 0, phrase.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class ScoredDoc {
+        private final DocEntry entry;
+        private final double score;
+
+        private ScoredDoc(DocEntry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package wiki.kana.service.search;
+
+import java.util.Arrays;
+
+/**
+ * 倒排列表：按文档序号升序存放的原始 int 数组（文档序号 + 词频）
+ */
+final class IntPostingList {
+
+    private int[] docs = new int[4];
+    private int[] freqs = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int freq(int index) {
+        return freqs[index];
+    }
+
+    /**
+     * 查找文档的词频，不存在时返回0
+     */
+    int freqOf(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        return index >= 0 ? freqs[index] : 0;
+    }
+
+    /**
+     * 写入文档词频（新文档序号通常最大，直接追加）
+     */
+    void put(int doc, int freq) {
+        if (size > 0 && docs[size - 1] < doc) {
+            append(doc, freq);
+            return;
+        }
+
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index >= 0) {
+            freqs[index] = freq;
+            return;
+        }
+
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+        System.arraycopy(freqs, insertAt, freqs, insertAt + 1, size - insertAt);
+        docs[insertAt] = doc;
+        freqs[insertAt] = freq;
+        size++;
+    }
+
+    void append(int doc, int freq) {
+        ensureCapacity();
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+    }
+
+    /**
+     * 按 remap 重新编号，remap 为负的文档被丢弃（remap 需保持升序，列表仍然有序）
+     *
+     * @return 压缩后的长度
+     */
+    int compact(int[] remap) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int doc = remap[docs[i]];
+            if (doc >= 0) {
+                docs[kept] = doc;
+                freqs[kept] = freqs[i];
+                kept++;
+            }
+        }
+        size = kept;
+        if (docs.length > 4 && docs.length > size * 2) {
+            docs = Arrays.copyOf(docs, Math.max(4, size));
+            freqs = Arrays.copyOf(freqs, Math.max(4, size));
+        }
+        return size;
+    }
+
+    private void ensureCapacity() {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            freqs = Arrays.copyOf(freqs, size * 2);
+        }
+    }
+}
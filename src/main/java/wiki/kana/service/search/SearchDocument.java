@@ -0,0 +1,35 @@
+package wiki.kana.service.search;
+
+import lombok.Builder;
+import lombok.Getter;
+import wiki.kana.entity.Post;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待索引的文章内容（与实体解耦，可在事务提交后安全使用）
+ */
+@Getter
+@Builder
+public class SearchDocument {
+
+    private final Long postId;
+    private final String title;
+    private final String excerpt;
+    private final String content;
+    private final boolean published;
+    private final LocalDateTime publishedAt;
+    private final LocalDateTime updatedAt;
+
+    public static SearchDocument from(Post post) {
+        return SearchDocument.builder()
+                .postId(post.getId())
+                .title(post.getTitle())
+                .excerpt(post.getExcerpt())
+                .content(post.getContent())
+                .published(post.getStatus() == Post.PostStatus.PUBLISHED)
+                .publishedAt(post.getPublishedAt())
+                .updatedAt(post.getUpdatedAt())
+                .build();
+    }
+}
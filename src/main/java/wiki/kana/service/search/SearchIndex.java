@@ -0,0 +1,37 @@
+package wiki.kana.service.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import wiki.kana.repository.projection.PostSearchHit;
+
+/**
+ * 文章检索索引
+ * 通过 app.search.engine 选择实现：fts（SQLite FTS5，默认）或 memory（进程内倒排索引）
+ */
+public interface SearchIndex {
+
+    /**
+     * 检索已发布文章，按相关度排序分页
+     */
+    Page<PostSearchHit> search(String keyword, Pageable pageable);
+
+    /**
+     * 写入或更新一篇文章；非发布状态的文章会从索引中移除
+     */
+    void index(SearchDocument document);
+
+    /**
+     * 从索引中移除文章
+     */
+    void remove(Long postId);
+
+    /**
+     * 根据 posts 表全量重建索引
+     */
+    void rebuild();
+
+    /**
+     * 与 posts 表比对，检查索引是否一致
+     */
+    SearchIndexReport checkConsistency();
+}
@@ -0,0 +1,48 @@
+package wiki.kana.service.search;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 索引一致性检查结果
+ */
+@Getter
+@Builder
+public class SearchIndexReport {
+
+    private final String engine;
+    private final long expectedCount;
+    private final long indexedCount;
+
+    /**
+     * 已发布但未进入索引的文章
+     */
+    @Builder.Default
+    private final List<Long> missingIds = Collections.emptyList();
+
+    /**
+     * 索引内容早于数据库更新时间的文章
+     */
+    @Builder.Default
+    private final List<Long> staleIds = Collections.emptyList();
+
+    /**
+     * 索引中存在但已删除或未发布的文章
+     */
+    @Builder.Default
+    private final List<Long> extraIds = Collections.emptyList();
+
+    /**
+     * 索引内部结构校验是否通过
+     */
+    @Builder.Default
+    private final boolean intact = true;
+
+    public boolean isConsistent() {
+        return intact && expectedCount == indexedCount
+                && missingIds.isEmpty() && staleIds.isEmpty() && extraIds.isEmpty();
+    }
+}
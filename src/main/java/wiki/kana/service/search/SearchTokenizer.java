@@ -0,0 +1,113 @@
+package wiki.kana.service.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 检索分词工具
+ * 拉丁字母和数字按连续字符切词并转小写；中日韩文字切为相邻二元组（bigram），
+ * 索引时额外保留单字，以支持单字查询
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 去掉 HTML 标签并还原字符实体，连续空白合并为一个空格
+     */
+    public static String plainText(String html) {
+        if (html == null || html.isEmpty()) {
+            return html;
+        }
+        String text = HTML_TAG_PATTERN.matcher(html).replaceAll(" ");
+        return WHITESPACE_PATTERN.matcher(HtmlUtils.htmlUnescape(text)).replaceAll(" ").trim();
+    }
+
+    /**
+     * 索引分词：CJK 输出单字和二元组
+     */
+    public static List<String> indexTokens(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查询分词：CJK 输出二元组，只有单个字时输出单字
+     */
+    public static List<String> queryTokens(String text) {
+        return tokenize(text, false);
+    }
+
+    /**
+     * 判断字符是否按 CJK 规则切分
+     */
+    public static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static List<String> tokenize(String text, boolean forIndex) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int offset = 0;
+        while (offset < text.length()) {
+            int codePoint = text.codePointAt(offset);
+            offset += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.add(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens, forIndex);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens, forIndex);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens, forIndex);
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString().toLowerCase(Locale.ROOT));
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<Integer> run, List<String> tokens, boolean forIndex) {
+        if (run.isEmpty()) {
+            return;
+        }
+
+        if (forIndex || run.size() == 1) {
+            for (int codePoint : run) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int i = 0; i + 1 < run.size(); i++) {
+            tokens.add(new StringBuilder()
+                    .appendCodePoint(run.get(i))
+                    .appendCodePoint(run.get(i + 1))
+                    .toString());
+        }
+        run.clear();
+    }
+}
@@ -0,0 +1,269 @@
+package wiki.kana.util;
+
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * multipart/form-data 流式解析器
+ * <p>
+ * 按顺序逐个返回请求体中的表单项，文件内容通过 {@link Part#body()} 边读边返回，
+ * 只使用一个固定大小的缓冲区，不在内存或临时文件中缓存整个请求体。
+ * 读取下一项时，上一项未读完的内容会被跳过
+ */
+public class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream input;
+    /**
+     * 分隔符为 CRLF--boundary；缓冲区开头预置 CRLF，使第一个边界行也能按同一规则匹配
+     */
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+
+    private PartInputStream current;
+    private boolean finished;
+
+    public MultipartStreamReader(InputStream input, String boundary) {
+        if (!StringUtils.hasText(boundary)) {
+            throw new IllegalArgumentException("multipart boundary 不能为空");
+        }
+        this.input = input;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 4)];
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.limit = 2;
+        // 第一个边界之前的前导内容按一个不可见的表单项跳过
+        this.current = new PartInputStream();
+    }
+
+    /**
+     * 从 Content-Type 中取出 boundary 参数，不是 multipart/form-data 时返回 empty
+     */
+    public static Optional<String> boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ENGLISH).startsWith("multipart/form-data")) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(parameter(contentType, "boundary"));
+    }
+
+    /**
+     * 返回下一个表单项，没有更多表单项时返回 null
+     */
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        current.skipRemaining();
+
+        // 分隔符后紧跟 "--" 表示结束，否则是 CRLF 和表单项头
+        if (!ensureAvailable(2)) {
+            throw new IOException("multipart 请求体不完整");
+        }
+        if (buffer[position] == '-' && buffer[position + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        String headers = readHeaders();
+
+        String disposition = null;
+        String contentType = null;
+        for (String line : headers.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+            String value = line.substring(colon + 1).trim();
+            if ("content-disposition".equals(name)) {
+                disposition = value;
+            } else if ("content-type".equals(name)) {
+                contentType = value;
+            }
+        }
+        if (disposition == null) {
+            throw new IOException("multipart 表单项缺少 Content-Disposition");
+        }
+
+        current = new PartInputStream();
+        return new Part(parameter(disposition, "name"), parameter(disposition, "filename"), contentType, current);
+    }
+
+    private String readHeaders() throws IOException {
+        // 跳过边界行剩余部分（允许的空白填充）直到 CRLF
+        while (true) {
+            if (!ensureAvailable(1)) {
+                throw new IOException("multipart 请求体不完整");
+            }
+            byte b = buffer[position++];
+            if (b == '\n') {
+                break;
+            }
+        }
+
+        ByteArrayOutputStream headers = new ByteArrayOutputStream(256);
+        int tail = 0;
+        while (true) {
+            if (!ensureAvailable(1)) {
+                throw new IOException("multipart 请求体不完整");
+            }
+            byte b = buffer[position++];
+            headers.write(b);
+            if (headers.size() > MAX_HEADER_BYTES) {
+                throw new IOException("multipart 表单项头过大");
+            }
+            tail = (tail << 8) | (b & 0xFF);
+            if (headers.size() == 2 && (tail & 0xFFFF) == 0x0D0A) {
+                return "";
+            }
+            if (tail == 0x0D0A0D0A) {
+                return headers.toString(StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * 保证缓冲区中至少有 count 个未读字节，流已结束且不足时返回 false
+     */
+    private boolean ensureAvailable(int count) throws IOException {
+        while (limit - position < count) {
+            if (endOfStream) {
+                return false;
+            }
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            int read = input.read(buffer, limit, buffer.length - limit);
+            if (read == -1) {
+                endOfStream = true;
+            } else {
+                limit += read;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在 [position, limit) 中查找分隔符，返回起始下标，没有时返回 -1
+     */
+    private int findDelimiter() {
+        int last = limit - delimiter.length;
+        outer:
+        for (int i = position; i <= last; i++) {
+            if (buffer[i] != delimiter[0]) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String parameter(String header, String name) {
+        for (String segment : header.split(";")) {
+            String trimmed = segment.trim();
+            int equals = trimmed.indexOf('=');
+            if (equals <= 0 || !trimmed.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                continue;
+            }
+            String value = trimmed.substring(equals + 1).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+            }
+            return value;
+        }
+        return null;
+    }
+
+    /**
+     * 表单项
+     *
+     * @param name        表单字段名
+     * @param filename    上传文件名，普通字段为 null
+     * @param contentType 表单项声明的 Content-Type，可能为 null
+     */
+    public record Part(String name, String filename, String contentType, InputStream body) {
+
+        public boolean isFile() {
+            return filename != null;
+        }
+
+        /**
+         * 读取普通字段的值，超过 maxBytes 时抛出 IOException
+         */
+        public String readString(int maxBytes) throws IOException {
+            byte[] value = body.readNBytes(maxBytes + 1);
+            if (value.length > maxBytes) {
+                throw new IOException("表单字段 " + name + " 过长");
+            }
+            return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 读取当前表单项内容，遇到分隔符时结束
+     */
+    private class PartInputStream extends InputStream {
+
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureAvailable(delimiter.length)) {
+                throw new IOException("multipart 请求体不完整");
+            }
+            int found = findDelimiter();
+            int readable;
+            if (found == position) {
+                position += delimiter.length;
+                done = true;
+                return -1;
+            } else if (found != -1) {
+                readable = found - position;
+            } else {
+                // 末尾不足一个分隔符长度的字节可能是分隔符的开头，留到下次判断
+                readable = limit - position - (delimiter.length - 1);
+            }
+            int count = Math.min(length, readable);
+            System.arraycopy(buffer, position, target, offset, count);
+            position += count;
+            return count;
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] discard = new byte[1024];
+            while (read(discard, 0, discard.length) != -1) {
+                // 丢弃
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package wiki.kana.integration;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import wiki.kana.entity.Category;
+import wiki.kana.entity.Post;
+import wiki.kana.entity.User;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.service.PostService;
+import wiki.kana.service.UserService;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 公共读接口条件请求集成测试
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("条件请求集成测试")
+@Transactional
+class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("ETag 未变化时返回 304，且仍记录浏览量")
+    void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        Post post = createPublishedPost();
+
+        MvcResult first = mockMvc.perform(get("/api/posts/{id}", post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        long viewsBefore = postService.getPendingViewCount(post.getId());
+
+        mockMvc.perform(get("/api/posts/{id}", post.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        assertThat(postService.getPendingViewCount(post.getId())).isEqualTo(viewsBefore + 1);
+    }
+
+    @Test
+    @DisplayName("内容变更后旧 ETag 失效")
+    void shouldReturnFullBodyAfterContentChange() throws Exception {
+        Post post = createPublishedPost();
+        String etag = mockMvc.perform(get("/api/posts"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Post changes = new Post();
+        changes.setTitle("条件请求标题已修改");
+        postService.updatePost(post.getId(), changes);
+        // 测试事务不会提交，手动刷新触发实体监听器
+        entityManager.flush();
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("版本按资源族区分：文章变更不影响站点设置，登录不影响文章")
+    void shouldKeepEtagsOfUnrelatedFamilies() throws Exception {
+        Post post = createPublishedPost();
+        entityManager.flush();
+        String postEtag = mockMvc.perform(get("/api/posts"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String settingsEtag = mockMvc.perform(get("/api/settings/public"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        userService.updateLastLoginTime(post.getAuthor().getId());
+        entityManager.flush();
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, postEtag))
+                .andExpect(status().isNotModified());
+
+        Post changes = new Post();
+        changes.setTitle("资源族版本标题已修改");
+        postService.updatePost(post.getId(), changes);
+        entityManager.flush();
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, postEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/settings/public").header(HttpHeaders.IF_NONE_MATCH, settingsEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("If-Modified-Since 不早于最后修改时间时返回 304")
+    void shouldHonourIfModifiedSince() throws Exception {
+        String lastModified = mockMvc.perform(get("/api/settings/public"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/api/settings/public").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("错误响应和管理端接口不携带 ETag")
+    void shouldNotTagErrorsOrAdminEndpoints() throws Exception {
+        mockMvc.perform(get("/api/posts/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/api/posts/admin/all"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private Post createPublishedPost() {
+        User author = testDataFactory.createTestUser("etag_author_" + System.nanoTime(), "EDITOR");
+        Category category = testDataFactory.createTestCategory("条件请求分类" + System.nanoTime());
+        Post post = testDataFactory.createTestPost("Conditional Get " + System.nanoTime(), author, category, Set.of());
+        return postService.publishPost(post.getId());
+    }
+}
@@ -0,0 +1,143 @@
+package wiki.kana.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.service.FileStorageService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 分片上传集成测试：乱序上传分片、坏分片重传、提交后生成媒体记录
+ */
+@SpringBootTest(properties = {
+        "app.media.gc.enabled=false",
+        "app.media.chunked.chunk-size=65536"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("分片上传集成测试")
+class MediaChunkedUploadIntegrationTest {
+
+    private static final int CHUNK_SIZE = 65536;
+
+    private static Path workDirectory;
+
+    @DynamicPropertySource
+    static void temporaryStorage(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-media-chunked");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("media.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Test
+    @DisplayName("分片乱序到达、坏分片被拒绝后重传，提交后得到完整文件")
+    void shouldAssembleChunksUploadedOutOfOrder() throws Exception {
+        String token = testDataFactory.createAdminToken("chunked");
+        byte[] content = new byte[CHUNK_SIZE * 2 + 1234];
+        new Random(7).nextBytes(content);
+        String sha256 = sha256(content);
+
+        JsonNode session = data(mockMvc.perform(post("/api/media/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "fileName", "clip.mp4",
+                                "fileSize", content.length,
+                                "sha256", sha256)))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isCreated()));
+        String uploadId = session.path("uploadId").asText();
+        assertThat(session.path("chunkCount").asInt()).isEqualTo(3);
+
+        putChunk(token, uploadId, 2, content, null).andExpect(status().isOk());
+        putChunk(token, uploadId, 0, content, sha256(chunk(content, 0))).andExpect(status().isOk());
+        // 校验值不符的分片不记为已接收
+        putChunk(token, uploadId, 1, content, sha256(chunk(content, 0))).andExpect(status().isBadRequest());
+
+        JsonNode progress = data(mockMvc.perform(get("/api/media/uploads/" + uploadId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk()));
+        assertThat(progress.path("receivedChunks").asInt()).isEqualTo(2);
+        assertThat(progress.path("missingOffsets").get(0).asLong()).isEqualTo(CHUNK_SIZE);
+
+        mockMvc.perform(post("/api/media/uploads/" + uploadId + "/commit")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest());
+
+        putChunk(token, uploadId, 1, content, sha256(chunk(content, 1))).andExpect(status().isOk());
+        JsonNode media = data(mockMvc.perform(post("/api/media/uploads/" + uploadId + "/commit")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isCreated()));
+
+        assertThat(media.path("type").asText()).isEqualTo("VIDEO");
+        assertThat(media.path("fileSize").asLong()).isEqualTo(content.length);
+        assertThat(Files.readAllBytes(workDirectory.resolve("uploads").resolve(FileStorageService.blobPath(sha256))))
+                .isEqualTo(content);
+        mockMvc.perform(get("/api/media/uploads/" + uploadId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions putChunk(String token, String uploadId, int index, byte[] content, String checksum)
+            throws Exception {
+        var request = put("/api/media/uploads/" + uploadId)
+                .param("offset", String.valueOf((long) index * CHUNK_SIZE))
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(chunk(content, index))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        if (checksum != null) {
+            request.header("X-Chunk-SHA256", checksum);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private static byte[] chunk(byte[] content, int index) {
+        int from = index * CHUNK_SIZE;
+        return Arrays.copyOfRange(content, from, Math.min(content.length, from + CHUNK_SIZE));
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private JsonNode data(ResultActions result) throws Exception {
+        String body = result.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body).path("data");
+    }
+}
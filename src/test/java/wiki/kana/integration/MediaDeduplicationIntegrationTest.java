@@ -0,0 +1,117 @@
+package wiki.kana.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import wiki.kana.entity.MediaBlob;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.repository.MediaBlobRepository;
+import wiki.kana.service.FileStorageService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 内容寻址存储集成测试：相同内容只落盘一次，媒体记录共享内容块并维护引用计数
+ */
+@SpringBootTest(properties = "app.media.gc.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("媒体上传去重集成测试")
+class MediaDeduplicationIntegrationTest {
+
+    private static Path workDirectory;
+
+    @DynamicPropertySource
+    static void temporaryStorage(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-media-dedupe");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("media.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Test
+    @DisplayName("重复上传相同内容共用内容块，删除媒体只减少引用数")
+    void shouldShareBlobForIdenticalUploads() throws Exception {
+        String suffix = String.valueOf(System.nanoTime());
+        String token = testDataFactory.createAdminToken("dedupe");
+        byte[] content = ("去重测试内容 " + suffix).getBytes(StandardCharsets.UTF_8);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        JsonNode first = upload(token, new MockMultipartFile("file", "first.png", "image/png", content));
+        JsonNode second = upload(token, new MockMultipartFile("file", "second.png", "image/png", content));
+
+        String url = first.path("url").asText();
+        assertThat(url).isEqualTo("/uploads/" + FileStorageService.blobPath(sha256) + ".png");
+        assertThat(second.path("url").asText()).isEqualTo(url);
+        assertThat(second.path("fileName").asText()).isNotEqualTo(first.path("fileName").asText());
+
+        Path blobFile = workDirectory.resolve("uploads").resolve(FileStorageService.blobPath(sha256));
+        assertThat(Files.readAllBytes(blobFile)).isEqualTo(content);
+        try (var siblings = Files.list(blobFile.getParent())) {
+            assertThat(siblings.filter(p -> p.getFileName().toString().startsWith(sha256))).hasSize(1);
+        }
+
+        MediaBlob blob = mediaBlobRepository.findBySha256(sha256).orElseThrow();
+        assertThat(blob.getRefCount()).isEqualTo(2);
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + sha256 + "\""))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"));
+        // 内容块只能以登记的扩展名访问
+        mockMvc.perform(get(url.replace(".png", ".html")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(url.substring(0, url.length() - ".png".length())))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/media/{id}", first.path("id").asLong())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(mediaBlobRepository.findBySha256(sha256).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(Files.exists(blobFile)).isTrue();
+    }
+
+    private JsonNode upload(String token, MockMultipartFile file) throws Exception {
+        String body = mockMvc.perform(multipart("/api/media/upload")
+                        .file(file)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body).path("data");
+    }
+}
@@ -0,0 +1,139 @@
+package wiki.kana.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import wiki.kana.entity.Media;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.service.MediaService;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 图片衍生图集成测试：上传时写入尺寸，后台生成缩放图并通过 srcset 返回
+ */
+@SpringBootTest(properties = {
+        "app.media.gc.enabled=false",
+        "app.media.derivatives.widths=320,640,2000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("图片衍生图集成测试")
+class MediaDerivativeIntegrationTest {
+
+    private static Path workDirectory;
+
+    @DynamicPropertySource
+    static void temporaryStorage(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-media-derivative");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("media.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Test
+    @DisplayName("上传图片后生成比原图小的衍生图")
+    void shouldGenerateRenditionsAfterUpload() throws Exception {
+        String suffix = String.valueOf(System.nanoTime());
+        String token = testDataFactory.createAdminToken("derivative");
+
+        String body = mockMvc.perform(multipart("/api/media/upload")
+                        .file(new MockMultipartFile("file", "banner-" + suffix + ".png", "image/png", createPng(800, 400, suffix)))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        JsonNode uploaded = objectMapper.readTree(body).path("data");
+        long mediaId = uploaded.path("id").asLong();
+        assertThat(uploaded.path("width").asInt()).isEqualTo(800);
+        assertThat(uploaded.path("height").asInt()).isEqualTo(400);
+
+        List<Media> renditions = awaitRenditions(mediaId, 2);
+        assertThat(renditions).extracting(Media::getWidth).containsExactly(320, 640);
+        assertThat(renditions).extracting(Media::getHeight).containsExactly(160, 320);
+        assertThat(renditions).allSatisfy(rendition -> {
+            assertThat(rendition.getType()).isEqualTo(Media.MediaType.THUMBNAIL);
+            assertThat(rendition.getFileSize()).isPositive();
+        });
+
+        String listBody = mockMvc.perform(get("/api/media")
+                        .param("size", "100")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        JsonNode listed = null;
+        for (JsonNode item : objectMapper.readTree(listBody).path("data").path("content")) {
+            assertThat(item.path("type").asText()).isNotEqualTo("THUMBNAIL");
+            if (item.path("id").asLong() == mediaId) {
+                listed = item;
+            }
+        }
+        assertThat(listed).isNotNull();
+        assertThat(listed.path("srcset").asText())
+                .contains(renditions.get(0).getUrl() + " 320w")
+                .contains(renditions.get(1).getUrl() + " 640w")
+                .endsWith(" 800w");
+    }
+
+    private List<Media> awaitRenditions(long mediaId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            Map<Long, List<Media>> renditions = mediaService.findRenditions(Set.of(mediaId));
+            List<Media> found = renditions.getOrDefault(mediaId, List.of());
+            if (found.size() >= expected || System.currentTimeMillis() > deadline) {
+                return found;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static byte[] createPng(int width, int height, String seed) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(seed.hashCode()));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.WHITE);
+        graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
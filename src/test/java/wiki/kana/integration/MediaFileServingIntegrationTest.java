@@ -0,0 +1,196 @@
+package wiki.kana.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import wiki.kana.entity.Media;
+import wiki.kana.entity.User;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.service.FileStorageService;
+import wiki.kana.service.MediaService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 媒体文件访问集成测试：ETag、Range、HEAD、路径校验和按媒体记录确定的响应类型
+ */
+@SpringBootTest(properties = {
+        "app.media.gc.enabled=false",
+        "app.media.derivatives.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("媒体文件访问集成测试")
+class MediaFileServingIntegrationTest {
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final String URL = "/uploads/media/serving-test.txt";
+
+    private static Path workDirectory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @DynamicPropertySource
+    static void temporaryStorage(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-serving");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("serving.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+    }
+
+    @BeforeEach
+    void writeFile() throws Exception {
+        record("serving-test.txt", CONTENT, Media.MediaType.DOCUMENT);
+    }
+
+    @Test
+    @DisplayName("匿名访问返回完整内容和缓存头，ETag 未变化时返回 304")
+    void shouldServeFileWithCachingHeaders() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(CONTENT.length())))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().string(CONTENT))
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("\"[0-9a-f]{64}\"");
+        assertThat(result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("单段 Range 返回 206 和对应片段")
+    void shouldServePartialContent() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=10-15"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-15/" + CONTENT.length()))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "6"))
+                .andExpect(content().string("abcdef"));
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("wxyz"));
+    }
+
+    @Test
+    @DisplayName("If-Range 不匹配时忽略 Range，超出范围返回 416")
+    void shouldHandleIfRangeAndUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get(URL)
+                        .header(HttpHeaders.RANGE, "bytes=0-3")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=1000-2000"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length()));
+    }
+
+    @Test
+    @DisplayName("HEAD 只返回响应头")
+    void shouldServeHeadWithoutBody() throws Exception {
+        mockMvc.perform(head(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(CONTENT.length())))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("图片、视频、音频按媒体记录的类型内联展示，其他类型按附件下载并禁止脚本")
+    void shouldTakeContentTypeFromMediaRecord() throws Exception {
+        String image = record("pixel.png", "png", Media.MediaType.IMAGE);
+        mockMvc.perform(get(image))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION));
+
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Content-Security-Policy", "sandbox"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        startsWith("attachment")));
+
+        // 记录为图片但扩展名是 HTML 或 SVG 的文件同样不能内联
+        for (String name : new String[]{"page.html", "vector.svg"}) {
+            String url = record(name, "<script>alert(1)</script>", Media.MediaType.IMAGE);
+            mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Security-Policy", "sandbox"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                            startsWith("attachment")));
+        }
+    }
+
+    @Test
+    @DisplayName("不存在的文件返回 404，目录穿越被拒绝")
+    void shouldRejectMissingFilesAndTraversal() throws Exception {
+        mockMvc.perform(get("/uploads/media/missing.txt"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/media"))
+                .andExpect(status().isNotFound());
+        // 防火墙拒绝（400）或路径校验拒绝（404），都不能读到上传目录之外的文件
+        mockMvc.perform(get("/uploads/%2e%2e/pom.xml"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    /**
+     * 在上传目录的 media/ 下写入文件并登记媒体记录，返回公开 URL
+     */
+    private String record(String name, String content, Media.MediaType type) throws IOException {
+        Path dir = fileStorageService.getRootLocation().resolve("media");
+        Files.createDirectories(dir);
+        Path file = dir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        String url = "/uploads/media/" + name;
+        User uploader = testDataFactory.createTestUser("serving", "ADMIN");
+        Media media = Media.builder()
+                .originalName(name)
+                .fileName(UUID.randomUUID().toString().replace("-", "") + "_" + name)
+                .fileExtension(name.substring(name.lastIndexOf('.') + 1))
+                .fileSize(Files.size(file))
+                .type(type)
+                .localUrl(url)
+                .build();
+        mediaService.createMedia(media, uploader.getId());
+        return url;
+    }
+}
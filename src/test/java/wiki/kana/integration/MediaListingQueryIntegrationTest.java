@@ -0,0 +1,105 @@
+package wiki.kana.integration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import wiki.kana.entity.Media;
+import wiki.kana.entity.User;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.repository.MediaRepository;
+import wiki.kana.service.MediaService;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 媒体库列表查询集成测试 - 过滤、排序和分页在数据库完成
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("媒体库列表查询集成测试")
+@Transactional
+class MediaListingQueryIntegrationTest {
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("按类型和上传者过滤，只返回当前页并给出总数")
+    void shouldFilterAndPageInDatabase() {
+        // Given: 同一上传者的 3 张图片和 1 个文档，另一位用户的图片
+        User uploader = testDataFactory.createTestUser("media_list_" + System.nanoTime(), "EDITOR");
+        User other = testDataFactory.createTestUser("media_other_" + System.nanoTime(), "EDITOR");
+        for (int i = 0; i < 3; i++) {
+            createMedia("image" + i, Media.MediaType.IMAGE, uploader, 1000L + i);
+        }
+        createMedia("doc", Media.MediaType.DOCUMENT, uploader, 500L);
+        createMedia("foreign", Media.MediaType.IMAGE, other, 800L);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = resetStatistics();
+
+        // When
+        Page<Media> page = mediaService.searchMedia(Media.MediaType.IMAGE, uploader.getId(),
+                PageRequest.of(0, 2, Sort.by("fileSize").ascending()));
+
+        // Then: 第一页两条，按文件大小升序，上传者已随列表加载
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(Media::getFileSize).containsExactly(1000L, 1001L);
+        assertThat(page.getContent()).allSatisfy(media ->
+                assertThat(media.getUploadedBy().getUsername()).isEqualTo(uploader.getUsername()));
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("未指定类型时排除衍生图")
+    void shouldExcludeRenditionsWithoutTypeFilter() {
+        User uploader = testDataFactory.createTestUser("media_rendition_" + System.nanoTime(), "EDITOR");
+        Media original = createMedia("original", Media.MediaType.IMAGE, uploader, 2048L);
+        Media rendition = createMedia("rendition", Media.MediaType.THUMBNAIL, uploader, 256L);
+        rendition.setSourceMedia(original);
+        mediaRepository.save(rendition);
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Media> all = mediaService.searchMedia(null, uploader.getId(), PageRequest.of(0, 10));
+        Page<Media> thumbnails = mediaService.searchMedia(Media.MediaType.THUMBNAIL, uploader.getId(), PageRequest.of(0, 10));
+
+        assertThat(all.getContent()).extracting(Media::getId).containsExactly(original.getId());
+        assertThat(thumbnails.getContent()).extracting(Media::getId).containsExactly(rendition.getId());
+    }
+
+    private Media createMedia(String name, Media.MediaType type, User uploader, long fileSize) {
+        Media media = testDataFactory.createTestMedia(name, type, uploader);
+        media.setFileSize(fileSize);
+        return mediaRepository.save(media);
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,159 @@
+package wiki.kana.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import wiki.kana.entity.Media;
+import wiki.kana.entity.MediaBlob;
+import wiki.kana.entity.User;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.repository.MediaBlobRepository;
+import wiki.kana.repository.MediaRepository;
+import wiki.kana.service.FileStorageService;
+import wiki.kana.service.MediaService;
+import wiki.kana.service.MediaStorageReconciler;
+import wiki.kana.service.WriteDispatcher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 媒体存储清理集成测试：孤儿文件先隔离再删除，无引用的内容块被回收，文件缺失的媒体记录按配置报告或删除
+ */
+@SpringBootTest(properties = {
+        "app.media.gc.enabled=false",
+        "app.media.gc.grace-period=PT0S",
+        "app.media.gc.quarantine-retention=P1D",
+        "app.media.gc.max-files-per-second=0",
+        "app.media.derivatives.enabled=false"
+})
+@ActiveProfiles("test")
+@DisplayName("媒体存储清理集成测试")
+class MediaStorageReconcilerIntegrationTest {
+
+    private static Path workDirectory;
+
+    @Autowired
+    private MediaStorageReconciler reconciler;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private WriteDispatcher writeDispatcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void temporaryStorage(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-gc");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("gc.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+    }
+
+    @Test
+    @DisplayName("没有记录引用的文件先移入隔离区，超过保留期后删除")
+    void shouldQuarantineThenPurgeOrphanFiles() throws Exception {
+        Path root = fileStorageService.getRootLocation();
+        Path orphan = root.resolve("legacy/orphan-" + System.nanoTime() + ".txt");
+        Files.createDirectories(orphan.getParent());
+        Files.writeString(orphan, "孤儿文件", StandardCharsets.UTF_8);
+        long size = Files.size(orphan);
+
+        reconciler.reconcile();
+
+        Path quarantined = fileStorageService.quarantineLocation().resolve(root.relativize(orphan));
+        assertThat(orphan).doesNotExist();
+        assertThat(quarantined).exists();
+
+        Files.setLastModifiedTime(quarantined, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        MediaStorageReconciler.RunReport report = reconciler.reconcile();
+
+        assertThat(quarantined).doesNotExist();
+        assertThat(report.getReclaimedBytes()).isGreaterThanOrEqualTo(size);
+    }
+
+    @Test
+    @DisplayName("引用数为 0 的内容块被回收，再次上传相同内容时从隔离区恢复")
+    void shouldReclaimUnreferencedBlob() throws Exception {
+        byte[] content = ("无引用内容块 " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        FileStorageService.StoredFile stored = fileStorageService.store(content, "unused.png");
+        MediaBlob blob = mediaBlobRepository.save(MediaBlob.builder()
+                .sha256(stored.getSha256())
+                .storagePath(stored.getStoragePath())
+                .fileSize(stored.getSize())
+                .build());
+        Path blobFile = fileStorageService.getRootLocation().resolve(stored.getStoragePath());
+        Thread.sleep(20);
+
+        reconciler.reconcile();
+
+        assertThat(mediaBlobRepository.findById(blob.getId())).isEmpty();
+        assertThat(blobFile).doesNotExist();
+        assertThat(fileStorageService.ensureBlobPresent(stored.getStoragePath())).isTrue();
+        assertThat(Files.readAllBytes(blobFile)).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("文件缺失的媒体记录默认只报告；开启删除后缺失比例超限时放弃，未超限时删除无引用的记录")
+    void shouldGuardRemovalOfRowsWhoseFileIsMissing() throws Exception {
+        User uploader = testDataFactory.createTestUser("gc_" + System.nanoTime(), "EDITOR");
+        Media missing = testDataFactory.createTestMedia("missing_" + System.nanoTime(), Media.MediaType.IMAGE, uploader);
+        String keptName = "kept_" + System.nanoTime() + ".jpg";
+        Files.writeString(fileStorageService.getRootLocation().resolve(keptName), "kept");
+        Media kept = testDataFactory.createTestMedia("kept", Media.MediaType.IMAGE, uploader);
+        kept.setLocalUrl(fileStorageService.getUrlPrefix() + "/" + keptName);
+        mediaRepository.save(kept);
+
+        MediaStorageReconciler.RunReport reportOnly = reconciler.reconcile();
+        assertThat(reportOnly.getMissingFiles()).isEqualTo(1);
+        assertThat(reportOnly.getRemovedRows()).isZero();
+        assertThat(mediaRepository.existsById(missing.getId())).isTrue();
+
+        // 两条记录缺一条，超过 10% 上限
+        assertThat(removingReconciler(10).reconcile().getRemovedRows()).isZero();
+        assertThat(mediaRepository.existsById(missing.getId())).isTrue();
+
+        MediaStorageReconciler.RunReport removing = removingReconciler(50).reconcile();
+        assertThat(removing.getRemovedRows()).isEqualTo(1);
+        assertThat(mediaRepository.existsById(missing.getId())).isFalse();
+        assertThat(mediaRepository.existsById(kept.getId())).isTrue();
+        assertThat(fileStorageService.getRootLocation().resolve(keptName)).exists();
+    }
+
+    private MediaStorageReconciler removingReconciler(int maxMissingPercent) {
+        return new MediaStorageReconciler(fileStorageService, mediaService, mediaRepository, mediaBlobRepository,
+                writeDispatcher, jdbcTemplate, transactionManager, false, 200, Duration.ZERO, Duration.ofDays(1), 0,
+                true, maxMissingPercent);
+    }
+}
@@ -0,0 +1,136 @@
+package wiki.kana.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.service.FileStorageService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 流式上传集成测试：原始 multipart 请求体由应用自行解析，文件边读边写入内容块
+ */
+@SpringBootTest(properties = {
+        "app.media.gc.enabled=false",
+        "app.media.derivatives.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("流式上传集成测试")
+class MediaStreamingUploadIntegrationTest {
+
+    private static final String BOUNDARY = "----konatablog-stream-test";
+
+    private static Path workDirectory;
+
+    @DynamicPropertySource
+    static void temporaryStorage(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-media-stream");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("media.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Test
+    @DisplayName("文件跨越多个读取缓冲区、字段在文件之后时仍正确解析")
+    void shouldStreamFileAndReadTrailingFields() throws Exception {
+        String token = testDataFactory.createAdminToken("stream");
+        byte[] content = new byte[200 * 1024 + 7];
+        new Random(42).nextBytes(content);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        byte[] body = multipartBody("file", "stream.bin", content, "description", "流式上传", "type", "document");
+        String response = mockMvc.perform(post("/api/media/upload")
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        JsonNode data = objectMapper.readTree(response).path("data");
+        assertThat(data.path("fileSize").asLong()).isEqualTo(content.length);
+        assertThat(data.path("type").asText()).isEqualTo("DOCUMENT");
+        assertThat(data.path("description").asText()).isEqualTo("流式上传");
+        assertThat(data.path("url").asText()).isEqualTo("/uploads/" + FileStorageService.blobPath(sha256) + ".bin");
+        assertThat(Files.readAllBytes(workDirectory.resolve("uploads").resolve(FileStorageService.blobPath(sha256))))
+                .isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("超过大小上限时中止读取并清理临时文件")
+    void shouldRejectOversizedUploadWithoutLeavingTempFiles() throws Exception {
+        String token = testDataFactory.createAdminToken("stream");
+        byte[] content = new byte[5 * 1024 * 1024 + 1];
+
+        mockMvc.perform(post("/api/media/upload")
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(multipartBody("file", "large.bin", content))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest());
+
+        try (Stream<Path> files = Files.list(workDirectory.resolve("uploads"))) {
+            assertThat(files.map(path -> path.getFileName().toString())).noneMatch(name -> name.contains(".tmp-"));
+        }
+    }
+
+    @Test
+    @DisplayName("头像上传在读取内容前拒绝非图片文件")
+    void shouldRejectNonImageAvatar() throws Exception {
+        String token = testDataFactory.createAdminToken("stream");
+
+        mockMvc.perform(post("/api/settings/avatar")
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(multipartBody("avatar", "avatar.txt", "不是图片".getBytes(StandardCharsets.UTF_8)))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * 构造 multipart 请求体：一个文件项，之后是成对给出的普通字段
+     */
+    private static byte[] multipartBody(String fileField, String filename, byte[] content, String... fields) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 1024);
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + fileField + "\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            body.writeBytes(("\r\n--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + fields[i] + "\"\r\n\r\n"
+                    + fields[i + 1]).getBytes(StandardCharsets.UTF_8));
+        }
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+}
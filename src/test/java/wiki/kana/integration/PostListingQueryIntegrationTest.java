@@ -0,0 +1,132 @@
+package wiki.kana.integration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import wiki.kana.dto.post.PostMapper;
+import wiki.kana.dto.post.PostResponse;
+import wiki.kana.dto.post.PostSummaryResponse;
+import wiki.kana.entity.Category;
+import wiki.kana.entity.Post;
+import wiki.kana.entity.Tag;
+import wiki.kana.entity.User;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.repository.projection.PostSummaryView;
+import wiki.kana.repository.projection.PostTagView;
+import wiki.kana.service.PostService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 文章列表查询集成测试 - 验证列表接口不会产生 N+1 查询
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("文章列表查询集成测试")
+@Transactional
+class PostListingQueryIntegrationTest {
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("已发布文章列表映射作者、分类、标签时查询数量固定")
+    void publishedListingShouldNotTriggerNPlusOneQueries() {
+        // Given: 多位作者、多个分类和标签的已发布文章
+        createPublishedPosts(5);
+        Statistics statistics = resetStatistics();
+
+        // When: 查询列表并映射为响应
+        Page<Post> page = postService.findPublishedPosts(PageRequest.of(0, 5));
+        List<PostResponse> responses = page.getContent().stream()
+                .map(PostMapper::toPostResponse)
+                .toList();
+
+        // Then: 列表查询 + 总数查询 + 标签批量查询，不随文章数量增长
+        assertThat(responses).hasSize(5);
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getAuthor()).isNotNull();
+            assertThat(response.getCategory()).isNotNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("已发布文章摘要列表通过投影查询并批量加载标签")
+    void publishedSummariesShouldUseProjectionAndBatchTags() {
+        // Given
+        List<Long> createdIds = createPublishedPosts(3);
+        Collections.reverse(createdIds);
+        Statistics statistics = resetStatistics();
+
+        // When: 摘要列表 + 批量标签
+        Page<PostSummaryView> page = postService.findPublishedSummaries(PageRequest.of(0, 3));
+        Map<Long, List<PostTagView>> tags = postService.findTagsForSummaries(page.getContent());
+        List<PostSummaryResponse> responses = page.getContent().stream()
+                .map(view -> PostMapper.toPostSummaryResponse(view, tags.get(view.getId())))
+                .toList();
+
+        // Then: 最新发布的文章在前，作者、分类、标签完整，且没有加载任何 Post 实体
+        assertThat(responses).extracting(PostSummaryResponse::getId)
+                .containsExactlyElementsOf(createdIds);
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getAuthor()).isNotNull();
+            assertThat(response.getCategory()).isNotNull();
+            assertThat(response.getTags()).hasSize(2);
+        });
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    private List<Long> createPublishedPosts(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User author = testDataFactory.createTestUser("listing_author_" + i + "_" + System.nanoTime(), "EDITOR");
+            Category category = testDataFactory.createTestCategory("列表分类" + i);
+            Tag first = testDataFactory.createTestTag("列表标签A" + i);
+            Tag second = testDataFactory.createTestTag("列表标签B" + i);
+
+            Post post = testDataFactory.createTestPost("Listing Post " + i + " " + System.nanoTime(), author, category, Set.of());
+            postService.setPostTags(post.getId(), List.of(first.getId(), second.getId()));
+            post = postService.publishPost(post.getId());
+            // 保证发布时间严格递增
+            post.setPublishedAt(LocalDateTime.now().plusDays(1).plusSeconds(i));
+            ids.add(post.getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,137 @@
+package wiki.kana.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQLite 数据源集成测试 - 验证连接参数和读写路由
+ * <p>
+ * 读吞吐压测默认跳过，运行方式：
+ * {@code mvn test -Dtest=SqliteDataSourceIntegrationTest -Dloadtest=true}
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("SQLite 数据源集成测试")
+class SqliteDataSourceIntegrationTest {
+
+    /**
+     * 纯 CPU 的只读查询，耗时由 SQLite 执行决定，不受磁盘和数据量影响
+     */
+    private static final String READ_WORKLOAD =
+            "WITH RECURSIVE c(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM c WHERE x < 20000) SELECT SUM(x) FROM c";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("sqliteReadDataSource")
+    private HikariDataSource readDataSource;
+
+    @Autowired
+    @Qualifier("sqliteWriteDataSource")
+    private HikariDataSource writeDataSource;
+
+    @Test
+    @DisplayName("连接启用 WAL、synchronous=NORMAL 和 busy_timeout")
+    void connectionsShouldApplyPragmas() {
+        assertThat(jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class)).isEqualToIgnoringCase("wal");
+        assertThat(jdbcTemplate.queryForObject("PRAGMA synchronous", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("PRAGMA busy_timeout", Integer.class)).isEqualTo(5000);
+        assertThat(jdbcTemplate.queryForObject("PRAGMA mmap_size", Long.class)).isPositive();
+    }
+
+    @Test
+    @DisplayName("只读事务使用读连接池，写事务使用单连接写池")
+    void transactionsShouldBeRoutedByReadOnlyFlag() {
+        assertThat(writeDataSource.getMaximumPoolSize()).isEqualTo(1);
+        assertThat(readDataSource.getMaximumPoolSize()).isGreaterThan(1);
+
+        readOnlyTransaction().executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            assertThat(readDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+        });
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            assertThat(writeDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest", matches = "true")
+    @DisplayName("读吞吐随并发线程数（CPU 核数）增长")
+    void readThroughputShouldScaleWithCores() throws Exception {
+        int cores = Math.min(Runtime.getRuntime().availableProcessors(), readDataSource.getMaximumPoolSize());
+        int operations = 400;
+
+        // 预热
+        measure(1, 50, readOnlyTransaction());
+
+        double single = measure(1, operations, readOnlyTransaction());
+        double parallel = measure(cores, operations, readOnlyTransaction());
+        double writePool = measure(cores, operations, new TransactionTemplate(transactionManager));
+
+        log.info("SQLite 读吞吐: 1 线程 {} ops/s, {} 线程 {} ops/s ({}x), 同并发走单连接写池 {} ops/s",
+                String.format("%.0f", single), cores, String.format("%.0f", parallel),
+                String.format("%.2f", parallel / single), String.format("%.0f", writePool));
+
+        if (cores >= 4) {
+            assertThat(parallel).isGreaterThan(single * 1.5);
+            assertThat(parallel).isGreaterThan(writePool);
+        }
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * 多线程执行固定次数的查询，返回每秒完成的次数
+     */
+    private double measure(int threads, int operations, TransactionTemplate template) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int perThread = operations / threads;
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        template.executeWithoutResult(status -> jdbcTemplate.queryForObject(READ_WORKLOAD, Long.class));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return perThread * threads / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
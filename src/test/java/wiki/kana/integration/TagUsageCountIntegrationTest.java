@@ -0,0 +1,133 @@
+package wiki.kana.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import wiki.kana.entity.Post;
+import wiki.kana.entity.Tag;
+import wiki.kana.entity.User;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.repository.TagUsageRepository;
+import wiki.kana.service.PostService;
+import wiki.kana.service.TagService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 标签使用次数集成测试：计数由触发器随关联增删维护，实体更新不覆盖计数，全量重算为一条语句
+ */
+@SpringBootTest(properties = {
+        "app.media.gc.enabled=false",
+        "app.media.derivatives.enabled=false"
+})
+@ActiveProfiles("test")
+@DisplayName("标签使用次数集成测试")
+class TagUsageCountIntegrationTest {
+
+    private static Path workDirectory;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private TagUsageRepository tagUsageRepository;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void temporaryDatabase(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-tag-usage");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("tags.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+    }
+
+    @Test
+    @DisplayName("添加、移除关联和删除文章时计数随之变化，修改标签不覆盖计数")
+    void shouldMaintainUsageCountsInDatabase() {
+        User author = testDataFactory.createTestUser("tagusage", "EDITOR");
+        Tag tag = testDataFactory.createTestTag("计数");
+        Post first = createPost(author, "usage-one");
+        Post second = createPost(author, "usage-two");
+
+        tagService.addPostToTag(tag.getId(), first.getId());
+        tagService.addPostToTag(tag.getId(), second.getId());
+        assertThat(tagUsageRepository.usageCount(tag.getId())).isEqualTo(2);
+
+        Tag rename = Tag.builder().description("改名后").build();
+        rename.setUsageCount(99);
+        tagService.updateTag(tag.getId(), rename);
+        assertThat(tagUsageRepository.usageCount(tag.getId())).isEqualTo(2);
+
+        tagService.removePostFromTag(tag.getId(), first.getId());
+        assertThat(tagUsageRepository.usageCount(tag.getId())).isEqualTo(1);
+
+        postService.deletePost(second.getId());
+        assertThat(tagUsageRepository.usageCount(tag.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post_tags WHERE post_id = ?",
+                Integer.class, second.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("全量重算修复被改坏的计数")
+    void shouldRecalculateAllUsageCounts() {
+        User author = testDataFactory.createTestUser("tagrecount", "EDITOR");
+        Tag used = testDataFactory.createTestTag("重算");
+        Tag unused = testDataFactory.createTestTag("未使用");
+        Post post = createPost(author, "recount");
+        tagService.addPostToTag(used.getId(), post.getId());
+
+        jdbcTemplate.update("UPDATE tags SET usage_count = 42");
+        tagService.recalculateAllUsageCounts();
+
+        assertThat(tagUsageRepository.usageCount(used.getId())).isEqualTo(1);
+        assertThat(tagUsageRepository.usageCount(unused.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("只统计已发布文章时，发布和撤销发布同步调整计数")
+    void shouldCountPublishedPostsOnlyWhenConfigured() {
+        TagUsageRepository publishedOnly = new TagUsageRepository(jdbcTemplate, true);
+        publishedOnly.initialize();
+        try {
+            User author = testDataFactory.createTestUser("tagpublished", "EDITOR");
+            Tag tag = testDataFactory.createTestTag("已发布");
+            Post post = createPost(author, "published");
+
+            tagService.addPostToTag(tag.getId(), post.getId());
+            assertThat(publishedOnly.usageCount(tag.getId())).isZero();
+
+            postService.publishPost(post.getId());
+            assertThat(publishedOnly.usageCount(tag.getId())).isEqualTo(1);
+
+            postService.unpublishPost(post.getId());
+            assertThat(publishedOnly.usageCount(tag.getId())).isZero();
+        } finally {
+            tagUsageRepository.initialize();
+        }
+    }
+
+    private Post createPost(User author, String title) {
+        Post post = Post.builder()
+                .title(title + "-" + System.nanoTime())
+                .content("标签使用次数测试")
+                .build();
+        return postService.createPost(post, author.getId());
+    }
+}
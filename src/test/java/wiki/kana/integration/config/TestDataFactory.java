@@ -5,8 +5,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import wiki.kana.entity.*;
+import wiki.kana.repository.TagUsageRepository;
 import wiki.kana.service.*;
+import wiki.kana.util.JwtTokenUtil;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -38,6 +41,12 @@ public class TestDataFactory {
     @Autowired
     private ThemesService themesService;
 
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private TagUsageRepository tagUsageRepository;
+
     // ==================== 用户数据工厂 ====================
 
     /**
@@ -60,6 +69,14 @@ public class TestDataFactory {
         return userService.createUser(user);
     }
 
+    /**
+     * 创建管理员用户并签发访问令牌
+     */
+    public String createAdminToken(String username) {
+        User user = createTestUser(username, "ADMIN");
+        return jwtTokenUtil.generateToken(user.getId(), user.getUsername(), user.getRole().name());
+    }
+
     /**
      * 批量创建测试用户
      */
@@ -184,10 +201,8 @@ public class TestDataFactory {
 
         for (Map.Entry<String, Integer> entry : tagUsage.entrySet()) {
             Tag tag = createTestTag(entry.getKey());
-            // 手动设置使用次数（通过多次创建和删除文章来模拟）
-            for (int i = 0; i < entry.getValue(); i++) {
-                tagService.incrementUsageCount(tag.getId());
-            }
+            // 直接写入使用次数（incrementUsageCount 按关联表重算，没有文章时计数不变）
+            tagUsageRepository.adjust(tag.getId(), entry.getValue());
             tags.add(tag);
         }
 
@@ -315,6 +330,94 @@ public class TestDataFactory {
         return mediaSet;
     }
 
+    // ==================== 内存数据工厂（不入库） ====================
+
+    private static final String[] DETACHED_TAG_NAMES = {
+            "Java", "Spring Boot", "SpringBoot", "MySQL", "Redis", "Docker", "Kubernetes", "前端", "API", "架构"
+    };
+
+    /**
+     * 构建未持久化的标签列表，名称中混入相近拼写（供合并建议、slug 等基准测试使用）
+     */
+    public static List<Tag> buildDetachedTags(int count) {
+        List<Tag> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String base = DETACHED_TAG_NAMES[i % DETACHED_TAG_NAMES.length];
+            String name = i < DETACHED_TAG_NAMES.length ? base : base + (i % 3 == 0 ? "-" : " ") + i;
+            Tag tag = Tag.builder()
+                    .id((long) i + 1)
+                    .name(name)
+                    .description("测试标签：" + name)
+                    .usageCount(count - i)
+                    .build();
+            tag.generateSlug();
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    /**
+     * 构建未持久化的已发布文章，带作者、分类和指定数量的标签
+     *
+     * @param id            文章ID
+     * @param contentLength 正文长度（字符数）
+     * @param tags          关联标签
+     */
+    public static Post buildDetachedPost(long id, int contentLength, List<Tag> tags) {
+        User author = User.builder()
+                .id(1L)
+                .username("author")
+                .displayName("Test Author")
+                .role(User.UserRole.EDITOR)
+                .build();
+        Category category = Category.builder()
+                .id(1L)
+                .name("技术")
+                .slug("tech")
+                .build();
+
+        StringBuilder content = new StringBuilder(contentLength);
+        String paragraph = "这是测试文章的详细内容，包含丰富的技术细节和实践经验。Spring Boot and SQLite. ";
+        while (content.length() < contentLength) {
+            content.append(paragraph);
+        }
+        content.setLength(contentLength);
+
+        LocalDateTime now = LocalDateTime.now();
+        return Post.builder()
+                .id(id)
+                .title("深入理解Java虚拟机 " + id)
+                .slug("post-" + id)
+                .content(content.toString())
+                .excerpt("这是第" + id + "篇文章的摘要")
+                .status(Post.PostStatus.PUBLISHED)
+                .isFeatured(id % 10 == 0)
+                .viewCount((int) (id * 7 % 1000))
+                .author(author)
+                .category(category)
+                .tags(new ArrayList<>(tags))
+                .publishedAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    /**
+     * 构建一页未持久化的已发布文章，标签从 {@link #buildDetachedTags(int)} 中轮流取 tagsPerPost 个
+     */
+    public static List<Post> buildDetachedPosts(int count, int contentLength, int tagsPerPost) {
+        List<Tag> tags = buildDetachedTags(Math.max(tagsPerPost, DETACHED_TAG_NAMES.length));
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Tag> postTags = new ArrayList<>(tagsPerPost);
+            for (int t = 0; t < tagsPerPost; t++) {
+                postTags.add(tags.get((i + t) % tags.size()));
+            }
+            posts.add(buildDetachedPost(i + 1, contentLength, postTags));
+        }
+        return posts;
+    }
+
     // ==================== 工具方法 ====================
 
     private String sanitizeIdentifier(String raw, String defaultValue) {
@@ -0,0 +1,348 @@
+package wiki.kana.integration.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import wiki.kana.util.JwtTokenUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 端到端 HTTP 压测：在临时 SQLite 文件上启动完整应用，生成语料后按比例混合读写请求，
+ * 输出各接口的 p50/p99 延迟和吞吐（JSON）。默认跳过，运行方式：
+ * <pre>
+ * mvn test -Dtest=BlogLoadTest -Dloadtest=true \
+ *     -Dloadtest.posts=10000 -Dloadtest.tags=2000 -Dloadtest.threads=16 -Dloadtest.duration=60
+ * </pre>
+ * 报告写入 {@code -Dloadtest.report}（默认 target/loadtest/report.json），可用于比较不同构建。
+ * 比较平台线程与虚拟线程：第二次在 Java 21 上追加
+ * {@code -Pjava21 -Dspring.profiles.active=virtual-threads -Dloadtest.report=target/loadtest/report-virtual.json}，
+ * 命令行指定的 profile 与 test 一起激活
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.wiki.kana=INFO",
+        "logging.level.org.hibernate.SQL=WARN",
+        "management.server.port=0"
+})
+@ActiveProfiles(resolver = BlogLoadTest.CommandLineProfilesResolver.class)
+@Import(LoadTestDataFactory.class)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@DisplayName("博客端到端 HTTP 压测")
+class BlogLoadTest {
+
+    /**
+     * 请求类型及默认权重，可通过 -Dloadtest.mix=list=40,detail=25,... 覆盖
+     */
+    enum Operation {
+        LIST("list", 35),
+        DETAIL("detail", 25),
+        SEARCH("search", 15),
+        POPULAR_TAGS("tags", 10),
+        CATEGORY_TREE("tree", 10),
+        CREATE_POST("create", 3),
+        UPLOAD_MEDIA("upload", 2);
+
+        private final String key;
+        private final int defaultWeight;
+
+        Operation(String key, int defaultWeight) {
+            this.key = key;
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    private static final String BOUNDARY = "----konatablog-loadtest-boundary";
+
+    private static Path workDirectory;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadTestDataFactory loadTestDataFactory;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private Environment environment;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private LoadTestDataFactory.Corpus corpus;
+    private String authorization;
+    private ZipfSampler postSampler;
+    private byte[] uploadPayload;
+
+    @DynamicPropertySource
+    static void temporaryStorage(DynamicPropertyRegistry registry) throws IOException {
+        workDirectory = Files.createTempDirectory("konatablog-loadtest");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + workDirectory.resolve("loadtest.db"));
+        registry.add("app.media.upload-dir", () -> workDirectory.resolve("uploads").toString());
+        registry.add("app.search.memory.snapshot-path", () -> workDirectory.resolve("search-index.snapshot.gz").toString());
+        registry.add("app.media.gc.enabled", () -> "false");
+    }
+
+    @Test
+    @DisplayName("混合读写流量下记录各接口延迟与吞吐")
+    void mixedTrafficShouldReportLatencyAndThroughput() throws Exception {
+        LoadTestDataFactory.CorpusSpec spec = LoadTestDataFactory.CorpusSpec.fromSystemProperties();
+        corpus = loadTestDataFactory.seedCorpus(spec);
+        authorization = "Bearer " + jwtTokenUtil.generateToken(
+                corpus.author().getId(), corpus.author().getUsername(), corpus.author().getRole().name());
+        // 越新的文章越热门：排名 0 对应列表中最后一篇
+        postSampler = new ZipfSampler(corpus.publishedPostIds().size(), spec.zipfExponent());
+        uploadPayload = new byte[Integer.getInteger("loadtest.upload-size", 64 * 1024)];
+        new Random(spec.seed()).nextBytes(uploadPayload);
+
+        int threads = Integer.getInteger("loadtest.threads", Runtime.getRuntime().availableProcessors() * 2);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("loadtest.mix"));
+
+        log.info("压测预热 {} 秒，{} 线程", warmupSeconds, threads);
+        drive(threads, warmupSeconds, mix, spec.seed());
+
+        log.info("压测开始 {} 秒，{} 线程，流量配比 {}", durationSeconds, threads, mix);
+        long start = System.nanoTime();
+        Map<Operation, LatencyStats> results = drive(threads, durationSeconds, mix, spec.seed() + 1);
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Map<String, Object> report = buildReport(spec, threads, durationSeconds, mix, results, elapsedSeconds);
+        Path reportPath = Paths.get(System.getProperty("loadtest.report", "target/loadtest/report.json"));
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(reportPath.toFile(), report);
+        log.info("压测报告已写入 {}:\n{}", reportPath.toAbsolutePath(), objectMapper.writeValueAsString(report.get("operations")));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        int requests = (int) total.get("requests");
+        long errors = (long) total.get("errors");
+        assertThat(requests).isPositive();
+        assertThat(errors).isLessThanOrEqualTo(requests / 100);
+    }
+
+    /**
+     * 闭环压测：每个线程按权重随机选择操作并同步等待响应，直到时间用完
+     */
+    private Map<Operation, LatencyStats> drive(int threads, int seconds, Map<Operation, Integer> mix, long seed)
+            throws Exception {
+        Operation[] wheel = buildWheel(mix);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<Operation, LatencyStats>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(seed * 31 + t);
+                futures.add(executor.submit(() -> {
+                    Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = wheel[random.nextInt(wheel.length)];
+                        HttpRequest request = buildRequest(operation, random);
+                        long begin = System.nanoTime();
+                        boolean success;
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            success = response.statusCode() < 400;
+                        } catch (IOException e) {
+                            success = false;
+                        }
+                        stats.computeIfAbsent(operation, key -> new LatencyStats())
+                                .record(System.nanoTime() - begin, success);
+                    }
+                    return stats;
+                }));
+            }
+
+            Map<Operation, LatencyStats> merged = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, LatencyStats>> future : futures) {
+                future.get().forEach((operation, stats) ->
+                        merged.computeIfAbsent(operation, key -> new LatencyStats()).merge(stats));
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private HttpRequest buildRequest(Operation operation, Random random) {
+        switch (operation) {
+            case LIST:
+                // 大部分流量落在前几页
+                return get("/api/posts?page=" + Math.min(random.nextInt(10), random.nextInt(10)) + "&size=10");
+            case DETAIL:
+                List<Long> postIds = corpus.publishedPostIds();
+                return get("/api/posts/" + postIds.get(postIds.size() - 1 - postSampler.next(random)));
+            case SEARCH:
+                String keyword = LoadTestDataFactory.VOCABULARY[random.nextInt(LoadTestDataFactory.VOCABULARY.length)];
+                return get("/api/posts/search?q=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8) + "&size=10");
+            case POPULAR_TAGS:
+                return get("/api/tags/popular?limit=20");
+            case CATEGORY_TREE:
+                return get("/api/categories/tree");
+            case CREATE_POST:
+                return createPostRequest(random);
+            case UPLOAD_MEDIA:
+                return uploadRequest(random);
+            default:
+                throw new IllegalStateException("Unknown operation: " + operation);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest createPostRequest(Random random) {
+        List<Long> tagIds = corpus.tagIds();
+        String body = String.format(
+                "{\"title\":\"%s\",\"slug\":\"load-new-%s\",\"content\":\"%s\",\"status\":\"PUBLISHED\","
+                        + "\"categoryId\":%d,\"tagIds\":[%d,%d]}",
+                LoadTestDataFactory.randomText(random, 4),
+                UUID.randomUUID(),
+                LoadTestDataFactory.randomText(random, 200),
+                corpus.categoryIds().get(random.nextInt(corpus.categoryIds().size())),
+                tagIds.get(random.nextInt(tagIds.size())),
+                tagIds.get(random.nextInt(tagIds.size())));
+        return HttpRequest.newBuilder(uri("/api/posts"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest uploadRequest(Random random) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(uploadPayload.length + 512);
+        String header = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load-" + random.nextInt(1_000_000) + ".jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n";
+        body.writeBytes(header.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(uploadPayload);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return HttpRequest.newBuilder(uri("/api/media/upload"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private Map<String, Object> buildReport(LoadTestDataFactory.CorpusSpec spec, int threads, int durationSeconds,
+                                            Map<Operation, Integer> mix, Map<Operation, LatencyStats> results,
+                                            double elapsedSeconds) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("corpus", spec);
+        config.put("threads", threads);
+        config.put("durationSeconds", durationSeconds);
+        config.put("javaVersion", System.getProperty("java.version"));
+        config.put("activeProfiles", environment.getActiveProfiles());
+        config.put("virtualThreads", environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false));
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        Map<String, Integer> mixByKey = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> mixByKey.put(operation.key, weight));
+        config.put("mix", mixByKey);
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        LatencyStats total = new LatencyStats();
+        for (Map.Entry<Operation, LatencyStats> entry : results.entrySet()) {
+            operations.put(entry.getKey().key, entry.getValue().summarize(elapsedSeconds));
+            total.merge(entry.getValue());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", LocalDateTime.now().toString());
+        report.put("config", config);
+        report.put("elapsedSeconds", Math.round(elapsedSeconds * 1000) / 1000.0);
+        report.put("total", total.summarize(elapsedSeconds));
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mixProperty) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        if (mixProperty == null || mixProperty.isBlank()) {
+            for (Operation operation : Operation.values()) {
+                mix.put(operation, operation.defaultWeight);
+            }
+            return mix;
+        }
+        for (String part : mixProperty.split(",")) {
+            String[] pair = part.trim().split("=");
+            Operation operation = Arrays.stream(Operation.values())
+                    .filter(candidate -> candidate.key.equals(pair[0].trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown loadtest.mix entry: " + part));
+            mix.put(operation, Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+
+    private static Operation[] buildWheel(Map<Operation, Integer> mix) {
+        List<Operation> wheel = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+        return wheel.toArray(new Operation[0]);
+    }
+
+    /**
+     * 在 test 之外追加 -Dspring.profiles.active 指定的 profile（@ActiveProfiles 会覆盖该系统属性）
+     */
+    static class CommandLineProfilesResolver implements ActiveProfilesResolver {
+
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            Set<String> profiles = new LinkedHashSet<>();
+            profiles.add("test");
+            for (String profile : System.getProperty("spring.profiles.active", "").split(",")) {
+                if (!profile.isBlank()) {
+                    profiles.add(profile.trim());
+                }
+            }
+            return profiles.toArray(new String[0]);
+        }
+    }
+}
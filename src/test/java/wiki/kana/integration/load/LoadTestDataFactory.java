@@ -0,0 +1,252 @@
+package wiki.kana.integration.load;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wiki.kana.entity.*;
+import wiki.kana.integration.config.TestDataFactory;
+import wiki.kana.service.CategoryService;
+import wiki.kana.service.PostCountCache;
+import wiki.kana.service.search.SearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 压测语料工厂
+ * 在 TestDataFactory 基础上批量生成文章、标签、分类和媒体，标签使用次数服从 Zipf 分布。
+ * 文章、标签、媒体按批次在单个事务内写入，post_tags 关联用 JDBC 批量插入（避免加载热门标签的文章集合）
+ */
+@Slf4j
+public class LoadTestDataFactory extends TestDataFactory {
+
+    /**
+     * 正文和检索词共用的词表，中英文混合；长度均不少于 3 个字符，可命中 trigram 索引
+     */
+    static final String[] VOCABULARY = {
+            "性能优化", "微服务架构", "数据库索引", "虚拟线程", "垃圾回收器", "分布式事务", "缓存一致性", "全文检索",
+            "spring", "sqlite", "kubernetes", "hibernate", "latency", "throughput", "benchmark", "compiler",
+            "容器化部署", "消息队列", "前端工程化", "代码重构", "jackson", "tomcat", "netty", "postgres"
+    };
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private PostCountCache postCountCache;
+
+    /**
+     * 按规格生成完整语料
+     */
+    public Corpus seedCorpus(CorpusSpec spec) {
+        long start = System.nanoTime();
+        Random random = new Random(spec.seed());
+
+        User author = createTestUser("loadtest", "ADMIN");
+        List<Long> categoryIds = seedCategories(spec.categories());
+        List<Long> tagIds = seedTags(spec.tags());
+        List<Long> publishedPostIds = seedPosts(spec, author, categoryIds, tagIds, random);
+        seedMedia(spec.media(), author);
+
+        // 按 post_tags 回写标签使用次数，热门标签（排名靠前）的使用次数最高
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE tags SET usage_count = (SELECT COUNT(*) FROM post_tags pt WHERE pt.tag_id = tags.id)"));
+        searchIndex.rebuild();
+        postCountCache.invalidate();
+
+        log.info("压测语料生成完成 - 文章:{}, 标签:{}, 分类:{}, 媒体:{}, 耗时 {} ms",
+                spec.posts(), tagIds.size(), categoryIds.size(), spec.media(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new Corpus(author, publishedPostIds, tagIds, categoryIds);
+    }
+
+    /**
+     * 生成两层分类树：约 1/5 为顶级分类，其余挂在顶级分类下
+     */
+    private List<Long> seedCategories(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        List<Long> roots = new ArrayList<>();
+        int rootCount = Math.max(1, count / 5);
+        for (int i = 0; i < count; i++) {
+            Category category = createTestCategory("分类" + i);
+            if (i >= rootCount) {
+                Long parentId = roots.get(i % roots.size());
+                category = categoryService.updateCategory(category.getId(), category, parentId);
+            } else {
+                roots.add(category.getId());
+            }
+            ids.add(category.getId());
+        }
+        return ids;
+    }
+
+    private List<Long> seedTags(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        inBatches(count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                String name = VOCABULARY[i % VOCABULARY.length] + "-" + i;
+                Tag tag = Tag.builder()
+                        .name(name)
+                        .slug("load-tag-" + i)
+                        .description("压测标签 " + i)
+                        .build();
+                entityManager.persist(tag);
+                ids.add(tag.getId());
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * 生成文章并按 Zipf 分布关联标签，返回已发布文章的ID（按发布时间升序）
+     */
+    private List<Long> seedPosts(CorpusSpec spec, User author, List<Long> categoryIds, List<Long> tagIds, Random random) {
+        ZipfSampler tagSampler = new ZipfSampler(tagIds.size(), spec.zipfExponent());
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> publishedIds = new ArrayList<>(spec.posts());
+
+        inBatches(spec.posts(), (from, to) -> {
+            User authorRef = entityManager.getReference(User.class, author.getId());
+            List<Object[]> links = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                boolean published = random.nextDouble() < spec.publishedRatio();
+                Post post = Post.builder()
+                        .title(randomText(random, 4) + " " + i)
+                        .slug("load-post-" + i)
+                        .content(randomContent(random, spec.contentLength()))
+                        .excerpt(randomText(random, 12))
+                        .status(published ? Post.PostStatus.PUBLISHED : Post.PostStatus.DRAFT)
+                        .isFeatured(i % 50 == 0)
+                        .viewCount(random.nextInt(5000))
+                        .author(authorRef)
+                        .category(entityManager.getReference(Category.class,
+                                categoryIds.get(random.nextInt(categoryIds.size()))))
+                        .publishedAt(published ? now.minusMinutes((long) (spec.posts() - i) * 7) : null)
+                        .build();
+                entityManager.persist(post);
+                if (published) {
+                    publishedIds.add(post.getId());
+                }
+
+                Set<Long> postTags = new HashSet<>();
+                int tagCount = 1 + random.nextInt(spec.maxTagsPerPost());
+                for (int t = 0; t < tagCount; t++) {
+                    postTags.add(tagIds.get(tagSampler.next(random)));
+                }
+                for (Long tagId : postTags) {
+                    links.add(new Object[]{tagId, post.getId()});
+                }
+            }
+            entityManager.flush();
+            jdbcTemplate.batchUpdate("INSERT INTO post_tags (tag_id, post_id) VALUES (?, ?)", links);
+        });
+        return publishedIds;
+    }
+
+    private void seedMedia(int count, User uploader) {
+        Media.MediaType[] types = {Media.MediaType.IMAGE, Media.MediaType.IMAGE, Media.MediaType.THUMBNAIL,
+                Media.MediaType.BANNER, Media.MediaType.DOCUMENT};
+        inBatches(count, (from, to) -> {
+            User uploaderRef = entityManager.getReference(User.class, uploader.getId());
+            for (int i = from; i < to; i++) {
+                String fileName = "load-media-" + i + ".jpg";
+                entityManager.persist(Media.builder()
+                        .originalName("压测图片_" + i + ".jpg")
+                        .fileName(fileName)
+                        .fileExtension("jpg")
+                        .fileSize(100L * 1024 + i)
+                        .type(types[i % types.length])
+                        .width(1920)
+                        .height(1080)
+                        .localUrl("/uploads/media/" + fileName)
+                        .uploadedBy(uploaderRef)
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * 每 BATCH_SIZE 条一个事务，写完清空持久化上下文，避免一级缓存无限增长
+     */
+    private void inBatches(int total, BatchWriter writer) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < total; from += BATCH_SIZE) {
+            int batchFrom = from;
+            int batchTo = Math.min(from + BATCH_SIZE, total);
+            template.executeWithoutResult(status -> {
+                writer.write(batchFrom, batchTo);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String randomContent(Random random, int length) {
+        StringBuilder content = new StringBuilder(length + 32);
+        while (content.length() < length) {
+            content.append(randomText(random, 8)).append("。\n\n");
+        }
+        return content.toString();
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(int from, int to);
+    }
+
+    // ==================== 数据载体类 ====================
+
+    /**
+     * 语料规格，默认值可通过 -Dloadtest.* 系统属性覆盖
+     */
+    public record CorpusSpec(int posts, int tags, int categories, int media, int maxTagsPerPost,
+                             int contentLength, double publishedRatio, double zipfExponent, long seed) {
+
+        public static CorpusSpec fromSystemProperties() {
+            return new CorpusSpec(
+                    Integer.getInteger("loadtest.posts", 10_000),
+                    Integer.getInteger("loadtest.tags", 2_000),
+                    Integer.getInteger("loadtest.categories", 50),
+                    Integer.getInteger("loadtest.media", 1_000),
+                    Integer.getInteger("loadtest.max-tags-per-post", 5),
+                    Integer.getInteger("loadtest.content-length", 3_000),
+                    Double.parseDouble(System.getProperty("loadtest.published-ratio", "0.9")),
+                    Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.1")),
+                    Long.getLong("loadtest.seed", 42L));
+        }
+    }
+
+    /**
+     * 已生成语料的主键，供流量生成器选择请求目标
+     */
+    public record Corpus(User author, List<Long> publishedPostIds, List<Long> tagIds, List<Long> categoryIds) {
+    }
+}
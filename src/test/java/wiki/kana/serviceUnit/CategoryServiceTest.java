@@ -12,6 +12,7 @@ import wiki.kana.exception.DuplicateResourceException;
 import wiki.kana.exception.ResourceNotFoundException;
 import wiki.kana.repository.CategoryRepository;
 import wiki.kana.service.CategoryService;
+import wiki.kana.service.PostDetailCache;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +28,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private PostDetailCache postDetailCache;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -0,0 +1,257 @@
+package wiki.kana.serviceUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import wiki.kana.entity.Post;
+import wiki.kana.repository.PostRepository;
+import wiki.kana.repository.projection.PostRevisionView;
+import wiki.kana.repository.projection.PostSearchHit;
+import wiki.kana.service.search.InMemorySearchIndex;
+import wiki.kana.service.search.SearchDocument;
+import wiki.kana.service.search.SearchIndexReport;
+import wiki.kana.service.search.SearchTokenizer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DisplayName("InMemorySearchIndex 单元测试")
+class InMemorySearchIndexTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private PostRepository postRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshot;
+    private InMemorySearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        snapshot = tempDir.resolve("search-index.snapshot.gz");
+        searchIndex = new InMemorySearchIndex(postRepository, snapshot.toString());
+    }
+
+    @Test
+    @DisplayName("中文按二元组切分，英文按单词切分")
+    void shouldTokenizeCjkAsBigrams() {
+        assertThat(SearchTokenizer.queryTokens("全文检索 Spring")).containsExactly("全文", "文检", "检索", "spring");
+        assertThat(SearchTokenizer.queryTokens("索")).containsExactly("索");
+        assertThat(SearchTokenizer.indexTokens("检索")).containsExactly("检", "索", "检索");
+    }
+
+    @Test
+    @DisplayName("检索按相关度排序，标题命中优先并返回高亮")
+    void shouldRankTitleMatchesFirst() {
+        searchIndex.index(document(1L, "数据库随笔", "顺带聊聊倒排索引的实现", true));
+        searchIndex.index(document(2L, "倒排索引入门", "从零实现一个倒排索引", true));
+        searchIndex.index(document(3L, "草稿", "倒排索引草稿", false));
+
+        Page<PostSearchHit> page = searchIndex.search("倒排索引", PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(PostSearchHit::getPostId).containsExactly(2L, 1L);
+        assertThat(page.getContent().get(0).getTitleHighlight()).isEqualTo("<mark>倒排索引</mark>入门");
+        assertThat(page.getContent().get(1).getSnippet()).contains("<mark>倒排索引</mark>");
+    }
+
+    @Test
+    @DisplayName("二元组都命中但关键词不连续出现时不返回")
+    void shouldRequireContiguousPhrase() {
+        searchIndex.index(document(1L, "全文", "以及检索", true));
+
+        assertThat(searchIndex.search("全文检索", PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    @DisplayName("更新、撤销发布后索引随之变化")
+    void shouldApplyIncrementalUpdates() {
+        searchIndex.index(document(1L, "Spring Boot 实践", "内容", true));
+        assertThat(searchIndex.search("spring", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+
+        searchIndex.index(document(1L, "Quarkus 实践", "内容", true));
+        assertThat(searchIndex.search("spring", PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(searchIndex.search("quarkus", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+
+        searchIndex.index(document(1L, "Quarkus 实践", "内容", false));
+        assertThat(searchIndex.search("quarkus", PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    @DisplayName("正文去掉 HTML 标签后索引，片段中的文本被转义")
+    void shouldIndexPlainTextOfContent() {
+        searchIndex.index(document(1L, "标题", "<p class=\"note\">Spring &lt;Boot&gt; 实践</p>", true));
+
+        assertThat(searchIndex.search("note", PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(searchIndex.search("spring", PageRequest.of(0, 10)).getContent().get(0).getSnippet())
+                .isEqualTo("<mark>Spring</mark> &lt;Boot&gt; 实践");
+    }
+
+    @Test
+    @DisplayName("反复更新后压缩空位，检索结果和快照保持正确")
+    void shouldCompactAfterRepeatedUpdates() {
+        for (int round = 0; round < 50; round++) {
+            for (long id = 1; id <= 10; id++) {
+                searchIndex.index(document(id, "文章" + id, "第" + round + "版 倒排索引", true));
+            }
+        }
+
+        assertThat(searchIndex.search("倒排索引", PageRequest.of(0, 20)).getTotalElements()).isEqualTo(10);
+        assertThat(searchIndex.search("第49版", PageRequest.of(0, 20)).getTotalElements()).isEqualTo(10);
+        assertThat(searchIndex.search("第0版", PageRequest.of(0, 20)).getTotalElements()).isZero();
+
+        searchIndex.saveSnapshotIfDirty();
+        InMemorySearchIndex reloaded = new InMemorySearchIndex(postRepository, snapshot.toString());
+        when(postRepository.findPublishedRevisions()).thenReturn(List.of(
+                revision(1L), revision(2L), revision(3L), revision(4L), revision(5L),
+                revision(6L), revision(7L), revision(8L), revision(9L), revision(10L)));
+        reloaded.initialize();
+
+        assertThat(reloaded.search("第49版", PageRequest.of(0, 20)).getTotalElements()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("快照写入后可重新加载")
+    void shouldRoundTripSnapshot() {
+        for (long id = 1; id <= 5; id++) {
+            searchIndex.index(document(id, "检索文章" + id, "正文包含检索关键词", true));
+        }
+        searchIndex.remove(3L);
+        searchIndex.saveSnapshotIfDirty();
+        assertThat(Files.exists(snapshot)).isTrue();
+
+        InMemorySearchIndex reloaded = new InMemorySearchIndex(postRepository, snapshot.toString());
+        when(postRepository.findPublishedRevisions()).thenReturn(List.of(
+                revision(1L), revision(2L), revision(4L), revision(5L)));
+        reloaded.initialize();
+
+        Page<PostSearchHit> page = reloaded.search("检索", PageRequest.of(0, 2));
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(reloaded.search("检索", PageRequest.of(0, 10)).getContent())
+                .extracting(PostSearchHit::getPostId)
+                .doesNotContain(3L);
+    }
+
+    @Test
+    @DisplayName("一致性检查发现缺失、过期和多余的文章")
+    void shouldReportInconsistencies() {
+        searchIndex.index(document(1L, "标题一", "内容", true));
+        searchIndex.index(document(2L, "标题二", "内容", true));
+
+        PostRevisionView updated = revision(2L, BASE_TIME.plusHours(1));
+        when(postRepository.findPublishedRevisions()).thenReturn(List.of(updated, revision(3L)));
+
+        SearchIndexReport report = searchIndex.checkConsistency();
+
+        assertThat(report.isConsistent()).isFalse();
+        assertThat(report.getMissingIds()).containsExactly(3L);
+        assertThat(report.getStaleIds()).containsExactly(2L);
+        assertThat(report.getExtraIds()).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("重建索引从数据库加载已发布文章")
+    void shouldRebuildFromRepository() {
+        Post post = Post.builder()
+                .id(7L)
+                .title("重建测试")
+                .content("重建后可以检索")
+                .status(Post.PostStatus.PUBLISHED)
+                .publishedAt(BASE_TIME)
+                .build();
+        post.setUpdatedAt(BASE_TIME);
+        when(postRepository.findByStatus(Post.PostStatus.PUBLISHED)).thenReturn(List.of(post));
+        when(postRepository.findPublishedRevisions()).thenReturn(List.of(revision(7L)));
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.search("重建", PageRequest.of(0, 10)).getContent())
+                .extracting(PostSearchHit::getPostId)
+                .containsExactly(7L);
+        assertThat(searchIndex.checkConsistency().isConsistent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("重建加载期间的增量更新和移除在替换索引前重放，不会丢失")
+    void shouldReplayChangesMadeDuringRebuild() {
+        Post stale = Post.builder()
+                .id(7L)
+                .title("重建旧标题")
+                .content("加载时读到的旧数据")
+                .status(Post.PostStatus.PUBLISHED)
+                .publishedAt(BASE_TIME)
+                .build();
+        Post removed = Post.builder()
+                .id(9L)
+                .title("重建后已撤销")
+                .content("加载后被撤销发布")
+                .status(Post.PostStatus.PUBLISHED)
+                .publishedAt(BASE_TIME)
+                .build();
+        when(postRepository.findByStatus(Post.PostStatus.PUBLISHED)).thenAnswer(invocation -> {
+            // 模拟加载期间提交的写事务
+            searchIndex.index(document(7L, "重建新标题", "提交后的新数据", true));
+            searchIndex.index(document(8L, "重建期间发布", "加载开始后才发布", true));
+            searchIndex.remove(9L);
+            return List.of(stale, removed);
+        });
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.search("重建", PageRequest.of(0, 10)).getContent())
+                .extracting(PostSearchHit::getPostId)
+                .containsExactlyInAnyOrder(7L, 8L);
+        assertThat(searchIndex.search("新标题", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+        assertThat(searchIndex.search("旧标题", PageRequest.of(0, 10)).getTotalElements()).isZero();
+
+        // 重建结束后不再记录变更
+        searchIndex.remove(8L);
+        assertThat(searchIndex.search("重建", PageRequest.of(0, 10)).getContent())
+                .extracting(PostSearchHit::getPostId)
+                .containsExactly(7L);
+    }
+
+    private SearchDocument document(Long id, String title, String content, boolean published) {
+        return SearchDocument.builder()
+                .postId(id)
+                .title(title)
+                .content(content)
+                .published(published)
+                .publishedAt(BASE_TIME.plusMinutes(id))
+                .updatedAt(BASE_TIME)
+                .build();
+    }
+
+    private PostRevisionView revision(Long id) {
+        return revision(id, BASE_TIME);
+    }
+
+    private PostRevisionView revision(Long id, LocalDateTime updatedAt) {
+        return new PostRevisionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return updatedAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package wiki.kana.serviceUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import wiki.kana.service.PostCountCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PostCountCache 单元测试")
+class PostCountCacheTest {
+
+    private final PostCountCache cache = new PostCountCache();
+
+    @Test
+    @DisplayName("加载后命中缓存，失效后重新加载")
+    void shouldReloadAfterInvalidate() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.getPublishedCount(() -> 10 + loads.incrementAndGet())).isEqualTo(11);
+        assertThat(cache.getPublishedCount(() -> 10 + loads.incrementAndGet())).isEqualTo(11);
+
+        cache.invalidate();
+        assertThat(cache.getPublishedCount(() -> 10 + loads.incrementAndGet())).isEqualTo(12);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("加载期间发生失效时，旧的加载结果不写入缓存")
+    void shouldDiscardLoadRacingWithInvalidate() {
+        long stale = cache.getPublishedCount(() -> {
+            cache.invalidate();
+            return 5;
+        });
+
+        assertThat(stale).isEqualTo(5);
+        assertThat(cache.getPublishedCount(() -> 6)).isEqualTo(6);
+    }
+}
@@ -0,0 +1,135 @@
+package wiki.kana.serviceUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import wiki.kana.dto.post.PostResponse;
+import wiki.kana.service.PostDetailCache;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PostDetailCache 单元测试")
+class PostDetailCacheTest {
+
+    private PostDetailCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PostDetailCache(3, 1024 * 1024);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("预热后按 ID 和 Slug 读取都不再调用 loader")
+    void shouldServeHitsWithoutLoading() {
+        cache.getById(1L, () -> load(1L, "hello"));
+
+        PostResponse byId = cache.getById(1L, () -> load(1L, "hello"));
+        PostResponse bySlug = cache.getBySlug("hello", () -> load(1L, "hello"));
+
+        assertThat(byId.getTitle()).isEqualTo("文章1");
+        assertThat(bySlug.getId()).isEqualTo(1L);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().getHits()).isEqualTo(2);
+        assertThat(cache.stats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("返回副本，调用方修改不影响缓存")
+    void shouldReturnCopies() {
+        cache.getById(1L, () -> load(1L, "hello")).setViewCount(999);
+
+        assertThat(cache.getById(1L, () -> load(1L, "hello")).getViewCount()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("失效后 ID 和旧 Slug 都需要重新加载")
+    void shouldEvictByIdAndSlug() {
+        cache.getById(1L, () -> load(1L, "old-slug"));
+        cache.evict(1L);
+
+        cache.getBySlug("old-slug", () -> load(1L, "old-slug"));
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().getInvalidations()).isEqualTo(1);
+
+        cache.evictAll();
+        cache.getById(1L, () -> load(1L, "new-slug"));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("超出条目数上限时淘汰最久未访问的文章")
+    void shouldEvictLeastRecentlyUsed() {
+        cache.getById(1L, () -> load(1L, "a"));
+        cache.getById(2L, () -> load(2L, "b"));
+        cache.getById(3L, () -> load(3L, "c"));
+        cache.getById(1L, () -> load(1L, "a"));
+        cache.getById(4L, () -> load(4L, "d"));
+
+        assertThat(cache.stats().getSize()).isEqualTo(3);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+
+        int before = loads.get();
+        cache.getById(1L, () -> load(1L, "a"));
+        assertThat(loads).hasValue(before);
+        cache.getBySlug("b", () -> load(2L, "b"));
+        assertThat(loads).hasValue(before + 1);
+    }
+
+    @Test
+    @DisplayName("超出字节上限时淘汰，超大条目不写入缓存")
+    void shouldRespectByteLimit() {
+        PostDetailCache small = new PostDetailCache(100, 4096);
+
+        small.getById(1L, () -> response(1L, "big", "正".repeat(4096)));
+        assertThat(small.stats().getSize()).isZero();
+
+        small.getById(2L, () -> response(2L, "a", "正".repeat(800)));
+        small.getById(3L, () -> response(3L, "b", "正".repeat(800)));
+        assertThat(small.stats().getSize()).isEqualTo(1);
+        assertThat(small.stats().getWeightBytes()).isLessThanOrEqualTo(4096);
+    }
+
+    @Test
+    @DisplayName("加载期间发生失效时不缓存旧数据")
+    void shouldNotCacheLoadRacingWithEviction() {
+        cache.getById(1L, () -> {
+            PostResponse stale = load(1L, "hello");
+            cache.evict(1L);
+            return stale;
+        });
+
+        cache.getById(1L, () -> load(1L, "hello"));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("浏览量写回后累加到缓存条目")
+    void shouldApplyFlushedViewCount() {
+        cache.getById(1L, () -> load(1L, "hello"));
+        cache.addViewCount(1L, 5);
+
+        assertThat(cache.getById(1L, () -> load(1L, "hello")).getViewCount()).isEqualTo(15);
+        assertThat(loads).hasValue(1);
+    }
+
+    private PostResponse load(Long id, String slug) {
+        loads.incrementAndGet();
+        return response(id, slug, "正文");
+    }
+
+    private PostResponse response(Long id, String slug, String content) {
+        return PostResponse.builder()
+                .id(id)
+                .title("文章" + id)
+                .slug(slug)
+                .content(content)
+                .viewCount(10)
+                .tags(List.of(PostResponse.TagDto.builder().id(1L).name("Java").slug("java").build()))
+                .build();
+    }
+}
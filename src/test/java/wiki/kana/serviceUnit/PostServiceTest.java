@@ -7,12 +7,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import wiki.kana.dto.post.PostCursor;
 import wiki.kana.entity.Post;
 import wiki.kana.entity.User;
 import wiki.kana.repository.PostRepository;
 import wiki.kana.repository.UserRepository;
+import wiki.kana.repository.projection.PostSearchHit;
+import wiki.kana.repository.projection.PostSummaryView;
 import wiki.kana.service.PostService;
+import wiki.kana.service.ViewCountBuffer;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +38,12 @@ class PostServiceTest {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Long authorId;
 
     @BeforeEach
@@ -98,6 +110,163 @@ class PostServiceTest {
         assertEquals(newer.getId(), page.getContent().get(0).getId());
     }
 
+    @Test
+    @DisplayName("分页查询已发布文章应按页返回数据并在发布后刷新总数")
+    void findPublishedPostsShouldPageInDatabaseAndRefreshTotal() {
+        long baseline = postService.countPublishedPosts();
+
+        for (int i = 0; i < 3; i++) {
+            Post post = new Post();
+            post.setTitle("Paged Post " + i);
+            post.setContent("Paged content " + i);
+            post.setStatus(Post.PostStatus.PUBLISHED);
+            postService.createPost(post, authorId);
+        }
+
+        Page<Post> secondPage = postService.findPublishedPosts(PageRequest.of(1, 2));
+        assertEquals(baseline + 3, secondPage.getTotalElements());
+        assertEquals(Math.min(2, baseline + 1), secondPage.getContent().size());
+
+        Post draft = new Post();
+        draft.setTitle("Paged Draft");
+        draft.setContent("Draft content");
+        draft = postService.createPost(draft, authorId);
+        postService.publishPost(draft.getId());
+
+        Page<Post> refreshed = postService.findPublishedPosts(PageRequest.of(1, 2));
+        assertEquals(baseline + 4, refreshed.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("游标分页应按发布时间和ID倒序遍历且不重复")
+    void findPublishedPostsAfterShouldWalkAllPagesWithoutDuplicates() {
+        LocalDateTime sameTime = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Long> createdIds = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Post post = new Post();
+            post.setTitle("Cursor Post " + i);
+            post.setContent("Cursor content " + i);
+            post.setStatus(Post.PostStatus.PUBLISHED);
+            post.setPublishedAt(sameTime);
+            createdIds.add(postService.createPost(post, authorId).getId());
+        }
+
+        List<Long> seen = new java.util.ArrayList<>();
+        PostCursor cursor = null;
+        Slice<PostSummaryView> slice;
+        do {
+            slice = postService.findPublishedPostsAfter(
+                    cursor != null ? cursor.getPublishedAt() : null,
+                    cursor != null ? cursor.getId() : null,
+                    2);
+            slice.getContent().forEach(post -> seen.add(post.getId()));
+            List<PostSummaryView> content = slice.getContent();
+            PostSummaryView last = content.isEmpty() ? null : content.get(content.size() - 1);
+            cursor = last == null ? null : PostCursor.decode(PostCursor.encode(last.getPublishedAt(), last.getId()));
+        } while (slice.hasNext());
+
+        assertEquals(seen.size(), new java.util.HashSet<>(seen).size());
+        assertEquals(postService.countPublishedPosts(), seen.size());
+        // 相同发布时间按ID倒序，且排在最前
+        assertEquals(List.of(createdIds.get(2), createdIds.get(1), createdIds.get(0)), seen.subList(0, 3));
+    }
+
+    @Test
+    @DisplayName("浏览量应先写入内存缓冲，再批量写回数据库")
+    void incrementViewCountShouldBufferAndFlushInBatch() {
+        Post post = new Post();
+        post.setTitle("Viewed Post");
+        post.setContent("Viewed content");
+        post = postService.createPost(post, authorId);
+        Long postId = post.getId();
+
+        for (int i = 0; i < 5; i++) {
+            postService.incrementViewCount(postId);
+        }
+
+        assertEquals(5, postService.getPendingViewCount(postId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT view_count FROM posts WHERE id = ?", Integer.class, postId));
+
+        viewCountBuffer.flush();
+
+        assertEquals(0, postService.getPendingViewCount(postId));
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT view_count FROM posts WHERE id = ?", Integer.class, postId));
+    }
+
+    @Test
+    @DisplayName("全文检索应按相关度排序、在数据库端分页并返回高亮片段")
+    void searchPublishedShouldRankPageAndHighlight() {
+        Post titleHit = new Post();
+        titleHit.setTitle("全文检索实践指南");
+        titleHit.setSlug("fts-title-hit");
+        titleHit.setContent("介绍倒排索引的基本原理");
+        titleHit.setStatus(Post.PostStatus.PUBLISHED);
+        Long titleHitId = postService.createPost(titleHit, authorId).getId();
+
+        Post contentHit = new Post();
+        contentHit.setTitle("数据库随笔");
+        contentHit.setSlug("fts-content-hit");
+        contentHit.setContent("这篇文章顺带提到了全文检索实践的一些坑");
+        contentHit.setStatus(Post.PostStatus.PUBLISHED);
+        contentHit = postService.createPost(contentHit, authorId);
+
+        Post draft = new Post();
+        draft.setTitle("全文检索实践草稿");
+        draft.setSlug("fts-draft");
+        draft.setContent("草稿不应出现在搜索结果中");
+        postService.createPost(draft, authorId);
+
+        Page<PostSearchHit> firstPage = postService.searchPublished("全文检索实践", PageRequest.of(0, 1));
+        assertEquals(2, firstPage.getTotalElements());
+        assertEquals(titleHitId, firstPage.getContent().get(0).getPostId());
+        assertTrue(firstPage.getContent().get(0).getTitleHighlight().contains("<mark>"));
+
+        Page<PostSearchHit> secondPage = postService.searchPublished("全文检索实践", PageRequest.of(1, 1));
+        assertEquals(contentHit.getId(), secondPage.getContent().get(0).getPostId());
+        assertTrue(secondPage.getContent().get(0).getSnippet().contains("<mark>"));
+
+        // 更新正文后索引同步
+        contentHit.setContent("已经改写，不再包含关键词");
+        postService.updatePost(contentHit.getId(), contentHit);
+        postRepository.flush();
+        assertEquals(1, postService.searchPublished("全文检索实践", PageRequest.of(0, 10)).getTotalElements());
+
+        // 两字中文词回退到 LIKE
+        Page<PostSearchHit> shortTerm = postService.searchPublished("倒排", PageRequest.of(0, 10));
+        assertTrue(shortTerm.getContent().stream().anyMatch(hit -> hit.getPostId().equals(titleHitId)));
+
+        // 回退检索按词匹配，片段只高亮命中词，% 按字面匹配
+        PostSearchHit twoTerms = postService.searchPublished("原理 倒排", PageRequest.of(0, 10)).getContent().stream()
+                .filter(hit -> hit.getPostId().equals(titleHitId))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(twoTerms.getSnippet().contains("<mark>倒排</mark>"));
+        assertTrue(twoTerms.getSnippet().contains("<mark>原理</mark>"));
+        assertTrue(postService.searchPublished("%", PageRequest.of(0, 10)).getContent().stream()
+                .noneMatch(hit -> hit.getPostId().equals(titleHitId)));
+    }
+
+    @Test
+    @DisplayName("全文检索的高亮结果转义标题和正文中的 HTML，只保留 mark 标签")
+    void searchPublishedShouldEscapeHtmlAroundHighlights() {
+        Post post = new Post();
+        post.setTitle("<img src=x onerror=alert(1)>跨站脚本防护");
+        post.setSlug("fts-escape");
+        post.setContent("<script>alert('跨站脚本防护')</script> 正文");
+        post.setStatus(Post.PostStatus.PUBLISHED);
+        Long postId = postService.createPost(post, authorId).getId();
+
+        PostSearchHit hit = postService.searchPublished("跨站脚本防护", PageRequest.of(0, 10)).getContent().stream()
+                .filter(candidate -> candidate.getPostId().equals(postId))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals("&lt;img src=x onerror=alert(1)&gt;<mark>跨站脚本防护</mark>", hit.getTitleHighlight());
+        assertFalse(hit.getSnippet().contains("<script>"));
+        assertTrue(hit.getSnippet().contains("&lt;script&gt;"));
+        assertTrue(hit.getSnippet().contains("<mark>"));
+    }
+
     @Test
     @DisplayName("按作者ID查找文章")
     void findByAuthorId() {
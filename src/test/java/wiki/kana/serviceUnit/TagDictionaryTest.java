@@ -0,0 +1,168 @@
+package wiki.kana.serviceUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import wiki.kana.entity.Tag;
+import wiki.kana.repository.TagRepository;
+import wiki.kana.repository.TagUsageRepository;
+import wiki.kana.service.TagDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("TagDictionary 单元测试")
+class TagDictionaryTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private ObjectProvider<TagRepository> tagRepositoryProvider;
+
+    @Mock
+    private TagUsageRepository tagUsageRepository;
+
+    @Mock
+    private ObjectProvider<TagUsageRepository> tagUsageRepositoryProvider;
+
+    private TagDictionary tagDictionary;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tagRepositoryProvider.getObject()).thenReturn(tagRepository);
+        when(tagUsageRepositoryProvider.getObject()).thenReturn(tagUsageRepository);
+        when(tagRepository.findAll()).thenReturn(List.of(
+                tag(1L, "Java", 3),
+                tag(2L, "JavaScript", 10),
+                tag(3L, "Spring Boot", 7),
+                tag(4L, "RxJava", 20),
+                tag(5L, "数据库", 2),
+                tag(6L, "分布式数据库", 5)));
+        tagDictionary = new TagDictionary(tagRepositoryProvider, tagUsageRepositoryProvider);
+    }
+
+    @Test
+    @DisplayName("前缀匹配在前，包含匹配在后，组内按使用次数排序")
+    void shouldRankPrefixMatchesBeforeSubstringMatches() {
+        assertThat(tagDictionary.suggest("java", 10, true))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("JavaScript", "Java", "RxJava");
+        assertThat(tagDictionary.suggest("数据", 10, true))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("数据库", "分布式数据库");
+        assertThat(tagDictionary.suggest("库", 1, true))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("分布式数据库");
+    }
+
+    @Test
+    @DisplayName("区分大小写时只返回大小写一致的标签")
+    void shouldRespectCaseSensitivity() {
+        assertThat(tagDictionary.suggest("Java", 10, false))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("JavaScript", "Java", "RxJava");
+        assertThat(tagDictionary.suggest("java", 10, false)).isEmpty();
+        assertThat(tagDictionary.suggest("spring", 10, false)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("标签增删改后增量更新，不再访问数据库")
+    void shouldApplyChangesIncrementally() {
+        assertThat(tagDictionary.suggest("j", 10, true)).hasSize(3);
+
+        tagDictionary.put(tag(7L, "Jakarta EE", 50));
+        Tag renamed = tag(1L, "Java SE", 3);
+        tagDictionary.put(renamed);
+        tagDictionary.remove(4L);
+
+        assertThat(tagDictionary.suggest("ja", 10, true))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("Jakarta EE", "JavaScript", "Java SE");
+        assertThat(tagDictionary.suggest("rx", 10, true)).isEmpty();
+        verify(tagRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("区分大小写时前若干名被过滤掉，遍历子树补足前缀匹配")
+    void shouldWalkSubtreeWhenCaseSensitiveTopIsShort() {
+        List<Tag> tags = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            tags.add(tag(id, "spring-" + id, 100));
+        }
+        tags.add(tag(31L, "Spring Boot", 7));
+        tags.add(tag(32L, "Spring Cloud", 3));
+        when(tagRepository.findAll()).thenReturn(tags);
+
+        assertThat(tagDictionary.suggest("Spring", 10, false))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("Spring Boot", "Spring Cloud");
+        assertThat(tagDictionary.suggest("spring", 10, true)).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("大量增量超过阈值后重建快照，结果与逐条合并一致")
+    void shouldCompactAfterManyChanges() {
+        assertThat(tagDictionary.suggest("java", 10, true)).hasSize(3);
+
+        for (long id = 100; id < 200; id++) {
+            tagDictionary.put(tag(id, "Kotlin " + id, (int) id));
+        }
+        tagDictionary.remove(2L);
+
+        assertThat(tagDictionary.size()).isEqualTo(105);
+        assertThat(tagDictionary.suggest("kotlin", 3, true))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("Kotlin 199", "Kotlin 198", "Kotlin 197");
+        assertThat(tagDictionary.suggest("java", 10, true))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("Java", "RxJava");
+        verify(tagRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("定时读取触发器维护的使用次数并重新排序")
+    void shouldRefreshUsageCountsFromDatabase() {
+        tagDictionary.reload();
+        long revision = tagDictionary.revision();
+        when(tagUsageRepository.findAllUsageCounts()).thenReturn(Map.of(1L, 30, 2L, 10, 4L, 20));
+
+        tagDictionary.refreshUsageCounts();
+
+        assertThat(tagDictionary.suggest("java", 10, true))
+                .extracting(TagDictionary.Entry::name)
+                .containsExactly("Java", "JavaScript", "RxJava");
+        assertThat(tagDictionary.revision()).isGreaterThan(revision);
+
+        tagDictionary.refreshUsageCounts();
+        assertThat(tagDictionary.revision()).isEqualTo(revision + 1);
+    }
+
+    @Test
+    @DisplayName("没有匹配或关键词为空时返回空列表")
+    void shouldReturnEmptyForMissingOrBlankQuery() {
+        assertThat(tagDictionary.suggest("golang", 10, true)).isEmpty();
+        assertThat(tagDictionary.suggest("  ", 10, true)).isEmpty();
+        assertThat(tagDictionary.suggest("java", 0, true)).isEmpty();
+    }
+
+    private static Tag tag(Long id, String name, int usageCount) {
+        Tag tag = Tag.builder()
+                .id(id)
+                .name(name)
+                .usageCount(usageCount)
+                .build();
+        tag.generateSlug();
+        return tag;
+    }
+}
@@ -12,6 +12,10 @@ import wiki.kana.exception.DuplicateResourceException;
 import wiki.kana.exception.ResourceNotFoundException;
 import wiki.kana.repository.PostRepository;
 import wiki.kana.repository.TagRepository;
+import wiki.kana.repository.TagUsageRepository;
+import wiki.kana.service.ContentRevision;
+import wiki.kana.service.PostDetailCache;
+import wiki.kana.service.TagDictionary;
 import wiki.kana.service.TagService;
 
 import java.time.LocalDateTime;
@@ -20,6 +24,7 @@ import java.util.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -29,9 +34,21 @@ class TagServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private TagUsageRepository tagUsageRepository;
+
     @Mock
     private PostRepository postRepository;
 
+    @Mock
+    private PostDetailCache postDetailCache;
+
+    @Mock
+    private TagDictionary tagDictionary;
+
+    @Mock
+    private ContentRevision contentRevision;
+
     @InjectMocks
     private TagService tagService;
 
@@ -544,4 +561,71 @@ class TagServiceTest {
 
         verify(tagRepository).findAll();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("合并建议与两两比较结果一致，标签集合未变化时使用缓存")
+    void shouldCacheTagMergeSuggestionsUntilTagsChange() {
+        // Given
+        List<Tag> allTags = List.of(
+                Tag.builder().id(1L).name("Spring Boot").usageCount(8).build(),
+                Tag.builder().id(2L).name("SpringBoot").usageCount(12).build(),
+                Tag.builder().id(3L).name("Spring-Boot").usageCount(1).build(),
+                Tag.builder().id(4L).name("Kotlin").usageCount(4).build(),
+                Tag.builder().id(5L).name("Spring").usageCount(9).build()
+        );
+        when(tagRepository.findAll()).thenReturn(allTags);
+        when(tagDictionary.revision()).thenReturn(1L);
+
+        // When
+        List<Map<String, Object>> result = tagService.suggestTagMerges(0.8);
+        List<Map<String, Object>> cached = tagService.suggestTagMerges(0.8);
+
+        // Then
+        assertThat(result).hasSize(3);
+        assertThat(result).extracting(suggestion -> suggestion.get("similarity"))
+                .containsExactly(1.0 - 1.0 / 11, 1.0 - 1.0 / 11, 1.0 - 1.0 / 11);
+        assertThat(result.get(0).get("recommendedTarget")).isEqualTo(2L);
+        assertThat(cached).isSameAs(result);
+        verify(tagRepository, times(1)).findAll();
+
+        when(tagDictionary.revision()).thenReturn(2L);
+        tagService.suggestTagMerges(0.8);
+        verify(tagRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("添加文章关联只写关联，计数交给触发器，提交后刷新词典和内容版本")
+    void shouldLeaveUsageCountToTriggerWhenAddingPost() {
+        // Given
+        Tag tag = Tag.builder().id(1L).name("Java").usageCount(3).build();
+        Post post = Post.builder().id(2L).title("文章").build();
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(tag));
+        when(postRepository.findById(2L)).thenReturn(Optional.of(post));
+
+        // When
+        tagService.addPostToTag(1L, 2L);
+
+        // Then
+        assertThat(tag.getPosts()).containsExactly(post);
+        assertThat(tag.getUsageCount()).isEqualTo(3);
+        verify(tagDictionary).usageCountsChanged();
+        verify(contentRevision).bump(ContentRevision.Family.TAGS);
+    }
+
+    @Test
+    @DisplayName("增减使用计数按关联表重算，不手动加减")
+    void shouldRecalculateWhenAdjustingUsageCount() {
+        // Given
+        Tag tag = Tag.builder().id(1L).name("Java").usageCount(3).build();
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(tag));
+
+        // When
+        tagService.incrementUsageCount(1L);
+        tagService.decrementUsageCount(1L);
+
+        // Then
+        verify(tagUsageRepository, times(2)).recalculate(1L);
+        verify(tagUsageRepository, never()).adjust(anyLong(), anyInt());
+        verify(contentRevision, times(2)).bump(ContentRevision.Family.TAGS);
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import wiki.kana.entity.User;
 import wiki.kana.repository.UserRepository;
+import wiki.kana.service.PostDetailCache;
 import wiki.kana.service.UserService;
 
 import java.util.Optional;
@@ -28,6 +29,9 @@ class UserServiceAuthenticateTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PostDetailCache postDetailCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -0,0 +1,131 @@
+package wiki.kana.serviceUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import wiki.kana.service.PostDetailCache;
+import wiki.kana.service.ViewCountBuffer;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ViewCountBuffer 单元测试")
+class ViewCountBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PostDetailCache postDetailCache;
+
+    private ViewCountBuffer viewCountBuffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        viewCountBuffer = new ViewCountBuffer(jdbcTemplate, transactionManager, postDetailCache);
+    }
+
+    @Test
+    @DisplayName("写回后清空缓冲条目，增量同步到详情缓存")
+    @SuppressWarnings("unchecked")
+    void shouldFlushBatchAndPruneEntries() {
+        viewCountBuffer.increment(1L);
+        viewCountBuffer.increment(1L);
+        viewCountBuffer.increment(2L);
+        viewCountBuffer.increment(null);
+
+        viewCountBuffer.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue())
+                .extracting(row -> row[1] + "=" + row[0])
+                .containsExactlyInAnyOrder("1=2", "2=1");
+        verify(postDetailCache).addViewCount(1L, 2L);
+        verify(postDetailCache).addViewCount(2L, 1L);
+        assertThat(viewCountBuffer.pendingPosts()).isZero();
+        assertThat(viewCountBuffer.getPending(1L)).isZero();
+    }
+
+    @Test
+    @DisplayName("缓冲为空时不访问数据库")
+    void shouldSkipEmptyFlush() {
+        viewCountBuffer.flush();
+
+        verifyNoInteractions(jdbcTemplate, postDetailCache);
+    }
+
+    @Test
+    @DisplayName("写回失败时增量放回缓冲，与新浏览合并")
+    void shouldRestorePendingCountsWhenFlushFails() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database is locked"));
+        viewCountBuffer.increment(1L);
+        viewCountBuffer.increment(1L);
+
+        viewCountBuffer.flush();
+        viewCountBuffer.increment(1L);
+
+        assertThat(viewCountBuffer.getPending(1L)).isEqualTo(3);
+        assertThat(viewCountBuffer.pendingPosts()).isEqualTo(1);
+        verify(postDetailCache, never()).addViewCount(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("并发浏览与写回交替进行时不丢失计数")
+    @SuppressWarnings("unchecked")
+    void shouldNotLoseIncrementsDuringConcurrentFlush() throws Exception {
+        AtomicLong written = new AtomicLong();
+        doAnswer(invocation -> {
+            for (Object[] row : (List<Object[]>) invocation.getArgument(1)) {
+                written.addAndGet((Long) row[0]);
+            }
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // 少量文章制造热点，同时让部分计数器在写回时被移除后又重新创建
+                    viewCountBuffer.increment((long) (i % 3));
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            viewCountBuffer.flush();
+        }
+        executor.shutdown();
+        viewCountBuffer.flush();
+        viewCountBuffer.flush();
+
+        assertThat(written.get()).isEqualTo((long) threads * perThread);
+    }
+}
@@ -0,0 +1,175 @@
+package wiki.kana.serviceUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import wiki.kana.exception.ResourceNotFoundException;
+import wiki.kana.exception.WriteQueueFullException;
+import wiki.kana.service.WriteDispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("WriteDispatcher 单元测试")
+class WriteDispatcherTest {
+
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private WriteDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("积压的写操作合并在一个事务中提交")
+    void shouldGroupCommitQueuedWrites() throws Exception {
+        dispatcher = start(16, 1000);
+        CountDownLatch release = blockWriter();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            futures.add(dispatcher.submit(() -> value));
+        }
+        release.countDown();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+        }
+        assertThat(transactionManager.commits.get()).isEqualTo(2);
+        assertThat(dispatcher.stats().getCommittedCommands()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("合并事务失败时拆分执行，只有出错的操作失败")
+    void shouldIsolateFailingWrite() throws Exception {
+        dispatcher = start(16, 1000);
+        CountDownLatch release = blockWriter();
+
+        CompletableFuture<String> first = dispatcher.submit(() -> "first");
+        CompletableFuture<String> failing = dispatcher.submit(() -> {
+            throw new ResourceNotFoundException("missing");
+        });
+        CompletableFuture<String> last = dispatcher.submit(() -> "last");
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(last.get(5, TimeUnit.SECONDS)).isEqualTo("last");
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+        assertThat(dispatcher.stats().getSplitBatches()).isEqualTo(1);
+        assertThat(dispatcher.stats().getFailedCommands()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("队列已满时拒绝新的写入")
+    void shouldApplyBackpressureWhenQueueIsFull() {
+        dispatcher = start(1, 50);
+        CountDownLatch release = blockWriter();
+
+        dispatcher.submit(() -> "queued");
+        assertThatThrownBy(() -> dispatcher.submit(() -> "rejected"))
+                .isInstanceOf(WriteQueueFullException.class);
+        assertThat(dispatcher.stats().getRejected()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("execute 原样抛出业务异常，写线程内嵌套提交直接执行")
+    void shouldUnwrapExceptionsAndRunNestedWritesInline() {
+        dispatcher = start(16, 1000);
+
+        assertThatThrownBy(() -> dispatcher.execute(() -> {
+            throw new ResourceNotFoundException("missing");
+        })).isInstanceOf(ResourceNotFoundException.class);
+
+        Integer nested = dispatcher.execute(() -> dispatcher.execute(() -> 42));
+        assertThat(nested).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("等待超时时仍在排队的写操作被移除，不再执行")
+    void shouldDropQueuedWriteWhenExecuteTimesOut() throws Exception {
+        dispatcher = start(16, 1000, 100);
+        CountDownLatch release = blockWriter();
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThatThrownBy(() -> dispatcher.execute(executions::incrementAndGet))
+                .isInstanceOf(WriteQueueFullException.class);
+        release.countDown();
+
+        assertThat(dispatcher.submit(() -> "after").get(5, TimeUnit.SECONDS)).isEqualTo("after");
+        assertThat(executions).hasValue(0);
+        assertThat(dispatcher.stats().getTimedOut()).isEqualTo(1);
+    }
+
+    private WriteDispatcher start(int capacity, long offerTimeoutMillis) {
+        return start(capacity, offerTimeoutMillis, 5000);
+    }
+
+    private WriteDispatcher start(int capacity, long offerTimeoutMillis, long executeTimeoutMillis) {
+        WriteDispatcher started = new WriteDispatcher(transactionManager, capacity, 32, offerTimeoutMillis,
+                executeTimeoutMillis);
+        started.start();
+        return started;
+    }
+
+    /**
+     * 提交一个阻塞写线程的操作，返回用于放行的闩锁
+     */
+    private CountDownLatch blockWriter() {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.submit(() -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        try {
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return release;
+    }
+
+    private static class CountingTransactionManager implements PlatformTransactionManager {
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}